@@ -0,0 +1,239 @@
+package GenERRate;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Class AsyncCorpusOutput
+ * <p>
+ * Writes the lines of an error corpus (or of a log file) on a separate writer thread.
+ * Lines are collected into large batches which are handed to the writer thread through a
+ * bounded queue, and the writer thread encodes each batch and writes it to a FileChannel.
+ * The thread creating the errors only waits when the queue is full; the number of times this
+ * happens and the time spent waiting are recorded.
+ */
+public class AsyncCorpusOutput extends CorpusOutput {
+    /**
+     * The default number of characters collected before a batch is handed to the writer thread
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1 << 18;
+
+    /**
+     * The default number of batches the queue can hold
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /**
+     * Put on the queue to tell the writer thread there are no more batches
+     */
+    private static final String END = new String("END");
+
+    private final String lineSeparator = System.getProperty("line.separator");
+
+    private final int batchSize;
+
+    private final int queueCapacity;
+
+    private final BlockingQueue<String> queue;
+
+    private final Thread writerThread;
+
+    private StringBuilder batch;
+
+    /**
+     * A problem encountered by the writer thread, reported to the thread creating the errors
+     */
+    private volatile IOException failure;
+
+    private long batchCount;
+
+    /**
+     * The number of batches the writer thread has written to the file
+     */
+    private long writtenCount;
+
+    private long queueFullCount;
+    private long waitNanos;
+
+    public AsyncCorpusOutput(String fileName, boolean append) throws IOException {
+        this(fileName, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY, append);
+    }
+
+    public AsyncCorpusOutput(String fileName, int batchSize, int queueCapacity) throws IOException {
+        this(fileName, batchSize, queueCapacity, false);
+    }
+
+    /**
+     * @param fileName      the output file
+     * @param batchSize     the number of characters collected before a batch is handed to the writer thread
+     * @param queueCapacity the number of batches the queue can hold
+     * @param append        whether to add to the end of an existing file (when resuming from a checkpoint)
+     */
+    public AsyncCorpusOutput(String fileName, int batchSize, int queueCapacity, boolean append) throws IOException {
+        this.fileName = fileName;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        queue = new ArrayBlockingQueue<String>(queueCapacity);
+        batch = new StringBuilder(batchSize + 1024);
+        final FileChannel channel = new FileOutputStream(fileName, append).getChannel();
+        writerThread = new Thread(new Runnable() {
+            public void run() {
+                write(channel);
+            }
+        }, "GenERRate-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public void println(String line) throws IOException {
+        batch.append(line).append(lineSeparator);
+        if (batch.length() >= batchSize) {
+            endBatch();
+        }
+    }
+
+    public void println() throws IOException {
+        println("");
+    }
+
+    /**
+     * Waits until the writer thread has written every line so far and records the length of the file in a checkpoint
+     */
+    public void checkpoint(Properties checkpoint) throws IOException {
+        endBatch();
+        synchronized (this) {
+            while (writtenCount < batchCount && failure == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for " + fileName + " to be written");
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        recordLength(checkpoint, fileName);
+    }
+
+    /**
+     * Hands the remaining lines to the writer thread and waits for it to finish
+     */
+    public void close() throws IOException {
+        endBatch();
+        enqueue(END);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + fileName + " to be written");
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Reports the batches written and the time spent waiting for the writer, if the queue was ever full
+     */
+    public String getReport() {
+        if (queueFullCount == 0) {
+            return null;
+        }
+        return fileName + ": " + batchCount + " batches written, queue full " + queueFullCount
+                + " times, " + (waitNanos / 1000000) + " ms spent waiting for the writer";
+    }
+
+    /**
+     * The number of times a batch could not be handed over immediately because the queue was full
+     */
+    public long getQueueFullCount() {
+        return queueFullCount;
+    }
+
+    /**
+     * The time (in nanoseconds) spent waiting for space in the queue
+     */
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    private void endBatch() throws IOException {
+        if (batch.length() == 0) {
+            return;
+        }
+        enqueue(batch.toString());
+        batchCount++;
+        batch = new StringBuilder(batchSize + 1024);
+    }
+
+    private void enqueue(String item) throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (!queue.offer(item)) {
+            queueFullCount++;
+            Object event = FlightEvents.beginBackpressure(fileName, queueCapacity);
+            long start = System.nanoTime();
+            try {
+                queue.put(item);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing " + fileName);
+            }
+            waitNanos += System.nanoTime() - start;
+            FlightEvents.endBackpressure(event);
+        }
+    }
+
+    /**
+     * The loop run by the writer thread
+     */
+    private void write(FileChannel channel) {
+        Charset charset = Charset.defaultCharset();
+        try {
+            try {
+                String item = queue.take();
+                while (item != END) {
+                    Object event = FlightEvents.beginFlush(fileName);
+                    ByteBuffer bytes = charset.encode(CharBuffer.wrap(item));
+                    int length = bytes.remaining();
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    FlightEvents.endFlush(event, length);
+                    synchronized (this) {
+                        writtenCount++;
+                        notifyAll();
+                    }
+                    item = queue.take();
+                }
+            } finally {
+                channel.close();
+            }
+        } catch (IOException io) {
+            fail(io);
+        } catch (InterruptedException e) {
+            fail(new InterruptedIOException("Interrupted while writing " + fileName));
+        }
+    }
+
+    private synchronized void fail(IOException problem) {
+        failure = problem;
+        queue.clear();
+        notifyAll();
+    }
+}
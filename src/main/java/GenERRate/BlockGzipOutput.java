@@ -0,0 +1,237 @@
+package GenERRate;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class BlockGzipOutput
+ * <p>
+ * Writes an error corpus as a sequence of independently compressed gzip members (blocks).
+ * The blocks are compressed by a pool of threads and written to the file in order, so the
+ * result is an ordinary gzip file which can be read with zcat.
+ * <p>
+ * A block is only ended at the start of a sentence, so the lines belonging to one input
+ * sentence are never split across two blocks. For each sentence, a line
+ * <pre>
+ * id TAB blockOffset TAB inBlockOffset
+ * </pre>
+ * is written to an index file, where blockOffset is the position of the gzip member in the
+ * compressed file and inBlockOffset is the position of the sentence in the uncompressed block.
+ */
+public class BlockGzipOutput extends CorpusOutput {
+    /**
+     * The default size (in uncompressed bytes) after which a block is ended
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * The extension added to the output file name to get the name of the index file
+     */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    /**
+     * The same encoding as the plain text output, which uses a FileWriter
+     */
+    private final Charset charset = Charset.defaultCharset();
+
+    private final byte[] lineSeparator = System.getProperty("line.separator").getBytes(charset);
+
+    private final int blockSize;
+
+    private final OutputStream out;
+
+    private final PrintWriter index;
+
+    private final ExecutorService compressors;
+
+    /**
+     * Blocks which have been handed to the compressors but not yet written, in file order
+     */
+    private final LinkedList<Block> pending = new LinkedList<Block>();
+
+    /**
+     * The maximum number of blocks held in memory waiting to be written
+     */
+    private final int maxPending;
+
+    private Block current = new Block();
+
+    /**
+     * The number of compressed bytes written to the file so far
+     */
+    private long fileOffset;
+
+    public BlockGzipOutput(String fileName, boolean append) throws IOException {
+        this(fileName, DEFAULT_BLOCK_SIZE, Runtime.getRuntime().availableProcessors(), append);
+    }
+
+    public BlockGzipOutput(String fileName, int blockSize, int threads) throws IOException {
+        this(fileName, blockSize, threads, false);
+    }
+
+    /**
+     * @param fileName  the compressed corpus
+     * @param blockSize the size (in uncompressed bytes) after which a block is ended
+     * @param threads   the number of compressor threads
+     * @param append    whether to add blocks to the end of an existing corpus and index (when resuming from a checkpoint)
+     */
+    public BlockGzipOutput(String fileName, int blockSize, int threads, boolean append) throws IOException {
+        this.fileName = fileName;
+        this.blockSize = blockSize;
+        this.maxPending = 2 * threads;
+        if (append) {
+            fileOffset = new File(fileName).length();
+        }
+        out = new BufferedOutputStream(new FileOutputStream(fileName, append), 1 << 16);
+        index = new PrintWriter(new BufferedWriter(new FileWriter(fileName + INDEX_EXTENSION, append)));
+        compressors = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "GenERRate-compressor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Opens a reader positioned at a sentence listed in the index file of a block compressed corpus.
+     * Only the blocks from blockOffset onwards are decompressed.
+     *
+     * @param fileName      the compressed corpus
+     * @param blockOffset   the position of the block in the compressed file
+     * @param inBlockOffset the position of the sentence in the uncompressed block
+     */
+    public static BufferedReader openAt(String fileName, long blockOffset, long inBlockOffset) throws IOException {
+        InputStream in = new FileInputStream(fileName);
+        skipFully(in, blockOffset);
+        in = new GZIPInputStream(new BufferedInputStream(in));
+        skipFully(in, inBlockOffset);
+        return new BufferedReader(new InputStreamReader(in, Charset.defaultCharset()));
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                throw new EOFException("Offset is past the end of the file");
+            }
+            count -= skipped;
+        }
+    }
+
+    public void beginSentence(long id) throws IOException {
+        if (current.data.size() >= blockSize) {
+            endBlock();
+        }
+        current.ids.add(id);
+        current.offsets.add(current.data.size());
+    }
+
+    public void println(String line) throws IOException {
+        current.data.write(line.getBytes(charset));
+        current.data.write(lineSeparator);
+    }
+
+    public void println() throws IOException {
+        current.data.write(lineSeparator);
+    }
+
+    /**
+     * Ends the current block, waits for every block to be written and records the length of the
+     * corpus and the index in a checkpoint
+     */
+    public void checkpoint(Properties checkpoint) throws IOException {
+        endBlock();
+        while (!pending.isEmpty()) {
+            writeBlock(pending.removeFirst());
+        }
+        out.flush();
+        index.flush();
+        if (index.checkError()) {
+            throw new IOException("Could not write to " + fileName + INDEX_EXTENSION);
+        }
+        recordLength(checkpoint, fileName);
+        recordLength(checkpoint, fileName + INDEX_EXTENSION);
+    }
+
+    public void close() throws IOException {
+        try {
+            endBlock();
+            while (!pending.isEmpty()) {
+                writeBlock(pending.removeFirst());
+            }
+        } finally {
+            compressors.shutdownNow();
+            out.close();
+            index.close();
+        }
+    }
+
+    /**
+     * Hands the current block to the compressors and writes any blocks which are ready
+     */
+    private void endBlock() throws IOException {
+        if (current.data.size() == 0) {
+            return;
+        }
+        final Block block = current;
+        block.compressed = compressors.submit(new Callable<byte[]>() {
+            public byte[] call() throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.data.size() / 4 + 64);
+                GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+                block.data.writeTo(gzip);
+                gzip.close();
+                return bytes.toByteArray();
+            }
+        });
+        pending.add(block);
+        current = new Block();
+        while (!pending.isEmpty() && pending.getFirst().compressed.isDone()) {
+            writeBlock(pending.removeFirst());
+        }
+        if (pending.size() > maxPending) {
+            //wait for the compressors to catch up
+            Object event = FlightEvents.beginBackpressure(fileName, maxPending);
+            while (pending.size() > maxPending) {
+                writeBlock(pending.removeFirst());
+            }
+            FlightEvents.endBackpressure(event);
+        }
+    }
+
+    private void writeBlock(Block block) throws IOException {
+        Object event = FlightEvents.beginFlush(fileName);
+        byte[] bytes;
+        try {
+            bytes = block.compressed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing a block");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not compress a block: " + e.getCause().getMessage());
+        }
+        for (int i = 0; i < block.ids.size(); i++) {
+            index.println(block.ids.get(i) + "\t" + fileOffset + "\t" + block.offsets.get(i));
+        }
+        out.write(bytes);
+        fileOffset += bytes.length;
+        FlightEvents.endFlush(event, bytes.length);
+    }
+
+    /**
+     * The uncompressed lines of a block together with the sentences which start in it
+     */
+    private static class Block {
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        private final List<Long> ids = new ArrayList<Long>();
+        private final List<Integer> offsets = new ArrayList<Integer>();
+        private Future<byte[]> compressed;
+    }
+}
@@ -0,0 +1,107 @@
+package GenERRate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class CompositeError
+ * <p>
+ * Inserts several errors into a sentence, one after another. The errors are drawn from the error
+ * specifications according to their probabilities and each is inserted in place into the same copy
+ * of the sentence, so every error sees the words as the errors before it left them. The positions
+ * of the edits and of the details therefore refer to the sentence as it was when that error was
+ * inserted. A drawn error which cannot be inserted is skipped and another one is drawn.
+ */
+public class CompositeError extends Error {
+
+    /**
+     * How many errors may be drawn, for each error to be inserted, before giving up
+     */
+    public static final int MAX_DRAWS_PER_ERROR = 10;
+
+    private final ErrorGenerator generator;
+
+    /**
+     * The number of errors to insert
+     */
+    private final int errorCount;
+
+    /**
+     * The errors inserted by the last call to insertError, in the order they were inserted
+     */
+    private final List<Error> errors = new ArrayList<Error>();
+
+    /**
+     * The specifications of the errors inserted by the last call to insertError
+     */
+    private final List<ErrorSpec> specs = new ArrayList<ErrorSpec>();
+
+    /**
+     * @param sentence   the input sentence, which is left unchanged
+     * @param generator  the error specifications to draw from and the resources needed to insert them
+     * @param errorCount the number of errors to insert
+     */
+    public CompositeError(Sentence sentence, ErrorGenerator generator, int errorCount) {
+        super(sentence);
+        this.generator = generator;
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * The errors inserted by the last call to insertError, in the order they were inserted
+     */
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    /**
+     * The specifications of the errors inserted by the last call to insertError
+     */
+    public List<ErrorSpec> getSpecs() {
+        return specs;
+    }
+
+    public Sentence insertError() throws CannotCreateErrorException {
+        if (sentence.size() < 1) {
+            throw new CannotCreateErrorException("The input sentence is empty.");
+        }
+        errors.clear();
+        specs.clear();
+        Sentence newSentence = copySentence();
+        Random random = createRandom(newSentence.toString());
+        StringBuilder types = new StringBuilder();
+        StringBuilder details = new StringBuilder();
+        int draws = 0;
+        while (errors.size() < errorCount && draws++ < errorCount * MAX_DRAWS_PER_ERROR) {
+            ErrorSpec spec = generator.drawSpec(random);
+            Error error = generator.getFactory().createError(spec, newSentence);
+            if (error == null) {
+                continue;
+            }
+            error.setSeed(seed);
+            error.setInPlace(true);
+            try {
+                error.insertError();
+            } catch (CannotCreateErrorException c) {
+                continue;
+            }
+            errors.add(error);
+            specs.add(spec);
+            if (types.length() > 0) {
+                types.append('+');
+                details.append("; ");
+            }
+            types.append(error.getErrorType());
+            if (error.getErrorDetails() != null) {
+                details.append(error.getErrorDetails());
+            }
+        }
+        if (errors.size() < errorCount) {
+            throw new CannotCreateErrorException("Cannot insert " + errorCount + " errors: only " + errors.size() + " of the errors drawn could be inserted.");
+        }
+        setErrorType(types.toString());
+        setErrorDescription(newSentence, details.toString());
+        return newSentence;
+    }
+}
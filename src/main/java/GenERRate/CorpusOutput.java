@@ -0,0 +1,145 @@
+package GenERRate;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.Properties;
+
+/**
+ * Class CorpusOutput
+ * <p>
+ * Writes the lines of an error corpus (or of a log file) to a plain text file.
+ */
+public class CorpusOutput {
+    /**
+     * The prefix of the checkpoint entries which record the length of an output file
+     */
+    public static final String FILE_KEY = "file.";
+
+    /**
+     * The number of characters buffered before they are written to a stream
+     */
+    public static final int STREAM_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The name of the output file
+     */
+    protected String fileName;
+
+    /**
+     * The writer used for the output file
+     */
+    private PrintWriter printer;
+
+    protected CorpusOutput() {
+    }
+
+    public CorpusOutput(String fileName) throws IOException {
+        this(fileName, false);
+    }
+
+    /**
+     * @param fileName the output file
+     * @param append   whether to add to the end of an existing file (when resuming from a checkpoint)
+     */
+    public CorpusOutput(String fileName, boolean append) throws IOException {
+        this.fileName = fileName;
+        printer = new PrintWriter(new FileWriter(fileName, append));
+    }
+
+    /**
+     * Writes to a stream such as standard output through a buffer of bounded size
+     *
+     * @param out  the stream
+     * @param name the name used for the stream in messages
+     */
+    public CorpusOutput(OutputStream out, String name) {
+        this.fileName = name;
+        printer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out), STREAM_BUFFER_SIZE));
+    }
+
+    /**
+     * Cuts the output files recorded in a checkpoint back to the length they had when the checkpoint was made
+     */
+    public static void truncate(Properties checkpoint) throws IOException {
+        for (String key : checkpoint.stringPropertyNames()) {
+            if (key.startsWith(FILE_KEY)) {
+                RandomAccessFile file = new RandomAccessFile(key.substring(FILE_KEY.length()), "rw");
+                file.setLength(Long.parseLong(checkpoint.getProperty(key)));
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Get the name of the output file
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns what is worth reporting about how the output was written, once it is closed, or null
+     * if there is nothing to report
+     */
+    public String getReport() {
+        return null;
+    }
+
+    /**
+     * Marks the start of the lines which belong to the input sentence with the given id.
+     * Plain text output does not need to keep track of sentences.
+     *
+     * @param id the position of the sentence in the input corpus
+     */
+    public void beginSentence(long id) throws IOException {
+    }
+
+    /**
+     * Write a line to the output
+     */
+    public void println(String line) throws IOException {
+        printer.println(line);
+    }
+
+    /**
+     * Write an empty line to the output
+     */
+    public void println() throws IOException {
+        printer.println();
+    }
+
+    /**
+     * Writes every line so far to the file and records the length of the file in a checkpoint
+     */
+    public void checkpoint(Properties checkpoint) throws IOException {
+        Object event = FlightEvents.beginFlush(fileName);
+        printer.flush();
+        FlightEvents.endFlush(event, 0);
+        if (printer.checkError()) {
+            throw new IOException("Could not write to " + fileName);
+        }
+        recordLength(checkpoint, fileName);
+    }
+
+    /**
+     * Records the current length of a file in a checkpoint
+     */
+    protected static void recordLength(Properties checkpoint, String fileName) {
+        checkpoint.setProperty(FILE_KEY + fileName, String.valueOf(new File(fileName).length()));
+    }
+
+    /**
+     * Flush any buffered lines and close the output
+     */
+    public void close() throws IOException {
+        Object event = FlightEvents.beginFlush(fileName);
+        printer.close();
+        FlightEvents.endFlush(event, 0);
+    }
+}
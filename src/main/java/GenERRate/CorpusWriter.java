@@ -0,0 +1,269 @@
+package GenERRate;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Class CorpusWriter
+ * <p>
+ * Writes the sentences of an error corpus in SGML, together with a log of the errors which
+ * could not be created. Keeps a count of what has been written so that a summary can be produced.
+ */
+public class CorpusWriter {
+    /**
+     * The prefix of the checkpoint entries which record the counts used in the summary
+     */
+    public static final String COUNT_KEY = "count.";
+
+    /**
+     * The error corpus
+     */
+    protected CorpusOutput output;
+
+    /**
+     * The log of failed attempts
+     */
+    protected CorpusOutput log;
+
+    /**
+     * Whether the ungrammatical sentences are written with their POS tags
+     */
+    protected boolean isOutputTagged;
+
+    /**
+     * Leaves out ungrammatical sentences already written for the same input sentence, or null to write them all
+     */
+    protected DuplicateFilter duplicates;
+
+    /**
+     * The counts are only changed by the thread writing the corpus, but may be read by a ProgressReporter
+     */
+    private volatile long sentenceCount;
+    private volatile long errorCount;
+    private volatile long failureCount;
+
+    /**
+     * Maps an error type to the number of sentences written with this error type
+     */
+    private final Map<String, Long> errorTypeCounts = new TreeMap<String, Long>();
+
+    protected CorpusWriter() {
+    }
+
+    public CorpusWriter(CorpusOutput output, CorpusOutput log, boolean isOutputTagged) {
+        this.output = output;
+        this.log = log;
+        this.isOutputTagged = isOutputTagged;
+    }
+
+    /**
+     * Get the value of duplicates
+     * Leaves out ungrammatical sentences already written for the same input sentence, or null to write them all
+     *
+     * @return the value of duplicates
+     */
+    public DuplicateFilter getDuplicateFilter() {
+        return duplicates;
+    }
+
+    /**
+     * Set the value of duplicates
+     * Leaves out ungrammatical sentences already written for the same input sentence, or null to write them all
+     *
+     * @param duplicates the new value of duplicates
+     */
+    public void setDuplicateFilter(DuplicateFilter duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    /**
+     * Get the value of isOutputTagged
+     * Whether the ungrammatical sentences are written with their POS tags
+     *
+     * @return the value of isOutputTagged
+     */
+    public boolean isOutputTagged() {
+        return isOutputTagged;
+    }
+
+    /**
+     * Marks the start of the output created from an input sentence
+     */
+    public void startSentence(Sentence sentence) throws IOException {
+        sentenceCount++;
+        output.beginSentence(sentence.getId());
+    }
+
+    /**
+     * Writes the grammatical input sentence (complete error corpus only)
+     */
+    public void writeOriginal(Sentence sentence) throws IOException {
+        output.println(sentence.toString());
+    }
+
+    /**
+     * Writes an ungrammatical sentence created from an input sentence
+     *
+     * @param sentence              the input sentence
+     * @param ungrammaticalSentence the sentence returned by the insertError method of error
+     * @param error                 the error which was inserted
+     * @param specLine              the line of the error analysis file which specified the error
+     * @return false if the ungrammatical sentence was left out as a duplicate
+     */
+    public boolean writeError(Sentence sentence, Sentence ungrammaticalSentence, Error error, int specLine) throws IOException {
+        if (isDuplicate(sentence, ungrammaticalSentence)) {
+            return false;
+        }
+        countError(error);
+        if (isOutputTagged) {
+            output.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + " original=\"" + sentence + "\">" + ungrammaticalSentence + "</s>");
+        } else {
+            output.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + " original=\"" + sentence + "\">" + ungrammaticalSentence.toStringNoTags() + "</s>");
+        }
+        return true;
+    }
+
+    /**
+     * Writes a line of an earlier error corpus again, for an error which did not have to be inserted again
+     *
+     * @param sentence the input sentence
+     * @param line     the line holding the ungrammatical sentence
+     */
+    public void copyError(Sentence sentence, String line) throws IOException {
+        errorCount++;
+        output.println(line);
+    }
+
+    /**
+     * Writes a line of an earlier log again, for an error which did not have to be inserted again
+     *
+     * @param sentence the input sentence
+     * @param line     the line holding the sentence and the reason the error could not be inserted
+     */
+    public void copyFailure(Sentence sentence, String line) throws IOException {
+        failureCount++;
+        log.println(line);
+    }
+
+    /**
+     * Writes the separator which follows the output created from an input sentence (complete error corpus only)
+     */
+    public void writeSeparator(Sentence sentence) throws IOException {
+        output.println();
+    }
+
+    /**
+     * Logs an error which could not be inserted into an input sentence
+     */
+    public void writeFailure(Sentence sentence, String message) throws IOException {
+        failureCount++;
+        log.println(sentence + "\t" + message);
+    }
+
+    /**
+     * Writes the number of sentences, errors and failures written so far to a file
+     */
+    public void writeSummary(String summaryFile) throws IOException {
+        PrintWriter summary = new PrintWriter(new FileWriter(summaryFile));
+        summary.println("sentences\t" + sentenceCount);
+        summary.println("errors\t" + errorCount);
+        summary.println("failures\t" + failureCount);
+        for (Map.Entry<String, Long> entry : errorTypeCounts.entrySet()) {
+            summary.println(entry.getKey() + "\t" + entry.getValue());
+        }
+        summary.close();
+    }
+
+    /**
+     * Writes everything so far to the corpus and log, and records their lengths and the counts used
+     * in the summary in a checkpoint
+     */
+    public void checkpoint(Properties checkpoint) throws IOException {
+        output.checkpoint(checkpoint);
+        log.checkpoint(checkpoint);
+        String prefix = COUNT_KEY + output.getFileName() + ".";
+        checkpoint.setProperty(prefix + "sentences", String.valueOf(sentenceCount));
+        checkpoint.setProperty(prefix + "errors", String.valueOf(errorCount));
+        checkpoint.setProperty(prefix + "failures", String.valueOf(failureCount));
+        for (Map.Entry<String, Long> entry : errorTypeCounts.entrySet()) {
+            checkpoint.setProperty(prefix + "type." + entry.getKey(), String.valueOf(entry.getValue()));
+        }
+    }
+
+    /**
+     * Restores the counts used in the summary from a checkpoint, when resuming an interrupted run
+     */
+    public void restore(Properties checkpoint) {
+        String prefix = COUNT_KEY + output.getFileName() + ".";
+        sentenceCount = Long.parseLong(checkpoint.getProperty(prefix + "sentences", "0"));
+        errorCount = Long.parseLong(checkpoint.getProperty(prefix + "errors", "0"));
+        failureCount = Long.parseLong(checkpoint.getProperty(prefix + "failures", "0"));
+        errorTypeCounts.clear();
+        for (String key : checkpoint.stringPropertyNames()) {
+            if (key.startsWith(prefix + "type.")) {
+                errorTypeCounts.put(key.substring(prefix.length() + 5), Long.parseLong(checkpoint.getProperty(key)));
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        try {
+            output.close();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Returns what is worth reporting once the corpus is closed: the duplicates left out, and how the
+     * corpus and log were written (see CorpusOutput.getReport). It is up to the caller to print it.
+     */
+    public List<String> getReports() {
+        List<String> reports = new ArrayList<String>();
+        if (duplicates != null) {
+            reports.add(output.getFileName() + ": " + duplicates.getReport());
+        }
+        for (CorpusOutput file : new CorpusOutput[]{output, log}) {
+            if (file.getReport() != null) {
+                reports.add(file.getReport());
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Is an ungrammatical sentence a duplicate of one already written for the same input sentence?
+     * Duplicates are not written or counted.
+     */
+    protected boolean isDuplicate(Sentence sentence, Sentence ungrammaticalSentence) {
+        return duplicates != null && duplicates.isDuplicate(sentence, ungrammaticalSentence, isOutputTagged);
+    }
+
+    /**
+     * Adds an error to the counts used in the summary
+     */
+    protected void countError(Error error) {
+        errorCount++;
+        String errorType = error.toString();
+        Long count = errorTypeCounts.get(errorType);
+        errorTypeCounts.put(errorType, count == null ? 1L : count + 1);
+    }
+
+    public long getSentenceCount() {
+        return sentenceCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+}
@@ -0,0 +1,184 @@
+package GenERRate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Class Deduplicator
+ * <p>
+ * Finds the input sentences which have the same text, by their fingerprint (see
+ * Sentence.getFingerprint), so that the errors are only inserted into each distinct sentence once.
+ * As the random choices made when inserting an error depend only on the text of the sentence and
+ * the seed, every copy of a sentence would get the same errors anyway.
+ * <p>
+ * Repeated sentences can either be dropped from the input (see dropRepeats), or kept, in which case
+ * the results for the first copy are written again for each later copy, with the SGML markup and
+ * id of that copy. The results are only kept until the last copy has been written, so the memory
+ * used depends on the number of repeated sentences waiting for their next copy, not on the size of
+ * the corpus.
+ */
+public class Deduplicator {
+
+    /**
+     * Repeated sentences are left out of the input
+     */
+    public static final String DROP = "drop";
+
+    /**
+     * The results for the first copy of a sentence are written again for the later copies
+     */
+    public static final String REUSE = "reuse";
+
+    /**
+     * The number of copies still to come of each sentence which occurs more than once
+     */
+    private final Map<Long, Integer> remaining = new HashMap<Long, Integer>();
+
+    /**
+     * The results for the first copy of each repeated sentence, until its last copy is written
+     */
+    private final Map<Long, ErrorResult[]> results = new HashMap<Long, ErrorResult[]>();
+
+    private final long sentences;
+
+    private final long distinct;
+
+    private long reusedSentences;
+
+    private long reusedResults;
+
+    /**
+     * Counts the copies of each sentence in the sentences to be processed, in the order they will be
+     * processed
+     */
+    public Deduplicator(List<Sentence> sentences) {
+        Map<Long, Integer> counts = new HashMap<Long, Integer>();
+        for (Sentence sentence : sentences) {
+            Integer count = counts.get(sentence.getFingerprint());
+            counts.put(sentence.getFingerprint(), count == null ? 1 : count + 1);
+        }
+        for (Map.Entry<Long, Integer> count : counts.entrySet()) {
+            if (count.getValue() > 1) {
+                remaining.put(count.getKey(), count.getValue());
+            }
+        }
+        this.sentences = sentences.size();
+        distinct = counts.size();
+    }
+
+    /**
+     * Marks a sentence as processed and returns the results stored for an earlier copy of it, or
+     * null if there are none and the errors have to be inserted into it
+     */
+    public ErrorResult[] visit(Sentence sentence) {
+        Long fingerprint = sentence.getFingerprint();
+        Integer count = remaining.get(fingerprint);
+        if (count == null) {
+            return null;
+        }
+        if (count == 1) {
+            remaining.remove(fingerprint);
+        } else {
+            remaining.put(fingerprint, count - 1);
+        }
+        ErrorResult[] stored = count == 1 ? results.remove(fingerprint) : results.get(fingerprint);
+        if (stored != null) {
+            reusedSentences++;
+            reusedResults += stored.length;
+        }
+        return stored;
+    }
+
+    /**
+     * Is there a copy of a sentence still to come, after the call to visit for this copy?
+     */
+    public boolean isRepeated(Sentence sentence) {
+        return remaining.containsKey(sentence.getFingerprint());
+    }
+
+    /**
+     * Stores the results for a sentence, to be returned by visit for its later copies
+     */
+    public void store(Sentence sentence, ErrorResult[] sentenceResults) {
+        results.put(sentence.getFingerprint(), sentenceResults);
+    }
+
+    /**
+     * Returns a summary of the work saved
+     */
+    public String getReport() {
+        return "Repeated sentences: " + sentences + " input sentences, " + distinct + " distinct; the results of "
+                + reusedSentences + " sentences (" + reusedResults + " insertions) were reused";
+    }
+
+    public long getReusedSentences() {
+        return reusedSentences;
+    }
+
+    public long getReusedResults() {
+        return reusedResults;
+    }
+
+    /**
+     * Removes the later copies of repeated sentences from a list of sentences and numbers the
+     * remaining sentences again, by their position in the list
+     *
+     * @return the number of sentences removed
+     */
+    public static int dropRepeats(List<Sentence> sentences) {
+        Set<Long> seen = new HashSet<Long>();
+        int kept = 0;
+        for (int i = 0; i < sentences.size(); i++) {
+            Sentence sentence = sentences.get(i);
+            if (seen.add(sentence.getFingerprint())) {
+                sentence.setId(kept);
+                sentences.set(kept++, sentence);
+            }
+        }
+        int dropped = sentences.size() - kept;
+        sentences.subList(kept, sentences.size()).clear();
+        return dropped;
+    }
+
+    /**
+     * Leaves the later copies of repeated sentences out of a stream of sentences, numbering the
+     * sentences by their position among the sentences kept. The fingerprints of all the distinct
+     * sentences are kept in memory.
+     */
+    public static Iterator<Sentence> dropRepeats(final Iterator<Sentence> sentences) {
+        return new Iterator<Sentence>() {
+            private final Set<Long> seen = new HashSet<Long>();
+            private Sentence next;
+            private long count;
+
+            public boolean hasNext() {
+                while (next == null && sentences.hasNext()) {
+                    Sentence sentence = sentences.next();
+                    if (seen.add(sentence.getFingerprint())) {
+                        sentence.setId(count++);
+                        next = sentence;
+                    }
+                }
+                return next != null;
+            }
+
+            public Sentence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Sentence sentence = next;
+                next = null;
+                return sentence;
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -11,7 +11,7 @@ public class DeletionError extends Error {
 
     public DeletionError(Sentence sentence) {
         super(sentence);
-        super.errorInfo = "errortype=\"DeletionError\"";
+        setErrorType("DeletionError");
     }
 
     /* For testing purposes
@@ -66,16 +66,17 @@ public class DeletionError extends Error {
         if (sentence == null || sentence.size() < 2) {
             throw new CannotCreateErrorException("Cannot introduce a Deletion error. The input sentence has too few words.");
         } else {
-            Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
+            Sentence newSentence = copySentence();
 
-            Random random = new Random(newSentence.toString().hashCode());
+            Random random = createRandom(newSentence.toString());
             int randomNo = random.nextInt(newSentence.size());
 
             Word wordToGo = newSentence.getWord(randomNo);
 
             newSentence.removeWord(randomNo);
+            newSentence.addEdit(Edit.deletion(randomNo, wordToGo));
 
-            newSentence.setErrorDescription(errorInfo + " details=\"" + wordToGo.getToken() + " at " + (randomNo + 1) + "\"");
+            setErrorDescription(newSentence, wordToGo.getToken() + " at " + (randomNo + 1));
 
             return newSentence;
         }
@@ -1,7 +1,5 @@
 package GenERRate;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -83,31 +81,25 @@ public class DeletionPOSError extends DeletionError {
             throw new CannotCreateErrorException("Cannot introduce a Deletion Error. The input sentence is not tagged");
         }
 
-        //create the new sentence
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-
         //find the words in the sentence tagged as POS
-        List<Integer> wordsForDeletion = new ArrayList<Integer>();
-        Word word;
-        for (int i = 0; i < newSentence.size(); i++) {
-            word = newSentence.getWord(i);
-            if (word.getTag().equals(POS)) {
-                wordsForDeletion.add(i);
-            }
-        }
+        int[] wordsForDeletion = sentence.getAnalysis().getPositions(POS);
+
+        //create the new sentence
+        Sentence newSentence = copySentence();
         //if there aren't any words tagged as POS in sentence, then we can't do anything
-        if (wordsForDeletion.size() == 0) {
+        if (wordsForDeletion.length == 0) {
             throw new CannotCreateErrorException("Cannot introduce a Deletion Error. There aren't any words with POS tag " + POS + " in the sentence.");
         }
 
         //randomly pick one of these and delete it from the sentence
-        Random rand = new Random(newSentence.hashCode());
-        int randNo = rand.nextInt(wordsForDeletion.size());
-        int randomPosition = wordsForDeletion.get(randNo);
+        Random rand = createRandom(newSentence.toString());
+        int randNo = rand.nextInt(wordsForDeletion.length);
+        int randomPosition = wordsForDeletion[randNo];
         Word wordToGo = newSentence.getWord(randomPosition);
         newSentence.removeWord(randomPosition);
-        errorInfo = "errortype=\"Deletion" + wordToGo.getToken() + "NULL" + "Error\"";
-        newSentence.setErrorDescription(errorInfo + " details=\"" + wordToGo.getToken() + " at " + (randomPosition + 1) + "\"");
+        newSentence.addEdit(Edit.deletion(randomPosition, wordToGo));
+        setErrorType("Deletion" + wordToGo.getToken() + "NULL" + "Error");
+        setErrorDescription(newSentence, wordToGo.getToken() + " at " + (randomPosition + 1));
 
         return newSentence;
     }
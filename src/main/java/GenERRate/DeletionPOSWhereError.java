@@ -26,10 +26,10 @@ public class DeletionPOSWhereError extends DeletionPOSError {
         super(inputS, thePOS);
         if (isBefore) {
             POSBefore = thePOSNear;
-            errorInfo = "errortype=\"Deletion" + POSBefore + POS + "Error\"";
+            setErrorType("Deletion" + POSBefore + POS + "Error");
         } else {
             POSAfter = thePOSNear;
-            errorInfo = "errortype=\"Deletion" + POS + POSAfter + "Error\"";
+            setErrorType("Deletion" + POS + POSAfter + "Error");
         }
 
 
@@ -39,7 +39,7 @@ public class DeletionPOSWhereError extends DeletionPOSError {
         super(inputS, thePOS);
         POSBefore = thePOSBefore;
         POSAfter = thePOSAfter;
-        errorInfo = "errortype=\"Deletion" + POSBefore + POS + POSAfter + "Error\"";
+        setErrorType("Deletion" + POSBefore + POS + POSAfter + "Error");
     }
 
     //For testing purposes
@@ -154,57 +154,49 @@ public class DeletionPOSWhereError extends DeletionPOSError {
         if (!sentence.areTagsIncluded()) {
             throw new CannotCreateErrorException("Cannot introduce a " + errorInfo + ". The input sentence is not tagged");
         } else {
+            SentenceAnalysis analysis = sentence.getAnalysis();
             //create the new sentence
-            Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-            Word wordToGo, wordBefore, wordAfter, word;
+            Sentence newSentence = copySentence();
+            Word wordToGo, wordBefore, wordAfter;
 
             if (POSAfter == null) {
                 //find pair sequences tagged as POSBefore, POS - store position of POS
                 List<Integer> wordsForDeletion = new ArrayList<Integer>();
-                for (int i = 1; i < newSentence.size(); i++) {
-                    wordBefore = newSentence.getWord(i - 1);
-                    word = newSentence.getWord(i);
-                    if (word.getTag().equals(POS) && wordBefore.getTag().equals(POSBefore)) {
-                        wordsForDeletion.add(i);
-                    }
+                for (int i : analysis.getBigramPositions(POSBefore, POS)) {
+                    wordsForDeletion.add(i + 1);
                 }
                 //if there aren't any word pairs tagged as POSBefore, POS in sentence, then we can't do anything
                 if (wordsForDeletion.size() == 0) {
                     throw new CannotCreateErrorException("Cannot introduce a " + errorInfo + ". There aren't any word pairs tagged as: " + POSBefore + "," + POS + " in the sentence.");
                 } else {
                     //randomly pick one of these and delete it from the sentence
-                    Random rand = new Random(newSentence.hashCode());
+                    Random rand = createRandom(newSentence.toString());
                     int randNo = rand.nextInt(wordsForDeletion.size());
                     int randPos = (wordsForDeletion.get(randNo)).intValue();
                     wordToGo = newSentence.getWord(randPos);
                     wordBefore = newSentence.getWord(randPos - 1);
                     newSentence.removeWord(randPos);
+                    newSentence.addEdit(Edit.deletion(randPos, wordToGo));
 
-                    newSentence.setErrorDescription(errorInfo + " details=\"" + wordToGo.getToken() + " at " + (randPos + 1) + " after " + wordBefore.getToken() + "\"");
+                    setErrorDescription(newSentence, wordToGo.getToken() + " at " + (randPos + 1) + " after " + wordBefore.getToken());
                 }
             } else if (POSBefore == null) {
                 //find pair sequences tagged as POS, POSAfter - store position of POS
-                List<Integer> wordsForDeletion = new ArrayList<Integer>();
-                for (int i = 0; i < newSentence.size() - 1; i++) {
-                    wordAfter = newSentence.getWord(i + 1);
-                    word = newSentence.getWord(i);
-                    if (word.getTag().equals(POS) && wordAfter.getTag().equals(POSAfter)) {
-                        wordsForDeletion.add(i);
-                    }
-                }
+                int[] wordsForDeletion = analysis.getBigramPositions(POS, POSAfter);
                 //if there aren't any word pairs tagged as POSBefore, POS in sentence, then we can't do anything
-                if (wordsForDeletion.size() == 0) {
+                if (wordsForDeletion.length == 0) {
                     throw new CannotCreateErrorException("Cannot introduce a " + errorInfo + ". There aren't any word pairs tagged as: " + POS + "," + POSAfter + " in the sentence.");
                 } else {
                     //randomly pick one of these and delete it from the sentence
-                    Random rand = new Random(newSentence.hashCode());
-                    int randNo = rand.nextInt(wordsForDeletion.size());
-                    int randPos = wordsForDeletion.get(randNo);
+                    Random rand = createRandom(newSentence.toString());
+                    int randNo = rand.nextInt(wordsForDeletion.length);
+                    int randPos = wordsForDeletion[randNo];
                     wordToGo = newSentence.getWord(randPos);
                     wordAfter = newSentence.getWord(randPos + 1);
                     newSentence.removeWord(randPos);
+                    newSentence.addEdit(Edit.deletion(randPos, wordToGo));
 
-                    newSentence.setErrorDescription(errorInfo + " details=\"" + wordToGo.getToken() + " at " + (randPos + 1) + " before " + wordAfter.getToken() + "\"");
+                    setErrorDescription(newSentence, wordToGo.getToken() + " at " + (randPos + 1) + " before " + wordAfter.getToken());
                 }
             } else {
                 if (POSBefore.equalsIgnoreCase("start") && newSentence.size() < 2) {
@@ -217,27 +209,20 @@ public class DeletionPOSWhereError extends DeletionPOSError {
                 List<Integer> wordsForDeletion = new ArrayList<Integer>();
                 //	If POSBEfore is "start", see if the first word is tagged as POS and the second as POSAfter
                 if (POSBefore.equalsIgnoreCase("start")) {
-                    Word firstWord = newSentence.getWord(0);
-                    Word secondWord = newSentence.getWord(1);
-                    if (firstWord.getTag().equals(POS) && secondWord.getTag().equals(POSAfter)) {
+                    if (analysis.hasTag(0, POS) && analysis.hasTag(1, POSAfter)) {
                         wordsForDeletion.add(0);
                     }
                 }
                 //	If POSBEfore is "end", see if the second last word is tagged as POSBefore and the last as POS
                 else if (POSAfter.equalsIgnoreCase("end")) {
-                    Word lastWord = newSentence.getWord(newSentence.size() - 1);
-                    Word secondLastWord = newSentence.getWord(newSentence.size() - 2);
-                    if (lastWord.getTag().equals(POS) && secondLastWord.getTag().equals(POSBefore)) {
+                    if (analysis.hasTag(newSentence.size() - 1, POS) && analysis.hasTag(newSentence.size() - 2, POSBefore)) {
                         wordsForDeletion.add(newSentence.size() - 1);
                     }
                 }
                 //find pair sequences tagged as POSBefore, POS, POSAfter - store position of POS
                 else {
-                    for (int i = 1; i < newSentence.size() - 1; i++) {
-                        wordAfter = newSentence.getWord(i + 1);
-                        wordBefore = newSentence.getWord(i - 1);
-                        word = newSentence.getWord(i);
-                        if (word.getTag().equals(POS) && wordAfter.getTag().equals(POSAfter) && wordBefore.getTag().equals(POSBefore)) {
+                    for (int i : analysis.getBigramPositions(POS, POSAfter)) {
+                        if (analysis.hasTag(i - 1, POSBefore)) {
                             wordsForDeletion.add(i);
                         }
                     }
@@ -247,7 +232,7 @@ public class DeletionPOSWhereError extends DeletionPOSError {
                     throw new CannotCreateErrorException("Cannot introduce a " + errorInfo + ". There aren't any word pairs tagged as: " + POSBefore + "," + POS + "," + POSAfter + " in the sentence.");
                 } else {
                     //randomly pick one of these and delete it from the sentence
-                    Random rand = new Random(newSentence.hashCode());
+                    Random rand = createRandom(newSentence.toString());
                     int randNo = rand.nextInt(wordsForDeletion.size());
                     int randPos = wordsForDeletion.get(randNo);
                     wordToGo = newSentence.getWord(randPos);
@@ -262,8 +247,9 @@ public class DeletionPOSWhereError extends DeletionPOSError {
                         wordBefore = new Word("start");
                     }
                     newSentence.removeWord(randPos);
+                    newSentence.addEdit(Edit.deletion(randPos, wordToGo));
 
-                    newSentence.setErrorDescription(errorInfo + " details=\"" + wordToGo.getToken() + " at " + (randPos + 1) + " after " + wordBefore.getToken() + " before " + wordAfter.getToken() + "\"");
+                    setErrorDescription(newSentence, wordToGo.getToken() + " at " + (randPos + 1) + " after " + wordBefore.getToken() + " before " + wordAfter.getToken());
                 }
             }
 
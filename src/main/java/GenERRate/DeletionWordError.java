@@ -1,7 +1,5 @@
 package GenERRate;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -16,29 +14,22 @@ public class DeletionWordError extends DeletionError {
     }
 
     public Sentence insertError() throws CannotCreateErrorException {
-        Sentence sentenceWithError = new Sentence(sentence.toString(), sentence.areTagsIncluded());
+        int[] candidates = sentence.getAnalysis().getTokenPositions(token);
+        Sentence sentenceWithError = copySentence();
 
-        List<Integer> candidates = new ArrayList<Integer>();
-        for (int i = 0; i < sentenceWithError.size(); i++) {
-            Word candidate = sentenceWithError.getWord(i);
-            if (candidate.getToken().equals(token)) {
-                candidates.add(i);
-            }
-        }
-
-        if (candidates.size() == 0) {
+        if (candidates.length == 0) {
             throw new CannotCreateErrorException("Cannot delete word.  The word '" + token +
                     "' does not appear in the sentence");
         }
 
-        Random rand = new Random(sentenceWithError.hashCode());
-        int i = rand.nextInt(candidates.size());
-        int position = candidates.get(i);
+        Random rand = createRandom(sentenceWithError.toString());
+        int i = rand.nextInt(candidates.length);
+        int position = candidates[i];
         Word removed = sentenceWithError.getWord(position);
         sentenceWithError.removeWord(position);
-        errorInfo = "errortype=\"Deletion" + removed.getToken() + "Error\"";
-        sentenceWithError.setErrorDescription(
-                errorInfo + " details=\"" + removed.getToken() + " at " + (position + 1) + "\"");
+        sentenceWithError.addEdit(Edit.deletion(position, removed));
+        setErrorType("Deletion" + removed.getToken() + "Error");
+        setErrorDescription(sentenceWithError, removed.getToken() + " at " + (position + 1));
 
         return sentenceWithError;
     }
@@ -0,0 +1,106 @@
+package GenERRate;
+
+/**
+ * Class DuplicateFilter
+ * <p>
+ * Finds ungrammatical sentences which have already been written for the same input sentence, e.g.
+ * when two lines of the error analysis file happen to make the same change, so that the error
+ * corpus does not contain the same pair of sentences twice.
+ * <p>
+ * A pair is identified by a 64-bit fingerprint combining the fingerprint of the input sentence and
+ * its markup with the words of the ungrammatical sentence, which is computed from the words
+ * themselves without writing the sentence out. The markup is included because a repeated sentence
+ * is written with its own attributes, e.g. when the results of its first occurrence are reused
+ * (-d reuse), and those lines are not duplicates. The fingerprints are kept in a table of fixed size, so the
+ * memory used does not grow with the corpus: a fingerprint is replaced by a later one which falls
+ * in the same slot, after which a duplicate of its pair is no longer found. Duplicates are written
+ * close together (the errors created from one input sentence are written one after the other), so
+ * few are missed as long as the table is not very small.
+ */
+public class DuplicateFilter {
+
+    /**
+     * The fingerprints seen so far, each in the slot given by its low bits; 0 marks an empty slot
+     */
+    private final long[] table;
+
+    private final int mask;
+
+    private long checked;
+
+    private long suppressed;
+
+    /**
+     * @param entries the number of fingerprints kept (rounded up to a power of two)
+     */
+    public DuplicateFilter(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, Math.min(entries, 1 << 30)));
+        if (size < entries) {
+            size <<= 1;
+        }
+        table = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the fingerprint of an ungrammatical sentence created from an input sentence
+     *
+     * @param sentence              the input sentence
+     * @param ungrammaticalSentence the ungrammatical sentence
+     * @param isOutputTagged        whether the tags of the ungrammatical sentence are written too
+     */
+    public static long fingerprint(Sentence sentence, Sentence ungrammaticalSentence, boolean isOutputTagged) {
+        long hash = sentence.getFingerprint();
+        if (sentence.getSentenceSGML() != null) {
+            hash = ErrorUtilities.fingerprint(hash, sentence.getSentenceSGML());
+        }
+        for (int i = 0; i < ungrammaticalSentence.size(); i++) {
+            Word word = ungrammaticalSentence.getWord(i);
+            hash = ErrorUtilities.fingerprint(hash, word.getToken());
+            if (isOutputTagged) {
+                hash = ErrorUtilities.fingerprint(hash, "\t");
+                hash = ErrorUtilities.fingerprint(hash, word.getTag());
+            }
+            hash = ErrorUtilities.fingerprint(hash, " ");
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Has an ungrammatical sentence already been seen for the same input sentence? If not, it is
+     * remembered.
+     */
+    public boolean isDuplicate(Sentence sentence, Sentence ungrammaticalSentence, boolean isOutputTagged) {
+        long hash = fingerprint(sentence, ungrammaticalSentence, isOutputTagged);
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        checked++;
+        if (table[slot] == hash) {
+            suppressed++;
+            return true;
+        }
+        table[slot] = hash;
+        return false;
+    }
+
+    /**
+     * Returns the number of fingerprints kept
+     */
+    public int getCapacity() {
+        return table.length;
+    }
+
+    /**
+     * Returns the number of ungrammatical sentences checked and left out
+     */
+    public String getReport() {
+        return suppressed + " of " + checked + " ungrammatical sentences were duplicates and were not written";
+    }
+
+    public long getChecked() {
+        return checked;
+    }
+
+    public long getSuppressed() {
+        return suppressed;
+    }
+}
@@ -0,0 +1,88 @@
+package GenERRate;
+
+/**
+ * Class Edit
+ * <p>
+ * A single change made to a sentence when an error is inserted. The edits recorded for an
+ * ungrammatical sentence are applied in order, and the positions of an edit refer to the
+ * sentence as it is when that edit is applied (counting from zero).
+ */
+public class Edit {
+    public static final String DELETE = "delete";
+    public static final String INSERT = "insert";
+    public static final String MOVE = "move";
+    public static final String SUBST = "subst";
+
+    /**
+     * One of DELETE, INSERT, MOVE or SUBST
+     */
+    private final String operation;
+
+    /**
+     * The position of the word which is deleted, moved or substituted, or -1 for an insertion
+     */
+    private final int from;
+
+    /**
+     * The position the word is inserted, moved or substituted at, or -1 for a deletion
+     */
+    private final int to;
+
+    /**
+     * The word which is deleted, moved or replaced, or null for an insertion
+     */
+    private final Word oldWord;
+
+    /**
+     * The word which is inserted, moved or substituted, or null for a deletion
+     */
+    private final Word newWord;
+
+    private Edit(String operation, int from, int to, Word oldWord, Word newWord) {
+        this.operation = operation;
+        this.from = from;
+        this.to = to;
+        this.oldWord = oldWord;
+        this.newWord = newWord;
+    }
+
+    public static Edit deletion(int position, Word word) {
+        return new Edit(DELETE, position, -1, word, null);
+    }
+
+    public static Edit insertion(int position, Word word) {
+        return new Edit(INSERT, -1, position, null, word);
+    }
+
+    public static Edit move(int from, int to, Word word) {
+        return new Edit(MOVE, from, to, word, word);
+    }
+
+    public static Edit substitution(int position, Word oldWord, Word newWord) {
+        return new Edit(SUBST, position, position, oldWord, newWord);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public Word getOldWord() {
+        return oldWord;
+    }
+
+    public Word getNewWord() {
+        return newWord;
+    }
+
+    public String toString() {
+        return operation + " " + (oldWord == null ? "" : oldWord.getToken()) + "/" + (newWord == null ? "" : newWord.getToken()) + " " + from + "->" + to;
+    }
+}
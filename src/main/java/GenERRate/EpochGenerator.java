@@ -0,0 +1,119 @@
+package GenERRate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Class EpochGenerator
+ * <p>
+ * Produces an endless stream of errors for training a model, one epoch after another. In each
+ * epoch every sentence of the corpus is visited once, in a shuffled order, and receives an error
+ * drawn according to the probabilities in the error analysis file (uniformly if the file gives none).
+ * <p>
+ * Each epoch has its own seed, derived from the seed of the generator and the epoch number, which
+ * decides the order of the sentences, the error types drawn and the random choices the errors make.
+ * Every epoch therefore yields different errors, and the same seed always yields the same epochs.
+ * Nothing is written to disk.
+ */
+public class EpochGenerator implements Iterator<ErrorResult> {
+
+    private final List<Sentence> sentences;
+
+    private final ErrorGenerator generator;
+
+    private final long seed;
+
+    private long epoch;
+
+    private long epochSeed;
+
+    private int[] order;
+
+    private int position;
+
+    private Random random;
+
+    /**
+     * @param sentences the corpus
+     * @param generator the error specifications and the resources needed to insert them
+     * @param seed      the seed from which the seed of each epoch is derived
+     */
+    public EpochGenerator(List<Sentence> sentences, ErrorGenerator generator, long seed) {
+        this.sentences = sentences;
+        this.generator = generator;
+        this.seed = seed;
+        startEpoch(0);
+    }
+
+    /**
+     * Returns the seed used for an epoch. Neighbouring epochs get unrelated seeds (the SplitMix64 finalizer).
+     */
+    public static long getEpochSeed(long seed, long epoch) {
+        long z = seed + (epoch + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Continues from the start of the given epoch, for example when training is resumed
+     */
+    public void startEpoch(long epoch) {
+        this.epoch = epoch;
+        epochSeed = getEpochSeed(seed, epoch);
+        random = new Random(epochSeed);
+        order = new int[sentences.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        //Fisher-Yates shuffle
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        position = 0;
+    }
+
+    /**
+     * The epoch the next result belongs to
+     */
+    public long getEpoch() {
+        return position < order.length ? epoch : epoch + 1;
+    }
+
+    /**
+     * The number of results produced so far in the current epoch
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Always true, unless there are no sentences or no error specifications
+     */
+    public boolean hasNext() {
+        return !sentences.isEmpty() && !generator.getSpecs().isEmpty();
+    }
+
+    public ErrorResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        if (position == order.length) {
+            startEpoch(epoch + 1);
+        }
+        Sentence sentence = sentences.get(order[position++]);
+        ErrorResult result = generator.generate(sentence, generator.drawSpec(random), epochSeed);
+        //the sentence is not used again until the next epoch
+        sentence.releaseAnalysis();
+        return result;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
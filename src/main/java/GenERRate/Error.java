@@ -1,4 +1,8 @@
 package GenERRate;
+
+import java.util.List;
+import java.util.Random;
+
 /**
  * Class Error
  *
@@ -17,12 +21,38 @@ public class Error {
      */
     protected String errorInfo;
 
+    /**
+     * The error type (the errortype attribute of errorInfo)
+     */
+    protected String errorType;
+
+    /**
+     * The details of the last error inserted (the details attribute of its description)
+     */
+    protected String errorDetails;
+
 
     /**
      * The probability of this particular error type. This is obtained from the frequency counts in the errorAnalysisFile (see ErrorCreation file).
      */
     protected double probability;
 
+    /**
+     * Combined with the text of the sentence to seed the random choices made when inserting the error.
+     * With a seed of 0 the choices depend on the sentence alone.
+     */
+    protected long seed;
+
+    /**
+     * Is the error inserted into the input sentence itself, rather than into a copy of it?
+     */
+    protected boolean isInPlace;
+
+    /**
+     * Does insertError(int) fail if the error leaves the words of the sentence unchanged?
+     */
+    protected boolean isRejectingNoOps;
+
     public Error(Sentence sentence) {
         this.sentence = sentence;
         errorInfo = "";
@@ -50,6 +80,83 @@ public class Error {
         this.probability = probability;
     }
 
+    /**
+     * Get the value of seed
+     * Combined with the text of the sentence to seed the random choices made when inserting the error.
+     *
+     * @return the value of seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Set the value of seed
+     * Combined with the text of the sentence to seed the random choices made when inserting the error.
+     *
+     * @param seed the new value of seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Get the value of isInPlace
+     * Is the error inserted into the input sentence itself, rather than into a copy of it?
+     *
+     * @return the value of isInPlace
+     */
+    public boolean isInPlace() {
+        return isInPlace;
+    }
+
+    /**
+     * Set the value of isInPlace
+     * Is the error inserted into the input sentence itself, rather than into a copy of it?
+     * An error which cannot be inserted leaves the sentence unchanged.
+     *
+     * @param isInPlace the new value of isInPlace
+     */
+    public void setInPlace(boolean isInPlace) {
+        this.isInPlace = isInPlace;
+    }
+
+    /**
+     * Get the value of isRejectingNoOps
+     * Does insertError(int) fail if the error leaves the words of the sentence unchanged?
+     *
+     * @return the value of isRejectingNoOps
+     */
+    public boolean isRejectingNoOps() {
+        return isRejectingNoOps;
+    }
+
+    /**
+     * Set the value of isRejectingNoOps
+     * Does insertError(int) fail if the error leaves the words of the sentence unchanged?
+     *
+     * @param isRejectingNoOps the new value of isRejectingNoOps
+     */
+    public void setRejectingNoOps(boolean isRejectingNoOps) {
+        this.isRejectingNoOps = isRejectingNoOps;
+    }
+
+    /**
+     * Returns the sentence the error is to be inserted into: the input sentence itself when the
+     * error is inserted in place, otherwise a copy of it
+     */
+    protected Sentence copySentence() {
+        return isInPlace ? sentence : new Sentence(sentence);
+    }
+
+    /**
+     * Returns the random number generator for the choices made when inserting the error, seeded
+     * with the given text (usually the sentence) and the seed, so the choices are reproducible
+     */
+    protected Random createRandom(String text) {
+        return new Random(text.hashCode() ^ seed);
+    }
+
     /**
      * Set the value of the input sentence
      *
@@ -66,6 +173,124 @@ public class Error {
         return sentence;
     }
 
+    /**
+     * Inserts the error as insertError() does, and records a SlowInsertion flight recorder event if it
+     * takes longer than the threshold of the event
+     *
+     * @param specLine the line of the error analysis file which describes the error
+     */
+    public final Sentence insertError(int specLine) throws CannotCreateErrorException {
+        return insertError(specLine, null);
+    }
+
+    /**
+     * Inserts the error as insertError(int) does, and also records the time taken in a sampler of
+     * the slowest insertions
+     *
+     * @param specLine the line of the error analysis file which describes the error
+     * @param sampler  the sampler of the slowest insertions, or null
+     */
+    public final Sentence insertError(int specLine, SlowSentenceSampler sampler) throws CannotCreateErrorException {
+        Object event = FlightEvents.beginInsertion();
+        long start = sampler == null ? 0 : System.nanoTime();
+        boolean success = false;
+        try {
+            Sentence ungrammaticalSentence = insertError();
+            if (isRejectingNoOps && isNoOp(ungrammaticalSentence)) {
+                throw new CannotCreateErrorException("The error does not change the words of the sentence.");
+            }
+            success = true;
+            return ungrammaticalSentence;
+        } finally {
+            if (sampler != null) {
+                sampler.record(sentence, specLine, toString(), System.nanoTime() - start);
+            }
+            FlightEvents.endInsertion(event, specLine, this, sentence, success);
+        }
+    }
+
+    /**
+     * Does an ungrammatical sentence have the same words as the sentence the error was inserted into?
+     * Only the tokens are compared, as a substitution which only changes the tag reads the same.
+     * A single substitution or move is checked from its edit: a move changes nothing if the words
+     * it is moved over are the same as the word moved.
+     */
+    protected boolean isNoOp(Sentence ungrammaticalSentence) {
+        List<Edit> edits = ungrammaticalSentence.getEdits();
+        int newEdits = edits.size() - sentence.getEdits().size();
+        if (newEdits == 1) {
+            Edit edit = edits.get(edits.size() - 1);
+            if (edit.getOperation().equals(Edit.SUBST)) {
+                return edit.getOldWord().getToken().equals(edit.getNewWord().getToken());
+            }
+            if (edit.getOperation().equals(Edit.DELETE) || edit.getOperation().equals(Edit.INSERT)) {
+                return false;
+            }
+            if (sentence.size() != ungrammaticalSentence.size()) {
+                return false;
+            }
+            int from = Math.max(0, Math.min(edit.getFrom(), edit.getTo()));
+            int to = Math.min(sentence.size() - 1, Math.max(edit.getFrom(), edit.getTo()));
+            return haveSameTokens(sentence, ungrammaticalSentence, from, to);
+        }
+        return sentence.size() == ungrammaticalSentence.size() && haveSameTokens(sentence, ungrammaticalSentence, 0, sentence.size() - 1);
+    }
+
+    /**
+     * Do two sentences have the same tokens from one position to another (inclusive)?
+     */
+    private static boolean haveSameTokens(Sentence first, Sentence second, int from, int to) {
+        for (int i = from; i <= to; i++) {
+            if (!first.getWord(i).getToken().equals(second.getWord(i).getToken())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the class of the error, which identifies the kind of error in the JSON output
+     */
+    public String getErrorClass() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Get the value of errorType
+     * The error type (the errortype attribute of errorInfo)
+     *
+     * @return the value of errorType
+     */
+    public String getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * Get the value of errorDetails
+     * The details of the last error inserted (the details attribute of its description)
+     *
+     * @return the value of errorDetails
+     */
+    public String getErrorDetails() {
+        return errorDetails;
+    }
+
+    /**
+     * Sets the error type, and errorInfo from it
+     */
+    protected void setErrorType(String errorType) {
+        this.errorType = errorType;
+        errorInfo = "errortype=\"" + errorType + "\"";
+    }
+
+    /**
+     * Describes the error inserted into a sentence by errorInfo and the details, and records the details
+     */
+    protected void setErrorDescription(Sentence newSentence, String details) {
+        errorDetails = details;
+        newSentence.setErrorDescription(errorInfo + " details=\"" + details + "\"");
+    }
+
     /**
      * Return information about this error type
      */
@@ -0,0 +1,423 @@
+package GenERRate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class ErrorFactory
+ * <p>
+ * Creates the Error described by a line of an error analysis file for a sentence. Holds the
+ * resources the errors need (the tagset, the extra word list and the dictionary) as objects,
+ * so errors can be created without reading any files.
+ */
+public class ErrorFactory {
+    /**
+     * The POS tagset of the sentences
+     */
+    private final PartOfSpeech tagSet;
+
+    /**
+     * Extra words (token + tag) used by insertion and substitution errors
+     */
+    private final List<String> extraWords;
+
+    /**
+     * Known word forms, used when creating a wrong form of a word
+     */
+    private final Set<String> dictionary;
+
+    /**
+     * Whether the errors created fail if they leave the words of the sentence unchanged
+     */
+    private boolean isRejectingNoOps;
+
+    public ErrorFactory(PartOfSpeech tagSet, List<String> extraWords, Set<String> dictionary) {
+        this.tagSet = tagSet;
+        this.extraWords = extraWords;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Get the value of tagSet
+     * The POS tagset of the sentences
+     *
+     * @return the value of tagSet
+     */
+    public PartOfSpeech getTagSet() {
+        return tagSet;
+    }
+
+    /**
+     * Get the value of extraWords
+     * Extra words (token + tag) used by insertion and substitution errors
+     *
+     * @return the value of extraWords
+     */
+    public List<String> getExtraWords() {
+        return extraWords;
+    }
+
+    /**
+     * Get the value of dictionary
+     * Known word forms, used when creating a wrong form of a word
+     *
+     * @return the value of dictionary
+     */
+    public Set<String> getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Get the value of isRejectingNoOps
+     * Whether the errors created fail if they leave the words of the sentence unchanged
+     *
+     * @return the value of isRejectingNoOps
+     */
+    public boolean isRejectingNoOps() {
+        return isRejectingNoOps;
+    }
+
+    /**
+     * Set the value of isRejectingNoOps
+     * Whether the errors created fail if they leave the words of the sentence unchanged
+     *
+     * @param isRejectingNoOps the new value of isRejectingNoOps
+     */
+    public void setRejectingNoOps(boolean isRejectingNoOps) {
+        this.isRejectingNoOps = isRejectingNoOps;
+    }
+
+    /**
+     * Creates an error of the appropriate type for a sentence based on an error specification.
+     * Returns null if the specification is not valid.
+     */
+    public Error createError(ErrorSpec spec, Sentence sentence) {
+        Error error = newError(spec, sentence);
+        if (error != null) {
+            error.setRejectingNoOps(isRejectingNoOps);
+        }
+        return error;
+    }
+
+    private Error newError(ErrorSpec spec, Sentence sentence) {
+        String errorInfo = spec.getText();
+        Iterator<String> tokens = spec.getFields().iterator();
+        int tokenCount = spec.getFields().size();
+        String secondToken = null, thirdToken = null, fourthToken = null, fifthToken = null, sixthToken = null;
+        double prob = 0.0;
+        if (errorInfo.startsWith("subst")) {
+            if (tokenCount == 1) {
+                return new SubstError(sentence, extraWords);
+            } else if (tokenCount == 2) {
+                tokens.next();
+                secondToken = tokens.next();
+                try {
+                    prob = Double.parseDouble(secondToken);
+                    SubstError subst = new SubstError(sentence, extraWords);
+                    subst.setProbability(prob);
+                    return subst;
+                } catch (NumberFormatException n) {
+                    return new SubstWordConfusionError(sentence, extraWords, secondToken);
+                }
+            } else if (tokenCount == 3) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    prob = Double.parseDouble(thirdToken);
+                    SubstWordConfusionError subst = new SubstWordConfusionError(
+                            sentence, extraWords, secondToken);
+                    subst.setProbability(prob);
+                    return subst;
+                } catch (NumberFormatException n) {
+                    return new SubstWrongFormError(
+                            sentence, tagSet, secondToken, thirdToken, extraWords, dictionary);
+                }
+            } else if (tokenCount == 4) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    fourthToken = tokens.next();
+                    prob = Double.parseDouble(fourthToken);
+                    SubstWrongFormError subst = new SubstWrongFormError(
+                            sentence, tagSet, secondToken, thirdToken, extraWords, dictionary);
+                    subst.setProbability(prob);
+                    return subst;
+
+                } catch (NumberFormatException n) {
+                    return new SubstSpecificWordConfusionError(sentence, new Word(thirdToken), new Word(fourthToken));
+                }
+            } else if (tokenCount == 5) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    fourthToken = tokens.next();
+                    fifthToken = tokens.next();
+                    prob = Double.parseDouble(fifthToken);
+                    SubstSpecificWordConfusionError subst = new SubstSpecificWordConfusionError(sentence, new Word(thirdToken), new Word(fourthToken));
+                    subst.setProbability(prob);
+                    return subst;
+                } catch (NumberFormatException n) {
+                    //invalid input, returning null
+                    return null;
+                }
+            } else {
+                //invalid input, returning null
+                return null;
+            }
+        } else if (errorInfo.startsWith("move")) {
+            if (tokenCount == 1) {
+                return new MoveError(sentence);
+            } else if (tokenCount == 2) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    prob = Double.parseDouble(secondToken);
+                    MoveError move = new MoveError(sentence);
+                    move.setProbability(prob);
+                    return move;
+                } catch (NumberFormatException n) {
+                    return new MovePOSError(sentence, secondToken);
+                }
+            } else if (tokenCount == 3) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    prob = Double.parseDouble(thirdToken);
+                    MovePOSError move = new MovePOSError(sentence, secondToken);
+                    move.setProbability(prob);
+                    return move;
+                } catch (NumberFormatException n) {
+                    //invalid input, returning null
+                    return null;
+                }
+            } else if (tokenCount == 4) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    fourthToken = tokens.next();
+                    return new MovePOSWhereError(sentence, secondToken, Boolean.parseBoolean(thirdToken), Integer.parseInt(fourthToken));
+                } catch (NumberFormatException n) {
+                    //invalid input, returning null
+                    return null;
+                }
+            } else if (tokenCount == 5) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    fourthToken = tokens.next();
+                    fifthToken = tokens.next();
+                    prob = Double.parseDouble(fifthToken);
+                    MovePOSWhereError move = new MovePOSWhereError(sentence, secondToken, Boolean.parseBoolean(thirdToken), Integer.parseInt(fourthToken));
+                    move.setProbability(prob);
+                    return move;
+                } catch (NumberFormatException n) {
+                    //invalid input, returning null
+                    return null;
+                }
+            } else {
+                //invalid input, returning null
+                return null;
+            }
+        } else if (errorInfo.startsWith("delete")) {
+            if (tokenCount == 1) {
+                return new DeletionError(sentence);
+            } else if (tokenCount == 2) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    prob = Double.parseDouble(secondToken);
+                    DeletionError delete = new DeletionError(sentence);
+                    delete.setProbability(prob);
+                    return delete;
+                } catch (NumberFormatException n) {
+                    return new DeletionPOSError(sentence, secondToken);
+                }
+            } else if (tokenCount == 3) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    Error delete;
+                    if (secondToken.equals("word")) {
+                        delete = new DeletionWordError(sentence, thirdToken);
+                    } else {
+                        prob = Double.parseDouble(thirdToken);
+                        delete = new DeletionPOSError(sentence, secondToken);
+                        delete.setProbability(prob);
+                    }
+                    return delete;
+                } catch (NumberFormatException n) {
+                    return null;
+                }
+            } else if (tokenCount == 4) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    fourthToken = tokens.next();
+                    prob = Double.parseDouble(fourthToken);
+                    return null;
+                } catch (NumberFormatException n) {
+                    if (fourthToken.equals("true") || fourthToken.equals("false")) {
+                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, Boolean.parseBoolean(fourthToken));
+                        delete.setProbability(prob);
+                        return delete;
+                    } else {
+                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, fourthToken);
+                        delete.setProbability(prob);
+                        return delete;
+                    }
+                }
+            } else if (tokenCount == 5) {
+                try {
+                    tokens.next();
+                    secondToken = tokens.next();
+                    thirdToken = tokens.next();
+                    fourthToken = tokens.next();
+                    fifthToken = tokens.next();
+                    prob = Double.parseDouble(fifthToken);
+                    if (fourthToken.equals("true") || fourthToken.equals("false")) {
+                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, Boolean.parseBoolean(fourthToken));
+                        delete.setProbability(prob);
+                        return delete;
+                    } else {
+                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, fourthToken);
+                        delete.setProbability(prob);
+                        return delete;
+                    }
+                } catch (NumberFormatException n) {
+                    //invalid input, returning null
+                    return null;
+                }
+            } else {
+                //invalid input, returning null
+                return null;
+            }
+        } else if (errorInfo.startsWith("insert")) {
+            if (tokenCount == 1) {
+                return new InsertionError(sentence, extraWords);
+            } else if (tokenCount == 2) {
+                tokens.next();
+                //see whether the second token is the token "file" or "same sentence"
+                secondToken = tokens.next();
+                try {
+                    prob = Double.parseDouble(secondToken);
+                    InsertionError insert = new InsertionError(sentence, extraWords);
+                    insert.setProbability(prob);
+                    return insert;
+                } catch (NumberFormatException n) {
+                    if (secondToken.equalsIgnoreCase("sentence")) {
+                        return new InsertionFromFileOrSentenceError(sentence);
+                    } else if (secondToken.equalsIgnoreCase("file")) {
+                        return new InsertionFromFileOrSentenceError(sentence, extraWords);
+                    }
+                }
+            } else if (tokenCount == 3) {
+                tokens.next();
+                secondToken = tokens.next();
+                thirdToken = tokens.next();
+                try {
+                    prob = Double.parseDouble(thirdToken);
+                    if (secondToken.equalsIgnoreCase("sentence")) {
+                        InsertionFromFileOrSentenceError insert = new InsertionFromFileOrSentenceError(sentence);
+                        insert.setProbability(prob);
+                        return insert;
+                    } else if (secondToken.equalsIgnoreCase("file")) {
+                        InsertionFromFileOrSentenceError insert = new InsertionFromFileOrSentenceError(sentence, extraWords);
+                        insert.setProbability(prob);
+                        return insert;
+                    }
+                } catch (NumberFormatException n) {
+                    if (secondToken.equalsIgnoreCase("sentence")) {
+                        InsertionPOSError insert = new InsertionPOSError(sentence, thirdToken);
+                        return insert;
+                    } else {
+                        InsertionPOSError insert = new InsertionPOSError(sentence, extraWords, thirdToken);
+                        return insert;
+
+                    }
+                }
+            } else if (tokenCount == 4) {
+                tokens.next();
+                secondToken = tokens.next();
+                thirdToken = tokens.next();
+                fourthToken = tokens.next();
+                try {
+                    prob = Double.parseDouble(fourthToken);
+                    if (secondToken.equalsIgnoreCase("sentence")) {
+                        InsertionPOSError insert = new InsertionPOSError(sentence, thirdToken);
+                        insert.setProbability(prob);
+                        return insert;
+                    } else if (secondToken.equalsIgnoreCase("file")) {
+                        InsertionPOSError insert = new InsertionPOSError(sentence, extraWords, thirdToken);
+                        insert.setProbability(prob);
+                        return insert;
+                    }
+                } catch (NumberFormatException n) {
+                    return null;
+                }
+            } else if (tokenCount == 5) {
+                tokens.next();
+                secondToken = tokens.next();
+                thirdToken = tokens.next();
+                fourthToken = tokens.next();
+                fifthToken = tokens.next();
+                try {
+                    prob = Double.parseDouble(fifthToken);
+                    return null;
+                } catch (NumberFormatException n) {
+                    if (secondToken.equalsIgnoreCase("sentence") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        return new InsertionPOSWhereError(sentence, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
+                    } else if (secondToken.equalsIgnoreCase("file") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        return new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
+                    } else if (secondToken.equalsIgnoreCase("sentence") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        return new InsertionPOSWhereError(sentence, thirdToken, fourthToken, fifthToken);
+                    } else if (secondToken.equalsIgnoreCase("file") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        return new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, fifthToken);
+                    }
+                }
+            } else if (tokenCount == 6) {
+                tokens.next();
+                secondToken = tokens.next();
+                thirdToken = tokens.next();
+                fourthToken = tokens.next();
+                fifthToken = tokens.next();
+                sixthToken = tokens.next();
+                try {
+                    prob = Double.parseDouble(sixthToken);
+                    if (secondToken.equalsIgnoreCase("sentence") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
+                        insert.setProbability(prob);
+                        return insert;
+                    } else if (secondToken.equalsIgnoreCase("file") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
+                        insert.setProbability(prob);
+                        return insert;
+                    } else if (secondToken.equalsIgnoreCase("sentence") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, thirdToken, fourthToken, fifthToken);
+                        insert.setProbability(prob);
+                        return insert;
+                    } else if (secondToken.equalsIgnoreCase("file") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
+                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, fifthToken);
+                        insert.setProbability(prob);
+                        return insert;
+                    }
+                } catch (NumberFormatException n) {
+                    return null;
+                }
+            } else {
+                //invalid input, returning null
+                return null;
+            }
+        }
+        //something wrong - returning null
+        return null;
+    }
+}
@@ -0,0 +1,214 @@
+package GenERRate;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Class ErrorGenerator
+ * <p>
+ * Inserts errors into sentences in memory, without reading or writing any files. Every error
+ * specification is applied to every sentence, as in the complete error corpus, and the results
+ * are produced lazily, one at a time, as they are asked for.
+ */
+public class ErrorGenerator {
+    /**
+     * The error specifications, applied to each sentence in order
+     */
+    private final List<ErrorSpec> specs;
+
+    private final ErrorFactory factory;
+
+    /**
+     * The cumulative probability of each error specification, ending in 1 (see drawSpec)
+     */
+    private final double[] cumulative;
+
+    /**
+     * The sampler of the slowest insertions, or null
+     */
+    private SlowSentenceSampler sampler;
+
+    public ErrorGenerator(List<ErrorSpec> specs, ErrorFactory factory) {
+        this.specs = specs;
+        this.factory = factory;
+        double[] probabilities = getProbabilities();
+        double total = 0;
+        for (double probability : probabilities) {
+            total += probability;
+        }
+        cumulative = new double[probabilities.length];
+        double sum = 0;
+        for (int j = 0; j < probabilities.length; j++) {
+            sum += total > 0 ? probabilities[j] / total : 1.0 / probabilities.length;
+            cumulative[j] = sum;
+        }
+    }
+
+    /**
+     * @param specs      the compiled lines of an error analysis file (see ErrorSpec.compile)
+     * @param tagSet     the POS tagset of the sentences
+     * @param extraWords extra words (token + tag) used by insertion and substitution errors
+     * @param dictionary known word forms, used when creating a wrong form of a word
+     */
+    public ErrorGenerator(List<ErrorSpec> specs, PartOfSpeech tagSet, List<String> extraWords, Set<String> dictionary) {
+        this(specs, new ErrorFactory(tagSet, extraWords, dictionary));
+    }
+
+    /**
+     * Get the value of sampler
+     * The sampler of the slowest insertions, or null
+     *
+     * @return the value of sampler
+     */
+    public SlowSentenceSampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Set the value of sampler
+     * The sampler of the slowest insertions, or null
+     *
+     * @param sampler the new value of sampler
+     */
+    public void setSampler(SlowSentenceSampler sampler) {
+        this.sampler = sampler;
+    }
+
+    public List<ErrorSpec> getSpecs() {
+        return specs;
+    }
+
+    public ErrorFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Inserts the error described by a specification into a sentence
+     */
+    public ErrorResult generate(Sentence sentence, ErrorSpec spec) {
+        return generate(sentence, spec, 0);
+    }
+
+    /**
+     * Inserts the error described by a specification into a sentence, making different random
+     * choices for each seed
+     */
+    public ErrorResult generate(Sentence sentence, ErrorSpec spec, long seed) {
+        Error error = factory.createError(spec, sentence);
+        if (error == null) {
+            return new ErrorResult(sentence, spec, null, null, "There is a problem with the error specification in line " + spec.getLineNumber() + " of error analysis file.");
+        }
+        error.setSeed(seed);
+        try {
+            return new ErrorResult(sentence, spec, error, error.insertError(spec.getLineNumber(), sampler), null);
+        } catch (CannotCreateErrorException c) {
+            return new ErrorResult(sentence, spec, error, null, c.getMessage());
+        }
+    }
+
+    /**
+     * Inserts several errors into a sentence, one after another, drawing each error according to the
+     * probabilities of the specifications (see CompositeError). The result has the specification of
+     * the first error inserted.
+     */
+    public ErrorResult compose(Sentence sentence, int errors, long seed) {
+        CompositeError error = new CompositeError(sentence, this, errors);
+        error.setSeed(seed);
+        error.setRejectingNoOps(factory.isRejectingNoOps());
+        try {
+            Sentence ungrammaticalSentence = error.insertError(0, sampler);
+            return new ErrorResult(sentence, error.getSpecs().get(0), error, ungrammaticalSentence, null);
+        } catch (CannotCreateErrorException c) {
+            return new ErrorResult(sentence, error.getSpecs().isEmpty() ? null : error.getSpecs().get(0), error, null, c.getMessage());
+        }
+    }
+
+    /**
+     * Draws a specification according to the probabilities given in the error analysis file,
+     * or uniformly if the file gives none. Returns null if there are no specifications.
+     */
+    public ErrorSpec drawSpec(Random random) {
+        if (specs.isEmpty()) {
+            return null;
+        }
+        double draw = random.nextDouble();
+        int spec = 0;
+        while (spec < cumulative.length - 1 && draw >= cumulative[spec]) {
+            spec++;
+        }
+        return specs.get(spec);
+    }
+
+    /**
+     * Returns the probability of each specification, as given in the error analysis file
+     * (0 if the specification has no probability or is not valid)
+     */
+    public double[] getProbabilities() {
+        double[] probabilities = new double[specs.size()];
+        Sentence empty = new Sentence("", true);
+        for (int j = 0; j < specs.size(); j++) {
+            Error error = factory.createError(specs.get(j), empty);
+            probabilities[j] = error == null ? 0 : error.getProbability();
+        }
+        return probabilities;
+    }
+
+    /**
+     * Returns the results of applying every specification to every sentence, sentence by sentence.
+     * The sentences are only read as the results are asked for.
+     */
+    public Results generate(Iterable<Sentence> sentences) {
+        return new Results(sentences.iterator());
+    }
+
+    /**
+     * The results of a call to generate. Iteration stops early once cancel has been called,
+     * which may be done from another thread.
+     */
+    public class Results implements Iterator<ErrorResult> {
+        private final Iterator<Sentence> sentences;
+        private Sentence sentence;
+        private int spec = specs.size();
+        private volatile boolean isCancelled;
+
+        private Results(Iterator<Sentence> sentences) {
+            this.sentences = sentences;
+        }
+
+        public boolean hasNext() {
+            if (isCancelled || specs.isEmpty()) {
+                return false;
+            }
+            return spec < specs.size() || sentences.hasNext();
+        }
+
+        public ErrorResult next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (spec == specs.size()) {
+                sentence = sentences.next();
+                spec = 0;
+            }
+            return generate(sentence, specs.get(spec++));
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Stops the iteration: hasNext returns false from now on
+         */
+        public void cancel() {
+            isCancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return isCancelled;
+        }
+    }
+}
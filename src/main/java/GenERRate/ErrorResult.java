@@ -0,0 +1,62 @@
+package GenERRate;
+
+/**
+ * Class ErrorResult
+ * <p>
+ * The outcome of inserting the error described by an error specification into a sentence:
+ * either the ungrammatical sentence or the reason the error could not be inserted.
+ */
+public class ErrorResult {
+    private final Sentence sentence;
+    private final ErrorSpec spec;
+    private final Error error;
+    private final Sentence ungrammaticalSentence;
+    private final String failure;
+
+    public ErrorResult(Sentence sentence, ErrorSpec spec, Error error, Sentence ungrammaticalSentence, String failure) {
+        this.sentence = sentence;
+        this.spec = spec;
+        this.error = error;
+        this.ungrammaticalSentence = ungrammaticalSentence;
+        this.failure = failure;
+    }
+
+    /**
+     * The input sentence
+     */
+    public Sentence getSentence() {
+        return sentence;
+    }
+
+    /**
+     * The error specification the error was created from
+     */
+    public ErrorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * The error which was inserted, or null if the specification is not valid
+     */
+    public Error getError() {
+        return error;
+    }
+
+    /**
+     * The sentence containing the error, or null if the error could not be inserted
+     */
+    public Sentence getUngrammaticalSentence() {
+        return ungrammaticalSentence;
+    }
+
+    /**
+     * Why the error could not be inserted, or null if it was
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return ungrammaticalSentence != null;
+    }
+}
@@ -0,0 +1,85 @@
+package GenERRate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * Class ErrorSpec
+ * <p>
+ * A line of an error analysis file, split into its tab-separated fields once so that it can be
+ * used to create errors for any number of sentences.
+ */
+public class ErrorSpec {
+    /**
+     * The line as it appears in the error analysis file
+     */
+    private final String text;
+
+    /**
+     * The tab-separated fields of the line
+     */
+    private final List<String> fields;
+
+    /**
+     * The line number in the error analysis file (starting at 1)
+     */
+    private final int lineNumber;
+
+    public ErrorSpec(String text, int lineNumber) {
+        this.text = text;
+        this.lineNumber = lineNumber;
+        List<String> tokens = new ArrayList<String>();
+        StringTokenizer tokenizer = new StringTokenizer(text, "\t");
+        while (tokenizer.hasMoreTokens()) {
+            tokens.add(tokenizer.nextToken());
+        }
+        fields = Collections.unmodifiableList(tokens);
+    }
+
+    /**
+     * Compiles the lines of an error analysis file, numbering them from 1
+     */
+    public static List<ErrorSpec> compile(List<String> lines) {
+        List<ErrorSpec> specs = new ArrayList<ErrorSpec>(lines.size());
+        for (String line : lines) {
+            specs.add(new ErrorSpec(line, specs.size() + 1));
+        }
+        return specs;
+    }
+
+    /**
+     * Get the value of text
+     * The line as it appears in the error analysis file
+     *
+     * @return the value of text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Get the value of fields
+     * The tab-separated fields of the line
+     *
+     * @return the value of fields
+     */
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Get the value of lineNumber
+     * The line number in the error analysis file (starting at 1)
+     *
+     * @return the value of lineNumber
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    public String toString() {
+        return text;
+    }
+}
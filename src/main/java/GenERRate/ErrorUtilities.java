@@ -14,31 +14,23 @@ class ErrorUtilities {
     }
 
     /**
-     * Returns true if the string passed in as a parameter is a part of speech tag
-     * At the moment, these are only the POS tags used in SubstWrongFormErrors
-     * Also, at the moment the Penn Treebank tagset is used.
+     * Returns a 64-bit FNV-1a hash of a string. Unlike String.hashCode, this is
+     * wide enough to be used as a fingerprint of a sentence.
      */
-    public static boolean isPOS(String letters) {
-        if (letters == null || GenERRate.TAG_SET == null) {
-            return false;
-        }
+    public static long fingerprint(String text) {
+        return fingerprint(0xcbf29ce484222325L, text);
+    }
 
-        return (letters.equals(GenERRate.TAG_SET.SINGULAR_NOUN) ||
-                letters.equals(GenERRate.TAG_SET.PLURAL_NOUN) ||
-                letters.equals(GenERRate.TAG_SET.VERB_BASE) ||
-                letters.equals(GenERRate.TAG_SET.VERB_THIRD_SING) ||
-                letters.equals(GenERRate.TAG_SET.VERB_PRES_PART) ||
-                letters.equals(GenERRate.TAG_SET.VERB_PAST_PART) ||
-                letters.equals(GenERRate.TAG_SET.VERB_NON_THIRD_SING) ||
-                letters.equals(GenERRate.TAG_SET.VERB_PAST) ||
-                letters.equals(GenERRate.TAG_SET.ADJ) ||
-                letters.equals(GenERRate.TAG_SET.ADJ_COMP) ||
-                letters.equals(GenERRate.TAG_SET.ADJ_SUP) ||
-                letters.equals(GenERRate.TAG_SET.ADV) ||
-                letters.equals(GenERRate.TAG_SET.VERB_PARTICLE) ||
-                letters.equals(GenERRate.TAG_SET.INF) ||
-                letters.equals(GenERRate.TAG_SET.PREP));
+    /**
+     * Continues a fingerprint with another string, so that the fingerprint of several strings is
+     * the same as the fingerprint of their concatenation, without concatenating them
+     */
+    public static long fingerprint(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
     }
 
 }
-
@@ -0,0 +1,173 @@
+package GenERRate;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Class FlightEventTypes
+ * <p>
+ * The Java Flight Recorder events emitted by GenERRate (see FlightEvents). This class and its events
+ * extend jdk.jfr.Event, so they are only loaded by FlightEvents once it has found that the runtime
+ * has the flight recorder.
+ * <p>
+ * Like any JFR event they can be turned off, and their thresholds changed, in the recording
+ * settings, e.g. jfr configure GenERRate.SlowInsertion#threshold=50ms.
+ */
+final class FlightEventTypes {
+
+    private FlightEventTypes() {
+    }
+
+    static Object beginLoad(String phase, String source) {
+        LoadPhase event = new LoadPhase(phase, source);
+        event.begin();
+        return event;
+    }
+
+    static void endLoad(Object event, long items) {
+        LoadPhase load = (LoadPhase) event;
+        load.items = items;
+        load.commit();
+    }
+
+    static Object beginInsertion() {
+        SlowInsertion event = new SlowInsertion();
+        event.begin();
+        return event;
+    }
+
+    static void endInsertion(Object event, int specLine, Error error, Sentence sentence, boolean success) {
+        SlowInsertion insertion = (SlowInsertion) event;
+        insertion.end();
+        if (insertion.shouldCommit()) {
+            insertion.specLine = specLine;
+            insertion.errorType = error.toString();
+            insertion.sentenceId = sentence.getId();
+            insertion.sentenceLength = sentence.size();
+            insertion.success = success;
+            insertion.commit();
+        }
+    }
+
+    static Object beginFlush(String file) {
+        WriterFlush event = new WriterFlush(file);
+        event.begin();
+        return event;
+    }
+
+    static void endFlush(Object event, long bytes) {
+        WriterFlush flush = (WriterFlush) event;
+        flush.bytes = bytes;
+        flush.commit();
+    }
+
+    static Object beginBackpressure(String file, int capacity) {
+        Backpressure event = new Backpressure(file, capacity);
+        event.begin();
+        return event;
+    }
+
+    static void endBackpressure(Object event) {
+        ((Backpressure) event).commit();
+    }
+
+    /**
+     * Reading one of the inputs of a run
+     */
+    @Name("GenERRate.LoadPhase")
+    @Label("Load Phase")
+    @Category("GenERRate")
+    @Description("Reading the corpus, the dictionary, the word list or the error analysis file")
+    @StackTrace(false)
+    public static class LoadPhase extends Event {
+        @Label("Phase")
+        public String phase;
+
+        @Label("Source")
+        public String source;
+
+        @Label("Items")
+        @Description("The number of sentences, words or lines read")
+        public long items;
+
+        public LoadPhase(String phase, String source) {
+            this.phase = phase;
+            this.source = source;
+        }
+    }
+
+    /**
+     * An insertion of an error which took longer than the threshold
+     */
+    @Name("GenERRate.SlowInsertion")
+    @Label("Slow Error Insertion")
+    @Category("GenERRate")
+    @Description("A call to insertError which took longer than the threshold")
+    @Threshold("10 ms")
+    @StackTrace(false)
+    public static class SlowInsertion extends Event {
+        @Label("Error Analysis Line")
+        @Description("The line of the error analysis file, or 0 for several errors inserted together")
+        public int specLine;
+
+        @Label("Error Type")
+        public String errorType;
+
+        @Label("Sentence Id")
+        public long sentenceId;
+
+        @Label("Sentence Length")
+        @Description("The number of tokens in the input sentence")
+        public int sentenceLength;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    /**
+     * Output handed to the operating system
+     */
+    @Name("GenERRate.WriterFlush")
+    @Label("Writer Flush")
+    @Category("GenERRate")
+    @Description("Writing a batch, a compressed block or the buffered lines of the error corpus or log to its file")
+    @StackTrace(false)
+    public static class WriterFlush extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+
+        public WriterFlush(String file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * The thread creating the errors waiting for the output to catch up
+     */
+    @Name("GenERRate.Backpressure")
+    @Label("Output Backpressure")
+    @Category("GenERRate")
+    @Description("Waiting because the queue of batches or blocks to be written is full")
+    public static class Backpressure extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Queue Capacity")
+        public int capacity;
+
+        public Backpressure(String file, int capacity) {
+            this.file = file;
+            this.capacity = capacity;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package GenERRate;
+
+/**
+ * Class FlightEvents
+ * <p>
+ * Emits the Java Flight Recorder events of GenERRate, so that a recording of a slow run (e.g. with
+ * java -XX:StartFlightRecording=filename=run.jfr) shows where the time goes without any other agent:
+ * loading the corpus, dictionary and word list, inserting errors which take unusually long, writing
+ * the output, and waiting for a full writer queue.
+ * <p>
+ * The flight recorder is only part of Java 8 from update 262, and is missing from some other
+ * runtimes. The events themselves are in FlightEventTypes, which is only loaded if the runtime has
+ * jdk.jfr, so GenERRate still runs on any Java 8 runtime; without the flight recorder every method
+ * here does nothing and begin returns null. The events cost almost nothing when no recording is
+ * running.
+ */
+public final class FlightEvents {
+
+    /**
+     * Whether the runtime has the flight recorder
+     */
+    private static final boolean AVAILABLE = isAvailable();
+
+    private FlightEvents() {
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Starts a LoadPhase event for reading one of the inputs of a run
+     *
+     * @param phase  what is read: the corpus, the dictionary, the word list or the error analysis file
+     * @param source the file read
+     */
+    public static Object beginLoad(String phase, String source) {
+        return AVAILABLE ? FlightEventTypes.beginLoad(phase, source) : null;
+    }
+
+    /**
+     * Records a LoadPhase event
+     *
+     * @param items the number of sentences, words or lines read
+     */
+    public static void endLoad(Object event, long items) {
+        if (event != null) {
+            FlightEventTypes.endLoad(event, items);
+        }
+    }
+
+    /**
+     * Starts a SlowInsertion event for the insertion of an error
+     */
+    public static Object beginInsertion() {
+        return AVAILABLE ? FlightEventTypes.beginInsertion() : null;
+    }
+
+    /**
+     * Records a SlowInsertion event if the insertion took longer than the threshold of the event
+     *
+     * @param specLine the line of the error analysis file which describes the error
+     * @param sentence the sentence the error was inserted into
+     */
+    public static void endInsertion(Object event, int specLine, Error error, Sentence sentence, boolean success) {
+        if (event != null) {
+            FlightEventTypes.endInsertion(event, specLine, error, sentence, success);
+        }
+    }
+
+    /**
+     * Starts a WriterFlush event for output handed to the operating system
+     */
+    public static Object beginFlush(String file) {
+        return AVAILABLE ? FlightEventTypes.beginFlush(file) : null;
+    }
+
+    /**
+     * Records a WriterFlush event
+     *
+     * @param bytes the number of bytes written, or 0 if it is not known
+     */
+    public static void endFlush(Object event, long bytes) {
+        if (event != null) {
+            FlightEventTypes.endFlush(event, bytes);
+        }
+    }
+
+    /**
+     * Starts a Backpressure event for waiting because the queue of output to be written is full
+     */
+    public static Object beginBackpressure(String file, int capacity) {
+        return AVAILABLE ? FlightEventTypes.beginBackpressure(file, capacity) : null;
+    }
+
+    /**
+     * Records a Backpressure event
+     */
+    public static void endBackpressure(Object event) {
+        if (event != null) {
+            FlightEventTypes.endBackpressure(event);
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.google.gson.JsonParser;
 import org.apache.xalan.xsltc.cmdline.getopt.GetOpt;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -15,7 +17,10 @@ import java.util.*;
  */
 
 public class GenERRate {
-    public static PartOfSpeech TAG_SET;
+    /**
+     * The POS tagset of the input sentences
+     */
+    private final PartOfSpeech tagSet;
     private final Set<String> dictionary = new HashSet<String>();
     /**
      * The name of the file which contains a tag/token word list which can be used when creating an insertion error or a certain kind of substitution error.
@@ -37,6 +42,14 @@ public class GenERRate {
      * A Vector of extra words (token + tag)
      */
     private ArrayList extraWords;
+    /**
+     * The lines of the error analysis file, split into fields
+     */
+    private List<ErrorSpec> errorSpecs;
+    /**
+     * Creates the errors described by errorSpecs
+     */
+    private ErrorFactory errorFactory;
     /**
      * The filename of the file used to store the complete error corpus.
      */
@@ -45,6 +58,58 @@ public class GenERRate {
      * The filename of the file used to store the realistic error corpus.
      */
     private String realisticErrorCorpus;
+    /**
+     * Whether the error corpus is written as independently gzip-compressed blocks with a sentence index
+     */
+    private boolean isCompressedOutput;
+    /**
+     * The number of files the error corpus is split over
+     */
+    private int shards = 1;
+    /**
+     * Whether the error corpus is written as JSON lines with structured edits instead of SGML
+     */
+    private boolean isJsonOutput;
+    /**
+     * Whether the error corpus and log are written by a separate writer thread
+     */
+    private boolean isAsyncOutput;
+    /**
+     * The number of input sentences (attempts in the realistic error corpus) between checkpoints, or 0 for no checkpoints
+     */
+    private int checkpointInterval;
+    /**
+     * Whether an interrupted run is continued from its last checkpoint
+     */
+    private boolean isResume;
+    /**
+     * Whether only the input sentences added since the last run are used, and their results added to its output
+     */
+    private boolean isAppending;
+    /**
+     * The number of seconds between progress reports, or 0 for no progress reports
+     */
+    private int progressInterval;
+    /**
+     * The number of slowest insertions reported at the end of a run, or 0 for no report
+     */
+    private int slowSentences;
+    /**
+     * Whether the results for the first copy of a repeated input sentence are written again for its later copies
+     */
+    private boolean isReusingRepeats;
+    /**
+     * The number of fingerprints kept to leave out duplicate ungrammatical sentences, or 0 to write them all
+     */
+    private int duplicateFilterSize;
+    /**
+     * The file the results of inserting errors into sentences are cached in from one run to the next, or null for no cache
+     */
+    private String resultCacheFile;
+    /**
+     * The size in bytes the result cache is kept under
+     */
+    private long resultCacheSize = 1L << 30;
 
     /**
      * Opens the corpus and reads the sentences into sentence vector.
@@ -56,10 +121,24 @@ public class GenERRate {
      * @param isTagged          whether the input sentences in corpusFilename are tagged
      * @param errorAnalysisFile
      * @param extraWordList
-     * @param tagSet            the name of the tagset (Penn or CLAWS)
+     * @param tagSet            the name of the tagset (Penn or CLAWS) or of a tagset definition file
      */
     public GenERRate(String corpusFile, boolean isTagged, String errorAnalysisFile, String extraWordList, String tagSet) {
-        TAG_SET = new PartOfSpeech(tagSet);
+        this(corpusFile, isTagged, errorAnalysisFile, extraWordList, tagSet, null);
+    }
+
+    /**
+     * Same as above, but only the lines of the corpus accepted by a filter are read
+     *
+     * @param corpusFile
+     * @param isTagged          whether the input sentences in corpusFilename are tagged
+     * @param errorAnalysisFile
+     * @param extraWordList
+     * @param tagSet            the name of the tagset (Penn or CLAWS) or of a tagset definition file
+     * @param filter            decides which lines of the corpus are used, or null to use them all
+     */
+    public GenERRate(String corpusFile, boolean isTagged, String errorAnalysisFile, String extraWordList, String tagSet, SentenceFilter filter) {
+        this.tagSet = new PartOfSpeech(tagSet);
         this.extraWordList = extraWordList;
         inputSentences = new ArrayList();
         errorAnalysis = new ArrayList();
@@ -68,23 +147,39 @@ public class GenERRate {
         initializeDictionary();
         try {
             File file = new File(corpusFile);
-            FileReader read = new FileReader(file);
-            BufferedReader buffer = new BufferedReader(read);
-            String line = buffer.readLine();
-            Sentence sentence;
-            String actualSentence;
-            StringBuffer sgml = new StringBuffer("<s");
-            while (line != null) {
-                actualSentence = extractSgml(line, sgml);
-                sentence = new Sentence(actualSentence, isTagged);
-                sentence.setSentenceSGML(sgml.toString());
-                inputSentences.add(sentence);
-                //reset the string buffer to be "<s"
-                sgml.delete(2, sgml.length());
+            FileReader read;
+            BufferedReader buffer;
+            String line;
+            Object event = FlightEvents.beginLoad("corpus", corpusFile);
+            if (MultiFileSentenceReader.isFileSet(corpusFile)) {
+                readCorpusFiles(corpusFile, isTagged, filter);
+            } else {
+                read = new FileReader(file);
+                buffer = new BufferedReader(read);
                 line = buffer.readLine();
+                Sentence sentence;
+                String actualSentence;
+                StringBuffer sgml = new StringBuffer("<s");
+                while (line != null) {
+                    actualSentence = extractSgml(line, sgml);
+                    if (filter == null || filter.accept(actualSentence, sgml.toString(), isTagged)) {
+                        sentence = new Sentence(actualSentence, isTagged);
+                        sentence.setSentenceSGML(sgml.toString());
+                        sentence.setId(inputSentences.size());
+                        inputSentences.add(sentence);
+                    }
+                    //reset the string buffer to be "<s"
+                    sgml.delete(2, sgml.length());
+                    line = buffer.readLine();
+                }
+                buffer.close();
+            }
+            FlightEvents.endLoad(event, inputSentences.size());
+            if (filter != null) {
+                System.err.println(filter.getReport());
             }
-            buffer.close();
             file = new File(errorAnalysisFile);
+            event = FlightEvents.beginLoad("error analysis", errorAnalysisFile);
             read = new FileReader(file);
             buffer = new BufferedReader(read);
             line = buffer.readLine();
@@ -93,7 +188,9 @@ public class GenERRate {
                 line = buffer.readLine();
             }
             buffer.close();
+            FlightEvents.endLoad(event, errorAnalysis.size());
             file = new File(extraWordList);
+            event = FlightEvents.beginLoad("word list", extraWordList);
             read = new FileReader(file);
             buffer = new BufferedReader(read);
             line = buffer.readLine();
@@ -102,9 +199,12 @@ public class GenERRate {
                 line = buffer.readLine();
             }
             buffer.close();
+            FlightEvents.endLoad(event, extraWords.size());
         } catch (IOException io) {
             System.err.println(io.getMessage());
         }
+        errorSpecs = ErrorSpec.compile(this.errorAnalysis);
+        errorFactory = new ErrorFactory(this.tagSet, this.extraWords, dictionary);
     }
 
     /**
@@ -119,7 +219,20 @@ public class GenERRate {
      * @param errorAnalysis
      */
     public GenERRate(String corpusFile, boolean isTagged, String errorAnalysis, String extraWordList) {
-        PartOfSpeech PART_OF_SPEECH = new PartOfSpeech();
+        this(corpusFile, isTagged, errorAnalysis, extraWordList, (SentenceFilter) null);
+    }
+
+    /**
+     * Same as above, but only the lines of the corpus accepted by a filter are read
+     *
+     * @param corpusFile
+     * @param isTagged      whether the input sentences in corpusFilename are tagged
+     * @param errorAnalysis
+     * @param extraWordList
+     * @param filter        decides which lines of the corpus are used, or null to use them all
+     */
+    public GenERRate(String corpusFile, boolean isTagged, String errorAnalysis, String extraWordList, SentenceFilter filter) {
+        tagSet = new PartOfSpeech();
         this.extraWordList = extraWordList;
         inputSentences = new ArrayList<String>();
         this.errorAnalysis = new ArrayList();
@@ -127,22 +240,38 @@ public class GenERRate {
         completeErrorMap = new HashMap();
         try {
             File file = new File(corpusFile);
-            FileReader read = new FileReader(file);
-            BufferedReader buffer = new BufferedReader(read);
-            String line = buffer.readLine();
-            Sentence sentence;
-            String actualSentence;
-            StringBuffer sgml = new StringBuffer("<s");
-            while (line != null) {
-                actualSentence = extractSgml(line, sgml);
-                sentence = new Sentence(line, isTagged);
-                sentence.setSentenceSGML(sgml.toString());
-                inputSentences.add(sentence);
-                sgml.delete(2, sgml.length());
+            FileReader read;
+            BufferedReader buffer;
+            String line;
+            Object event = FlightEvents.beginLoad("corpus", corpusFile);
+            if (MultiFileSentenceReader.isFileSet(corpusFile)) {
+                readCorpusFiles(corpusFile, isTagged, filter);
+            } else {
+                read = new FileReader(file);
+                buffer = new BufferedReader(read);
                 line = buffer.readLine();
+                Sentence sentence;
+                String actualSentence;
+                StringBuffer sgml = new StringBuffer("<s");
+                while (line != null) {
+                    actualSentence = extractSgml(line, sgml);
+                    if (filter == null || filter.accept(actualSentence, sgml.toString(), isTagged)) {
+                        sentence = new Sentence(line, isTagged);
+                        sentence.setSentenceSGML(sgml.toString());
+                        sentence.setId(inputSentences.size());
+                        inputSentences.add(sentence);
+                    }
+                    sgml.delete(2, sgml.length());
+                    line = buffer.readLine();
+                }
+                buffer.close();
+            }
+            FlightEvents.endLoad(event, inputSentences.size());
+            if (filter != null) {
+                System.err.println(filter.getReport());
             }
-            buffer.close();
             file = new File(errorAnalysis);
+            event = FlightEvents.beginLoad("error analysis", errorAnalysis);
             read = new FileReader(file);
             buffer = new BufferedReader(read);
             line = buffer.readLine();
@@ -151,7 +280,9 @@ public class GenERRate {
                 line = buffer.readLine();
             }
             buffer.close();
+            FlightEvents.endLoad(event, this.errorAnalysis.size());
             file = new File(extraWordList);
+            event = FlightEvents.beginLoad("word list", extraWordList);
             read = new FileReader(file);
             buffer = new BufferedReader(read);
             line = buffer.readLine();
@@ -160,9 +291,28 @@ public class GenERRate {
                 line = buffer.readLine();
             }
             buffer.close();
+            FlightEvents.endLoad(event, extraWords.size());
         } catch (IOException io) {
             System.err.println(io.getMessage());
         }
+        errorSpecs = ErrorSpec.compile(this.errorAnalysis);
+        errorFactory = new ErrorFactory(this.tagSet, this.extraWords, dictionary);
+    }
+
+    /**
+     * Reads the sentences of a corpus kept in many files (a directory or a glob) into inputSentences,
+     * in the order of the file names
+     */
+    private void readCorpusFiles(String corpusFiles, boolean isTagged, SentenceFilter filter) throws IOException {
+        MultiFileSentenceReader reader = new MultiFileSentenceReader(MultiFileSentenceReader.listFiles(corpusFiles), isTagged,
+                Runtime.getRuntime().availableProcessors(), filter);
+        try {
+            while (reader.hasNext()) {
+                inputSentences.add(reader.next());
+            }
+        } finally {
+            reader.close();
+        }
     }
 
     /**
@@ -177,18 +327,138 @@ public class GenERRate {
         System.out.println();
         System.out.println("-o \t the output file will be POS-tagged");
         System.out.println();
-        System.out.println("-t <tagset>\t the name of the POS tagset (WSJ or CLAWS, default is WSJ)");
+        System.out.println("-t <tagset>\t the name of the POS tagset (WSJ or CLAWS, default is WSJ), or a tagset definition file with one role and its tag per line, e.g. SINGULAR_NOUN NN1");
         System.out.println();
         System.out.println("-s <size>\t the desired number of sentences in the output corpus. Only use if frequency information is specified in the error analysis file");
         System.out.println();
         System.out.println("-l <log_file> \t Write failed attempts to the specified log file. If this is not set, writes it to <input-file>.err");
         System.out.println();
+        System.out.println("-z \t write the output file as gzip-compressed blocks, together with a sentence index in <output-file>.idx");
+        System.out.println();
+        System.out.println("-p <shards>\t split the output over <shards> files <output-file>.0, <output-file>.1, ... by a hash of the input sentence. Each shard has its own log file and a summary in <output-file>.<n>.summary");
+        System.out.println();
+        System.out.println("-j \t write the output file as JSON lines, one record with the original tokens, corrupted tokens and edits per error");
+        System.out.println();
+        System.out.println("-a \t write the output and log files in large batches on a separate writer thread");
+        System.out.println();
+        System.out.println("The input file may also be a directory or a glob such as 'corpus/*.txt': the files are read concurrently and their sentences are used in the order of the file names.");
+        System.out.println();
+        System.out.println("Use - as the input file to read sentences from standard input, and - as the output file to write to standard output.");
+        System.out.println("The sentences are then processed as they are read. -l is required, as standard error carries the reports; use e.g. -l /dev/fd/3 to write failed attempts to another descriptor.");
+        System.out.println();
+        System.out.println("-e <epochs>\t benchmark the epoch generator: insert an error drawn by probability into every sentence, in a new order, for <epochs> epochs, and report the throughput. Nothing is written to the output file");
+        System.out.println();
+        System.out.println("-g <seed>\t the seed of the epoch generator and of the composed errors (default is 0)");
+        System.out.println();
+        System.out.println("-f <threads>\t with -s, create the realistic error corpus on <threads> fork/join threads. Each sentence is used for at most one error and the result depends only on the seed (-g) and the number of threads. Checkpoints are not written in this mode");
+        System.out.println();
+        System.out.println("-k <errors>\t insert <errors> errors, drawn by probability, into each input sentence and write one ungrammatical sentence per input sentence");
+        System.out.println();
+        System.out.println("-c <sentences>\t write a checkpoint to <output-file>.checkpoint every <sentences> input sentences");
+        System.out.println();
+        System.out.println("-r, --resume \t continue an interrupted run from its last checkpoint. The output is cut back to the checkpoint and the result is the same as that of an uninterrupted run");
+        System.out.println();
+        System.out.println("-d <drop|reuse>\t find repeated input sentences by their 64-bit fingerprint. With drop, only the first copy of each sentence is used. With reuse, the errors are inserted into the first copy only and written again for the later copies, with their own SGML markup (complete and composed error corpora only)");
+        System.out.println();
+        System.out.println("-b <min>,<max>\t only use the input sentences with at least <min> and at most <max> words. Either number may be left out, e.g. -b 5, for at least 5 words");
+        System.out.println();
+        System.out.println("-q <name>=<value>\t only use the input sentences whose SGML markup has the attribute <name> with the value <value>, e.g. -q genre=news. With <name>~<regex>, the value need only contain a match of the regular expression. May be given more than once");
+        System.out.println();
+        System.out.println("-u <rate>\t only use a sample of the input sentences, e.g. -u 0.1 for a tenth of them. The sample is chosen by the hash of each sentence, so it is the same on every run");
+        System.out.println();
+        System.out.println("-w <n>\t write the <n> slowest insertions of an error into a sentence, with the line of the error analysis file and the length of the sentence, to <output-file>.slow");
+        System.out.println();
+        System.out.println("-i\t fail (and log) an error which leaves the words of the sentence unchanged, e.g. a word moved past an identical word, instead of writing a copy of the input sentence as an ungrammatical sentence");
+        System.out.println();
+        System.out.println("-x <entries>\t do not write an ungrammatical sentence again for the same input sentence (or another copy of it), keeping the fingerprints of the last <entries> or so pairs written in each output file. Not used with -c or -r");
+        System.out.println();
+        System.out.println("-U <splice|delta>\t update a complete error corpus after the error analysis file has changed, using the manifest written next to it (<output-file>.manifest): only the errors of new or changed lines are inserted. With splice, the error corpus and log are rewritten as a full run would write them. With delta, only the results of the new and changed lines are written, to <output-file>.delta and <log-file>.delta");
+        System.out.println();
+        System.out.println("-A\t add to the error corpus and log written by an earlier run, using only the input sentences added to the end of the input corpus since (found from <output-file>.watermark). With -s, <size> is the size of the whole realistic error corpus, and the errors already written count towards the number of errors of each type");
+        System.out.println();
+        System.out.println("-m <cache-file>\t keep the results of inserting errors into sentences in <cache-file>, so that a later run over the same sentences only inserts the errors described by new or changed lines of the error analysis file (complete error corpus only)");
+        System.out.println();
+        System.out.println("-y <megabytes>\t with -m, the size the cache file is kept under by evicting the least recently used results (default is 1024)");
+        System.out.println();
+        System.out.println("-v <seconds>\t report the progress, throughput and estimated time left every <seconds> seconds on standard error and in <output-file>.status");
+        System.out.println();
+    }
+
+    /**
+     * Reads the lines of a file
+     */
+    static List<String> readLines(String fileName) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        BufferedReader buffer = new BufferedReader(new FileReader(fileName));
+        try {
+            String line = buffer.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = buffer.readLine();
+            }
+        } finally {
+            buffer.close();
+        }
+        return lines;
+    }
+
+    /**
+     * Creates an error corpus without loading the input corpus into memory, for use in a pipeline.
+     * "-" as the input file reads the sentences from standard input, "-" as the output file writes
+     * the corpus to standard output. The log file is always a file, so that failed attempts are not
+     * mixed with the reports on standard error.
+     *
+     * @param size the desired number of sentences in a realistic error corpus, or 0 for the complete error corpus
+     */
+    private static void createStreamErrorCorpus(String inputFile, boolean isTagged, PartOfSpeech tagSet, String outputFile, boolean isOutputTagged,
+                                                String logFile, String errorAnalysis, String extraWordList, boolean isJson, int size,
+                                                SentenceFilter filter, boolean isDroppingRepeats, boolean isRejectingNoOps,
+                                                int duplicateFilterSize) throws IOException {
+        ErrorGenerator generator = new ErrorGenerator(ErrorSpec.compile(readLines(errorAnalysis)), tagSet, readLines(extraWordList), loadDictionary());
+        generator.getFactory().setRejectingNoOps(isRejectingNoOps);
+        BufferedReader input = null;
+        if (inputFile.equals("-")) {
+            input = new BufferedReader(new InputStreamReader(System.in));
+        } else if (!MultiFileSentenceReader.isFileSet(inputFile)) {
+            input = new BufferedReader(new FileReader(inputFile));
+        }
+        CorpusOutput output = outputFile.equals("-") ? new CorpusOutput(System.out, "<stdout>") : new CorpusOutput(outputFile);
+        CorpusOutput log = new CorpusOutput(logFile);
+        CorpusWriter print = isJson ? new JsonCorpusWriter(output, log, isOutputTagged) : new CorpusWriter(output, log, isOutputTagged);
+        if (duplicateFilterSize > 0) {
+            print.setDuplicateFilter(new DuplicateFilter(duplicateFilterSize));
+        }
+        Iterator<Sentence> reader;
+        if (MultiFileSentenceReader.isFileSet(inputFile)) {
+            reader = new MultiFileSentenceReader(MultiFileSentenceReader.listFiles(inputFile), isTagged, Runtime.getRuntime().availableProcessors(), filter);
+        } else {
+            reader = new SentenceReader(input, isTagged, filter);
+        }
+        Iterator<Sentence> sentences = isDroppingRepeats ? Deduplicator.dropRepeats(reader) : reader;
+        try {
+            if (size > 0) {
+                new StreamCorpusGenerator(generator).createRealisticErrorCorpus(sentences, size, print);
+            } else {
+                new StreamCorpusGenerator(generator).createCompleteErrorCorpus(sentences, print);
+            }
+        } finally {
+            if (reader instanceof MultiFileSentenceReader) {
+                ((MultiFileSentenceReader) reader).close();
+            } else {
+                ((SentenceReader) reader).close();
+            }
+            print.close();
+            printReports(print);
+            if (filter != null) {
+                System.err.println(filter.getReport());
+            }
+        }
     }
 
     /**
      * Method to extract the SGML markup around a sentence. If there is no markup, simply returns the sentence.
      */
-    private static String extractSgml(String sentence, StringBuffer sgml) {
+    static String extractSgml(String sentence, StringBuffer sgml) {
         if (sentence.startsWith("<s") || sentence.startsWith("<S")) {
             //find the first occurrence of ">"
             int closingBracketPos = sentence.indexOf(">");
@@ -213,11 +483,42 @@ public class GenERRate {
         if (args.length == 0) {
             printHelp();
         } else {
-            GetOpt g = new GetOpt(args, "+:nos:ht:l:");
+            //GetOpt does not accept "-" (standard input or output) as an argument, so it is passed under a name no file can have
+            String standardStream = "\u0000-";
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--resume")) {
+                    args[i] = "-r";
+                } else if (args[i].equals("-")) {
+                    args[i] = standardStream;
+                }
+            }
+            GetOpt g = new GetOpt(args, "+:nos:ht:l:zp:jac:re:g:k:f:v:w:b:q:u:d:ix:m:y:U:A");
             int c;
             boolean isTagged = true;
             boolean isOutputTagged = false;
             boolean isErrorFrequency = false;
+            boolean isCompressed = false;
+            int shards = 1;
+            boolean isJson = false;
+            boolean isAsync = false;
+            int checkpointInterval = 0;
+            boolean isResume = false;
+            int epochs = 0;
+            long seed = 0;
+            int composedErrors = 0;
+            int threads = 0;
+            int progressInterval = 0;
+            int slowSentences = 0;
+            String deduplication = null;
+            boolean isRejectingNoOps = false;
+            int duplicateFilterSize = 0;
+            String resultCacheFile = null;
+            String update = null;
+            boolean isAppending = false;
+            int resultCacheSize = 1024;
+            String wordRange = null;
+            String sampleRate = null;
+            List<String> attributeConditions = new ArrayList<String>();
             String tagset = "WSJ";
             String logFile = null;
             int size = 0;
@@ -245,28 +546,231 @@ public class GenERRate {
                         case 'l':
                             logFile = g.getOptionArg();
                             break;
+                        case 'z':
+                            isCompressed = true;
+                            break;
+                        case 'j':
+                            isJson = true;
+                            break;
+                        case 'a':
+                            isAsync = true;
+                            break;
+                        case 'r':
+                            isResume = true;
+                            break;
+                        case 'e':
+                            try {
+                                epochs = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Benchmarking 10 epochs.");
+                                epochs = 10;
+                            }
+                            break;
+                        case 'g':
+                            try {
+                                seed = Long.parseLong(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Setting the seed to 0.");
+                                seed = 0;
+                            }
+                            break;
+                        case 'k':
+                            try {
+                                composedErrors = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Inserting 2 errors into each sentence.");
+                                composedErrors = 2;
+                            }
+                            break;
+                        case 'f':
+                            try {
+                                threads = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                threads = Runtime.getRuntime().availableProcessors();
+                                System.err.println("Creating the realistic error corpus on one thread per processor.");
+                            }
+                            break;
+                        case 'w':
+                            try {
+                                slowSentences = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Reporting the 100 slowest insertions.");
+                                slowSentences = 100;
+                            }
+                            break;
+                        case 'd':
+                            deduplication = g.getOptionArg();
+                            if (!deduplication.equals(Deduplicator.DROP) && !deduplication.equals(Deduplicator.REUSE)) {
+                                System.err.println("Unknown way of handling repeated sentences " + deduplication + ", repeated sentences are processed as usual.");
+                                deduplication = null;
+                            }
+                            break;
+                        case 'i':
+                            isRejectingNoOps = true;
+                            break;
+                        case 'x':
+                            try {
+                                duplicateFilterSize = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Keeping the fingerprints of 1048576 sentences to find duplicates.");
+                                duplicateFilterSize = 1 << 20;
+                            }
+                            break;
+                        case 'A':
+                            isAppending = true;
+                            break;
+                        case 'U':
+                            update = g.getOptionArg();
+                            if (!update.equals(Manifest.SPLICE) && !update.equals(Manifest.DELTA)) {
+                                System.err.println("Unknown way of updating the error corpus " + update + ", the whole error corpus is created.");
+                                update = null;
+                            }
+                            break;
+                        case 'm':
+                            resultCacheFile = g.getOptionArg();
+                            break;
+                        case 'y':
+                            try {
+                                resultCacheSize = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Keeping the result cache under 1024 megabytes.");
+                                resultCacheSize = 1024;
+                            }
+                            break;
+                        case 'b':
+                            wordRange = g.getOptionArg();
+                            break;
+                        case 'q':
+                            attributeConditions.add(g.getOptionArg());
+                            break;
+                        case 'u':
+                            sampleRate = g.getOptionArg();
+                            break;
+                        case 'v':
+                            try {
+                                progressInterval = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Reporting the progress every 10 seconds.");
+                                progressInterval = 10;
+                            }
+                            break;
+                        case 'c':
+                            try {
+                                checkpointInterval = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Writing a checkpoint every 100000 sentences.");
+                                checkpointInterval = 100000;
+                            }
+                            break;
+                        case 'p':
+                            try {
+                                shards = Integer.parseInt(g.getOptionArg());
+                            } catch (NumberFormatException n) {
+                                System.err.println("Writing the output corpus to a single file.");
+                                shards = 1;
+                            }
+                            break;
                     }
                 }
                 String[] obligArgs = g.getCmdArgs();
+                for (int i = 0; i < obligArgs.length; i++) {
+                    if (obligArgs[i].equals(standardStream)) {
+                        obligArgs[i] = "-";
+                    }
+                }
+                if (standardStream.equals(logFile)) {
+                    logFile = "-";
+                }
+
+                SentenceFilter filter = SentenceFilter.create(wordRange, sampleRate, attributeConditions);
 
                 String inputSentences = obligArgs[0];
                 String outputFile = obligArgs[1];
                 String errorAnalysis = obligArgs[2];
                 String extraWordList = obligArgs[3];
 
+                if (inputSentences.equals("-") || outputFile.equals("-")) {
+                    if (logFile == null || logFile.equals("-")) {
+                        //the reports and warnings below go to standard error, so the failed attempts need a file of their own
+                        System.err.println("Give a log file with -l when reading or writing a stream, e.g. -l /dev/fd/3; failed attempts are not written to standard error.");
+                        return;
+                    }
+                    if (Deduplicator.REUSE.equals(deduplication)) {
+                        System.err.println("Repeated sentences are not reused when reading or writing a stream; use -d drop to leave them out.");
+                    }
+                    List<String> ignored = new ArrayList<String>();
+                    String[] names = {"-z", "-p", "-a", "-c", "-r", "-v", "-w", "-m", "-e", "-k", "-f", "-U", "-A"};
+                    boolean[] isSet = {isCompressed, shards > 1, isAsync, checkpointInterval > 0, isResume, progressInterval > 0, slowSentences > 0,
+                            resultCacheFile != null, epochs > 0, composedErrors > 0, threads > 0, update != null, isAppending};
+                    for (int i = 0; i < names.length; i++) {
+                        if (isSet[i]) {
+                            ignored.add(names[i]);
+                        }
+                    }
+                    if (!ignored.isEmpty()) {
+                        System.err.println("The options " + ignored + " are ignored when reading or writing a stream.");
+                    }
+                    createStreamErrorCorpus(inputSentences, isTagged, new PartOfSpeech(tagset), outputFile, isOutputTagged, logFile,
+                            errorAnalysis, extraWordList, isJson, isErrorFrequency ? size : 0, filter, Deduplicator.DROP.equals(deduplication),
+                            isRejectingNoOps, duplicateFilterSize);
+                    return;
+                }
+
                 GenERRate errorCreation = null;
                 if (isTagged) {
-                    errorCreation = new GenERRate(inputSentences, isTagged, errorAnalysis, extraWordList, tagset);
+                    errorCreation = new GenERRate(inputSentences, isTagged, errorAnalysis, extraWordList, tagset, filter);
                 } else {
-                    errorCreation = new GenERRate(inputSentences, isTagged, errorAnalysis, extraWordList);
+                    errorCreation = new GenERRate(inputSentences, isTagged, errorAnalysis, extraWordList, filter);
                 }
 
                 if (logFile == null) {
-                    logFile = inputSentences + ".err";
+                    if (MultiFileSentenceReader.isFileSet(inputSentences)) {
+                        String base = MultiFileSentenceReader.getBaseDirectory(inputSentences);
+                        logFile = (base.equals(".") ? "corpus" : base) + ".err";
+                    } else {
+                        logFile = inputSentences + ".err";
+                    }
+                }
+                errorCreation.setCompressedOutput(isCompressed);
+                errorCreation.setShards(shards);
+                errorCreation.setJsonOutput(isJson);
+                errorCreation.setAsyncOutput(isAsync);
+                errorCreation.setCheckpointInterval(checkpointInterval);
+                errorCreation.setResume(isResume);
+                errorCreation.setAppending(isAppending);
+                if (isAppending && (epochs > 0 || composedErrors > 0 || (isErrorFrequency && threads > 0) || update != null)) {
+                    System.err.println("Only the complete error corpus and the realistic error corpus on one thread can be added to; all the input sentences are used.");
+                }
+                errorCreation.setProgressInterval(progressInterval);
+                errorCreation.setSlowSentences(slowSentences);
+                errorCreation.setRejectingNoOps(isRejectingNoOps);
+                if (duplicateFilterSize > 0 && (checkpointInterval > 0 || isResume)) {
+                    //the fingerprints are not saved in a checkpoint, so a resumed run would not write the same corpus
+                    System.err.println("Duplicates are not left out when checkpoints are written or a run is resumed.");
+                    duplicateFilterSize = 0;
+                }
+                errorCreation.setDuplicateFilterSize(duplicateFilterSize);
+                errorCreation.setResultCacheFile(resultCacheFile);
+                errorCreation.setResultCacheSize(resultCacheSize * 1024L * 1024L);
+                if (Deduplicator.DROP.equals(deduplication)) {
+                    errorCreation.dropRepeatedSentences();
+                } else if (Deduplicator.REUSE.equals(deduplication)) {
+                    if (isErrorFrequency && composedErrors == 0) {
+                        System.err.println("Repeated sentences are only reused in the complete and composed error corpora.");
+                    }
+                    errorCreation.setReusingRepeats(true);
                 }
 
-                if (isErrorFrequency) {
+                if (epochs > 0) {
+                    errorCreation.benchmarkEpochs(epochs, seed);
+                } else if (composedErrors > 0) {
+                    errorCreation.createComposedErrorCorpus(composedErrors, seed, outputFile, isOutputTagged, logFile);
+                } else if (isErrorFrequency && threads > 0) {
+                    errorCreation.createParallelRealisticErrorCorpus(size, threads, seed, outputFile, isOutputTagged, logFile);
+                } else if (isErrorFrequency) {
                     errorCreation.createRealisticErrorCorpusOneToOne(size, outputFile, isOutputTagged, logFile);
+                } else if (update != null) {
+                    errorCreation.updateCompleteErrorCorpus(outputFile, isOutputTagged, logFile, update);
                 } else {
                     errorCreation.createCompleteErrorCorpus(outputFile, isOutputTagged, logFile);
                 }
@@ -280,6 +784,16 @@ public class GenERRate {
     }
 
     private void initializeDictionary() {
+        Object event = FlightEvents.beginLoad("dictionary", "etc/dict.json");
+        dictionary.addAll(loadDictionary());
+        FlightEvents.endLoad(event, dictionary.size());
+    }
+
+    /**
+     * Reads the dictionary of word forms from $GENERRATE_HOME/etc/dict.json
+     */
+    public static Set<String> loadDictionary() {
+        Set<String> dictionary = new HashSet<String>();
         JsonParser parser = new JsonParser();
         JsonElement jsonElement;
 
@@ -304,6 +818,7 @@ public class GenERRate {
         for (JsonElement e : jsonArray) {
             dictionary.add(e.getAsString());
         }
+        return dictionary;
     }
 
     /**
@@ -409,79 +924,958 @@ public class GenERRate {
     }
 
     /**
-     * For each sentence in inputSentences
-     * Write sentence to completeErrorCorpus
-     * For each error in errorAnalysis
-     * Attempt to insert error into sentence
-     * If successful
-     * write ungrammatical sentence to completeErrorCorpus together with
-     * information about error type (call toString method of the Error class)
-     * add ungrammatical sentence to CompleteErrorCorpus hashmap
+     * Get the value of isCompressedOutput
+     * Whether the error corpus is written as independently gzip-compressed blocks with a sentence index
+     *
+     * @return the value of isCompressedOutput
      */
-    public void createCompleteErrorCorpus(String theCompleteErrorCorpusFile, boolean isOutputTagged, String theLogFile) {
-        completeErrorCorpus = theCompleteErrorCorpusFile;
-        try {
-            FileWriter writer = new FileWriter(completeErrorCorpus);
-            PrintWriter print = new PrintWriter(writer);
-            FileWriter failedW = new FileWriter(theLogFile);
-            PrintWriter failedP = new PrintWriter(failedW);
+    public boolean isCompressedOutput() {
+        return isCompressedOutput;
+    }
 
-            Sentence sentence;
-            String errorInfo;
-            Error error;
-            ArrayList list = null;
-            for (int i = 0; i < inputSentences.size(); i++) {
-                sentence = (Sentence) inputSentences.get(i);
-                print.println(sentence);
-                for (int j = 0; j < errorAnalysis.size(); j++) {
-                    try {
-                        errorInfo = (String) errorAnalysis.get(j);
-                        error = getError(errorInfo, sentence);
-                        if (error == null) {
-                            throw new CannotCreateErrorException("There is a problem with the error specification in line " + (j + 1) + " of error analysis file.");
-                        }
-                        Sentence ungrammaticalSentence = error.insertError();
+    /**
+     * Set the value of isCompressedOutput
+     * Whether the error corpus is written as independently gzip-compressed blocks with a sentence index
+     *
+     * @param isCompressedOutput the new value of isCompressedOutput
+     */
+    public void setCompressedOutput(boolean isCompressedOutput) {
+        this.isCompressedOutput = isCompressedOutput;
+    }
 
-                        if (isOutputTagged) {
-                            print.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + " original=\"" + sentence + "\">" + ungrammaticalSentence + "</s>");
-                        } else {
-                            print.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + " original=\"" + sentence + "\">" + ungrammaticalSentence.toStringNoTags() + "</s>");
-                        }
-                    } catch (CannotCreateErrorException c) {
-                        failedP.println(sentence + "\t" + c.getMessage());
-                    }
-                }
-                print.println();
-            }
-            print.close();
-            failedP.close();
-        } catch (IOException io) {
-            System.err.println(io.getMessage());
-        }
+    /**
+     * Get the value of shards
+     * The number of files the error corpus is split over
+     *
+     * @return the value of shards
+     */
+    public int getShards() {
+        return shards;
     }
 
     /**
-     * Same as above method but no output file is produced
+     * Set the value of shards
+     * The number of files the error corpus is split over
+     *
+     * @param shards the new value of shards
      */
-    public void createCompleteErrorCorpus() {
-        System.out.println("In createCompleteErrorCorpus");
-        Sentence sentence;
-        String errorInfo;
-        Error error;
-        ArrayList list = null;
-        for (int i = 0; i < inputSentences.size(); i++) {
-            sentence = (Sentence) inputSentences.get(i);
-            for (int j = 0; j < errorAnalysis.size(); j++) {
-                try {
-                    errorInfo = (String) errorAnalysis.get(j);
-                    error = getError(errorInfo, sentence);
-                    if (error == null) {
-                        throw new CannotCreateErrorException("There is a problem with the error specification in line " + (j + 1) + " of error analysis file.");
-                    }
-                    Sentence ungrammaticalSentence = error.insertError();
+    public void setShards(int shards) {
+        this.shards = Math.max(1, shards);
+    }
 
-                    if (completeErrorMap.containsKey(error.getProbability() + "," + error)) {
-                        list = (ArrayList) completeErrorMap.get(error.getProbability() + "," + error);
+    /**
+     * Get the value of isJsonOutput
+     * Whether the error corpus is written as JSON lines with structured edits instead of SGML
+     *
+     * @return the value of isJsonOutput
+     */
+    public boolean isJsonOutput() {
+        return isJsonOutput;
+    }
+
+    /**
+     * Set the value of isJsonOutput
+     * Whether the error corpus is written as JSON lines with structured edits instead of SGML
+     *
+     * @param isJsonOutput the new value of isJsonOutput
+     */
+    public void setJsonOutput(boolean isJsonOutput) {
+        this.isJsonOutput = isJsonOutput;
+    }
+
+    /**
+     * Get the value of isAsyncOutput
+     * Whether the error corpus and log are written by a separate writer thread
+     *
+     * @return the value of isAsyncOutput
+     */
+    public boolean isAsyncOutput() {
+        return isAsyncOutput;
+    }
+
+    /**
+     * Set the value of isAsyncOutput
+     * Whether the error corpus and log are written by a separate writer thread
+     *
+     * @param isAsyncOutput the new value of isAsyncOutput
+     */
+    public void setAsyncOutput(boolean isAsyncOutput) {
+        this.isAsyncOutput = isAsyncOutput;
+    }
+
+    /**
+     * Get the value of tagSet
+     * The POS tagset of the input sentences
+     *
+     * @return the value of tagSet
+     */
+    public PartOfSpeech getTagSet() {
+        return tagSet;
+    }
+
+    /**
+     * Returns an ErrorGenerator which inserts the errors of the error analysis file, using the
+     * word list and dictionary loaded by this object, into sentences held in memory
+     */
+    public ErrorGenerator getErrorGenerator() {
+        return new ErrorGenerator(errorSpecs, errorFactory);
+    }
+
+    /**
+     * Returns an EpochGenerator which endlessly inserts errors of the error analysis file into
+     * the input sentences, with different but reproducible errors in each epoch
+     *
+     * @param seed the seed from which the seed of each epoch is derived
+     */
+    public EpochGenerator getEpochGenerator(long seed) {
+        return new EpochGenerator(inputSentences, getErrorGenerator(), seed);
+    }
+
+    /**
+     * Runs an EpochGenerator over the input sentences for the given number of epochs without
+     * writing anything, and reports the throughput of each epoch on standard error
+     */
+    public void benchmarkEpochs(int epochs, long seed) {
+        EpochGenerator generator = getEpochGenerator(seed);
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            long start = System.nanoTime();
+            long errors = 0;
+            for (int i = 0; i < inputSentences.size(); i++) {
+                if (generator.next().isSuccess()) {
+                    errors++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.println("epoch " + epoch + ": " + inputSentences.size() + " sentences, " + errors + " errors, "
+                    + Math.round(inputSentences.size() / seconds) + " sentences/s");
+        }
+    }
+
+    /**
+     * Get the value of checkpointInterval
+     * The number of input sentences (attempts in the realistic error corpus) between checkpoints, or 0 for no checkpoints
+     *
+     * @return the value of checkpointInterval
+     */
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    /**
+     * Set the value of checkpointInterval
+     * The number of input sentences (attempts in the realistic error corpus) between checkpoints, or 0 for no checkpoints
+     *
+     * @param checkpointInterval the new value of checkpointInterval
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = Math.max(0, checkpointInterval);
+    }
+
+    /**
+     * Get the value of progressInterval
+     * The number of seconds between progress reports, or 0 for no progress reports
+     *
+     * @return the value of progressInterval
+     */
+    public int getProgressInterval() {
+        return progressInterval;
+    }
+
+    /**
+     * Set the value of progressInterval
+     * The number of seconds between progress reports, or 0 for no progress reports
+     *
+     * @param progressInterval the new value of progressInterval
+     */
+    public void setProgressInterval(int progressInterval) {
+        this.progressInterval = Math.max(0, progressInterval);
+    }
+
+    /**
+     * Get the value of slowSentences
+     * The number of slowest insertions reported at the end of a run, or 0 for no report
+     *
+     * @return the value of slowSentences
+     */
+    public int getSlowSentences() {
+        return slowSentences;
+    }
+
+    /**
+     * Set the value of slowSentences
+     * The number of slowest insertions reported at the end of a run, or 0 for no report
+     *
+     * @param slowSentences the new value of slowSentences
+     */
+    public void setSlowSentences(int slowSentences) {
+        this.slowSentences = Math.max(0, slowSentences);
+    }
+
+    /**
+     * Get the value of isReusingRepeats
+     * Whether the results for the first copy of a repeated input sentence are written again for its later copies
+     *
+     * @return the value of isReusingRepeats
+     */
+    public boolean isReusingRepeats() {
+        return isReusingRepeats;
+    }
+
+    /**
+     * Set the value of isReusingRepeats
+     * Whether the results for the first copy of a repeated input sentence are written again for its later copies
+     * (see Deduplicator). This is only done for the complete and composed error corpora.
+     *
+     * @param isReusingRepeats the new value of isReusingRepeats
+     */
+    public void setReusingRepeats(boolean isReusingRepeats) {
+        this.isReusingRepeats = isReusingRepeats;
+    }
+
+    /**
+     * Get the value of duplicateFilterSize
+     * The number of fingerprints kept to leave out duplicate ungrammatical sentences, or 0 to write them all
+     *
+     * @return the value of duplicateFilterSize
+     */
+    public int getDuplicateFilterSize() {
+        return duplicateFilterSize;
+    }
+
+    /**
+     * Set the value of duplicateFilterSize
+     * The number of fingerprints kept to leave out duplicate ungrammatical sentences, or 0 to write them all
+     * (see DuplicateFilter). Each output file has a filter of its own.
+     *
+     * @param duplicateFilterSize the new value of duplicateFilterSize
+     */
+    public void setDuplicateFilterSize(int duplicateFilterSize) {
+        this.duplicateFilterSize = Math.max(0, duplicateFilterSize);
+    }
+
+    /**
+     * Get the value of resultCacheFile
+     * The file the results of inserting errors into sentences are cached in from one run to the next, or null for no cache
+     *
+     * @return the value of resultCacheFile
+     */
+    public String getResultCacheFile() {
+        return resultCacheFile;
+    }
+
+    /**
+     * Set the value of resultCacheFile
+     * The file the results of inserting errors into sentences are cached in from one run to the next, or null for no cache
+     * (see ResultCache). The cache is only used for the complete error corpus.
+     *
+     * @param resultCacheFile the new value of resultCacheFile
+     */
+    public void setResultCacheFile(String resultCacheFile) {
+        this.resultCacheFile = resultCacheFile;
+    }
+
+    /**
+     * Get the value of resultCacheSize
+     * The size in bytes the result cache is kept under
+     *
+     * @return the value of resultCacheSize
+     */
+    public long getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    /**
+     * Set the value of resultCacheSize
+     * The size in bytes the result cache is kept under
+     *
+     * @param resultCacheSize the new value of resultCacheSize
+     */
+    public void setResultCacheSize(long resultCacheSize) {
+        this.resultCacheSize = Math.max(0, resultCacheSize);
+    }
+
+    /**
+     * Opens the result cache, or returns null if results are not cached
+     */
+    private ResultCache openResultCache() throws IOException {
+        if (resultCacheFile == null) {
+            return null;
+        }
+        return new ResultCache(resultCacheFile, resultCacheSize, getEnvironment());
+    }
+
+    /**
+     * Returns the fingerprint of the setup the results of inserting errors depend on, besides the
+     * sentences and the error analysis file (see ResultCache.getEnvironment)
+     */
+    private long getEnvironment() {
+        boolean isTagged = !inputSentences.isEmpty() && ((Sentence) inputSentences.get(0)).areTagsIncluded();
+        return ResultCache.getEnvironment(isTagged, tagSet, extraWords, dictionary, errorFactory.isRejectingNoOps());
+    }
+
+    /**
+     * Returns the format of the error corpus, as recorded in a manifest
+     */
+    private String getOutputFormat(boolean isOutputTagged) {
+        return (isJsonOutput ? "json" : "sgml") + (isOutputTagged ? " tagged" : "");
+    }
+
+    /**
+     * Inserts the error described by a line of the error analysis file into a sentence, unless the
+     * result is in the result cache
+     *
+     * @param spec    the index of the line
+     * @param cache   the result cache, or null
+     * @param specKey the key of the line in the result cache
+     */
+    private ErrorResult getResult(int spec, Sentence sentence, SlowSentenceSampler sampler, ResultCache cache, long specKey) throws IOException {
+        ErrorResult result = cache == null ? null : cache.get(sentence, errorSpecs.get(spec), specKey);
+        if (result != null) {
+            return result;
+        }
+        Error error = null;
+        try {
+            error = getError(spec, sentence);
+            if (error == null) {
+                throw new CannotCreateErrorException("There is a problem with the error specification in line " + (spec + 1) + " of error analysis file.");
+            }
+            result = new ErrorResult(sentence, errorSpecs.get(spec), error, error.insertError(spec + 1, sampler), null);
+        } catch (CannotCreateErrorException c) {
+            result = new ErrorResult(sentence, errorSpecs.get(spec), error, null, c.getMessage());
+        }
+        //the message for a specification which is not valid has its line number, which may change
+        if (cache != null && error != null) {
+            cache.put(sentence, specKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Whether an error which leaves the words of the sentence unchanged fails, and is logged, rather than
+     * being written as an ungrammatical sentence
+     */
+    public boolean isRejectingNoOps() {
+        return errorFactory.isRejectingNoOps();
+    }
+
+    /**
+     * Makes an error which leaves the words of the sentence unchanged fail, and be logged, rather than
+     * being written as an ungrammatical sentence
+     */
+    public void setRejectingNoOps(boolean isRejectingNoOps) {
+        errorFactory.setRejectingNoOps(isRejectingNoOps);
+    }
+
+    /**
+     * Removes the later copies of repeated sentences from the input sentences, which are numbered again
+     */
+    public void dropRepeatedSentences() {
+        int size = inputSentences.size();
+        int dropped = Deduplicator.dropRepeats((List<Sentence>) inputSentences);
+        System.err.println("Repeated sentences: " + size + " input sentences, " + dropped + " repeats dropped");
+    }
+
+    /**
+     * Get the value of isResume
+     * Whether an interrupted run is continued from its last checkpoint
+     *
+     * @return the value of isResume
+     */
+    public boolean isResume() {
+        return isResume;
+    }
+
+    /**
+     * Set the value of isResume
+     * Whether an interrupted run is continued from its last checkpoint
+     *
+     * @param isResume the new value of isResume
+     */
+    public void setResume(boolean isResume) {
+        this.isResume = isResume;
+    }
+
+    /**
+     * Get the value of isAppending
+     * Whether only the input sentences added since the last run are used, and their results added to its output
+     *
+     * @return the value of isAppending
+     */
+    public boolean isAppending() {
+        return isAppending;
+    }
+
+    /**
+     * Set the value of isAppending
+     * Whether only the input sentences added since the last run are used, and their results added to its output.
+     * The last run is found from the watermark written next to its error corpus.
+     *
+     * @param isAppending the new value of isAppending
+     */
+    public void setAppending(boolean isAppending) {
+        this.isAppending = isAppending;
+    }
+
+    /**
+     * Opens the file an error corpus is written to
+     *
+     * @param append whether to add to the end of the file (when resuming from a checkpoint)
+     */
+    private CorpusOutput openOutput(String fileName, boolean append) throws IOException {
+        if (isCompressedOutput) {
+            return new BlockGzipOutput(fileName, append);
+        } else if (isAsyncOutput) {
+            return new AsyncCorpusOutput(fileName, append);
+        } else {
+            return new CorpusOutput(fileName, append);
+        }
+    }
+
+    /**
+     * Opens the file failed attempts are logged to
+     *
+     * @param append whether to add to the end of the file (when resuming from a checkpoint)
+     */
+    private CorpusOutput openLog(String fileName, boolean append) throws IOException {
+        if (isAsyncOutput) {
+            return new AsyncCorpusOutput(fileName, append);
+        } else {
+            return new CorpusOutput(fileName, append);
+        }
+    }
+
+    /**
+     * Opens the writer for an error corpus and its log, splitting them into shards if required.
+     * If a checkpoint is given, the files are added to and the counts are restored from the checkpoint.
+     */
+    private CorpusWriter openWriter(String fileName, boolean isOutputTagged, String logFile, Properties checkpoint) throws IOException {
+        return openWriter(fileName, isOutputTagged, logFile, checkpoint, false);
+    }
+
+    /**
+     * Opens the writer for an error corpus and its log as above, adding to the files if append is true
+     * even without a checkpoint
+     */
+    private CorpusWriter openWriter(String fileName, boolean isOutputTagged, String logFile, Properties checkpoint, boolean append) throws IOException {
+        append = append || checkpoint != null;
+        CorpusWriter writer;
+        if (shards == 1) {
+            writer = openShard(fileName, isOutputTagged, logFile, append);
+        } else {
+            CorpusWriter[] writers = new CorpusWriter[shards];
+            String[] summaryFiles = new String[shards];
+            for (int i = 0; i < shards; i++) {
+                writers[i] = openShard(fileName + "." + i, isOutputTagged, logFile + "." + i, append);
+                summaryFiles[i] = fileName + "." + i + ".summary";
+            }
+            writer = new ShardedCorpusWriter(writers, summaryFiles);
+        }
+        if (duplicateFilterSize > 0) {
+            writer.setDuplicateFilter(new DuplicateFilter(duplicateFilterSize));
+        }
+        if (checkpoint != null) {
+            writer.restore(checkpoint);
+        }
+        return writer;
+    }
+
+    /**
+     * Opens the writer for a single error corpus file and its log in the output format in effect
+     */
+    private CorpusWriter openShard(String fileName, boolean isOutputTagged, String logFile, boolean append) throws IOException {
+        if (isJsonOutput) {
+            return new JsonCorpusWriter(openOutput(fileName, append), openLog(logFile, append), isOutputTagged);
+        } else {
+            return new CorpusWriter(openOutput(fileName, append), openLog(logFile, append), isOutputTagged);
+        }
+    }
+
+    /**
+     * Starts a checkpoint with the information needed to check that it belongs to the same run:
+     * the kind of error corpus, the number of input sentences and a fingerprint of the error analysis file
+     */
+    private Properties newCheckpoint(String mode) {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("mode", mode);
+        checkpoint.setProperty("inputSentences", String.valueOf(inputSentences.size()));
+        checkpoint.setProperty("errorAnalysis", String.valueOf(ErrorUtilities.fingerprint(errorAnalysis.toString())));
+        return checkpoint;
+    }
+
+    /**
+     * Writes a checkpoint next to an error corpus. The checkpoint is written to a temporary file
+     * which then replaces the previous checkpoint, so an interruption never leaves a partial checkpoint.
+     */
+    private void saveCheckpoint(String fileName, Properties checkpoint) throws IOException {
+        saveProperties(fileName + ".checkpoint", checkpoint, "GenERRate checkpoint");
+    }
+
+    /**
+     * Writes properties to a temporary file which then replaces the file, so an interruption never leaves a partial file
+     */
+    private static void saveProperties(String fileName, Properties properties, String comment) throws IOException {
+        File file = new File(fileName);
+        File temp = new File(fileName + ".tmp");
+        Writer writer = new FileWriter(temp);
+        try {
+            properties.store(writer, comment);
+        } finally {
+            writer.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Starts a watermark, which records how far the input corpus had been used when an error corpus
+     * was written, so that a later run can add the results for the sentences added to the corpus
+     * since: the kind of error corpus, the number of input sentences, their fingerprint (in the
+     * order of the corpus), a fingerprint of the error analysis file and of the rest of the setup
+     */
+    private Properties newWatermark(String mode) {
+        Properties watermark = new Properties();
+        watermark.setProperty("mode", mode);
+        watermark.setProperty("sentences", String.valueOf(inputSentences.size()));
+        watermark.setProperty("input", String.valueOf(Manifest.getInputFingerprint(getSentencesInOrder(inputSentences.size()))));
+        watermark.setProperty("errorAnalysis", String.valueOf(ErrorUtilities.fingerprint(errorAnalysis.toString())));
+        watermark.setProperty("environment", String.valueOf(getEnvironment()));
+        return watermark;
+    }
+
+    /**
+     * Returns the first input sentences in the order of the corpus, which the realistic error corpus changes
+     */
+    private List<Sentence> getSentencesInOrder(int count) {
+        Sentence[] byId = new Sentence[inputSentences.size()];
+        for (Object inputSentence : inputSentences) {
+            byId[(int) ((Sentence) inputSentence).getId()] = (Sentence) inputSentence;
+        }
+        return Arrays.asList(byId).subList(0, count);
+    }
+
+    /**
+     * If only the sentences added to the input corpus are to be used, reads the watermark written
+     * next to an error corpus and checks that the input corpus only has sentences added to it since.
+     * Returns null if all the input sentences are to be used.
+     */
+    private Properties loadWatermark(String fileName, String mode) throws IOException {
+        if (!isAppending) {
+            return null;
+        }
+        File file = new File(fileName + ".watermark");
+        if (!file.exists()) {
+            System.err.println("No watermark found in " + file + ", using all the input sentences.");
+            return null;
+        }
+        Properties watermark = new Properties();
+        Reader reader = new FileReader(file);
+        try {
+            watermark.load(reader);
+        } finally {
+            reader.close();
+        }
+        int sentences = Integer.parseInt(watermark.getProperty("sentences", "-1"));
+        Properties expected = newWatermark(mode);
+        String mismatch = null;
+        for (String key : new String[]{"mode", "errorAnalysis", "environment"}) {
+            if (!expected.getProperty(key).equals(watermark.getProperty(key))) {
+                mismatch = "a different " + key;
+            }
+        }
+        if (sentences < 0 || sentences > inputSentences.size()
+                || Manifest.getInputFingerprint(getSentencesInOrder(sentences)) != Long.parseLong(watermark.getProperty("input", "0"))) {
+            mismatch = "input sentences which are not at the start of the corpus";
+        }
+        if (mismatch != null) {
+            System.err.println("The watermark in " + file + " was written by a run with " + mismatch + ", using all the input sentences.");
+            return null;
+        }
+        System.err.println("Adding the results for input sentences " + sentences + " to " + inputSentences.size() + " to " + fileName + ".");
+        return watermark;
+    }
+
+    /**
+     * If an interrupted run is being resumed, reads the last checkpoint written next to an error corpus
+     * and cuts the output files back to it. Returns null if the run starts from the beginning.
+     */
+    private Properties loadCheckpoint(String fileName, String mode) throws IOException {
+        if (!isResume) {
+            return null;
+        }
+        File file = new File(fileName + ".checkpoint");
+        if (!file.exists()) {
+            System.err.println("No checkpoint found in " + file + ", starting from the beginning.");
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        Reader reader = new FileReader(file);
+        try {
+            checkpoint.load(reader);
+        } finally {
+            reader.close();
+        }
+        Properties expected = newCheckpoint(mode);
+        for (String key : expected.stringPropertyNames()) {
+            if (!expected.getProperty(key).equals(checkpoint.getProperty(key))) {
+                throw new IOException("The checkpoint in " + file + " was written by a run with a different " + key);
+            }
+        }
+        CorpusOutput.truncate(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Starts reporting the progress of writing an error corpus, if progress reports were asked for.
+     * The latest report is kept in a status file next to the error corpus.
+     *
+     * @param total            the amount of work to be done
+     * @param isCountingErrors whether the work is measured in errors written rather than in input sentences
+     * @return the reporter, or null if there are no progress reports
+     */
+    private ProgressReporter startProgress(CorpusWriter writer, String fileName, long total, boolean isCountingErrors) {
+        if (progressInterval == 0) {
+            return null;
+        }
+        ProgressReporter progress = new ProgressReporter(writer, total, isCountingErrors, errorAnalysis.size(), fileName + ".status", progressInterval);
+        progress.start();
+        return progress;
+    }
+
+    /**
+     * Returns a sampler of the slowest insertions, or null if they are not reported
+     */
+    private SlowSentenceSampler createSampler() {
+        return slowSentences == 0 ? null : new SlowSentenceSampler(slowSentences);
+    }
+
+    /**
+     * Prints what the writer of a corpus has to report once it is closed (see CorpusWriter.getReports)
+     */
+    private static void printReports(CorpusWriter print) {
+        for (String report : print.getReports()) {
+            System.err.println(report);
+        }
+    }
+
+    /**
+     * Writes the slowest insertions to a report next to an error corpus
+     */
+    private static void writeSlowSentences(SlowSentenceSampler sampler, String fileName) throws IOException {
+        if (sampler != null) {
+            sampler.writeReport(fileName + ".slow");
+        }
+    }
+
+    /**
+     * Returns a Deduplicator for the input sentences from the given one on, or null if the results
+     * for repeated sentences are not reused
+     */
+    private Deduplicator createDeduplicator(int start) {
+        return isReusingRepeats ? new Deduplicator(((List<Sentence>) inputSentences).subList(start, inputSentences.size())) : null;
+    }
+
+    /**
+     * Writes the result of inserting an error into a sentence
+     */
+    private static void writeResult(CorpusWriter print, Sentence sentence, ErrorResult result, int line) throws IOException {
+        if (result.isSuccess()) {
+            print.writeError(sentence, result.getUngrammaticalSentence(), result.getError(), line);
+        } else {
+            print.writeFailure(sentence, result.getFailure());
+        }
+    }
+
+    /**
+     * Removes the checkpoint of an error corpus once the corpus is complete
+     */
+    private void deleteCheckpoint(String fileName) {
+        new File(fileName + ".checkpoint").delete();
+    }
+
+    /**
+     * For each sentence in inputSentences
+     * Write sentence to completeErrorCorpus
+     * For each error in errorAnalysis
+     * Attempt to insert error into sentence
+     * If successful
+     * write ungrammatical sentence to completeErrorCorpus together with
+     * information about error type (call toString method of the Error class)
+     * add ungrammatical sentence to CompleteErrorCorpus hashmap
+     */
+    public void createCompleteErrorCorpus(String theCompleteErrorCorpusFile, boolean isOutputTagged, String theLogFile) {
+        completeErrorCorpus = theCompleteErrorCorpusFile;
+        try {
+            Properties checkpoint = loadCheckpoint(completeErrorCorpus, "complete");
+            Properties previous = checkpoint == null ? loadWatermark(completeErrorCorpus, "complete") : null;
+            CorpusWriter print = openWriter(completeErrorCorpus, isOutputTagged, theLogFile, checkpoint, previous != null);
+            int start = 0;
+            if (checkpoint != null) {
+                start = Integer.parseInt(checkpoint.getProperty("nextSentence"));
+            } else if (previous != null) {
+                start = Integer.parseInt(previous.getProperty("sentences"));
+            }
+            ProgressReporter progress = startProgress(print, completeErrorCorpus, inputSentences.size(), false);
+            SlowSentenceSampler sampler = createSampler();
+            Deduplicator repeats = createDeduplicator(start);
+            ResultCache cache = openResultCache();
+            long[] specKeys = new long[errorSpecs.size()];
+            for (int j = 0; cache != null && j < specKeys.length; j++) {
+                specKeys[j] = cache.getSpecKey(errorSpecs.get(j), 0);
+            }
+            //the manifest records where the result of each error is written, for updating the corpus when the error analysis file changes
+            Manifest manifest = null;
+            if (checkpoint == null && shards == 1 && !isCompressedOutput && duplicateFilterSize == 0) {
+                long input = Manifest.getInputFingerprint((List<Sentence>) inputSentences);
+                if (previous == null) {
+                    manifest = new Manifest(getEnvironment(), input, inputSentences.size(), getOutputFormat(isOutputTagged), new ArrayList<String>(errorAnalysis));
+                } else {
+                    //the manifest of the previous run is extended with the sentences added, if it matches
+                    manifest = Manifest.read(completeErrorCorpus + ".manifest");
+                    if (manifest != null && manifest.getMismatch(getEnvironment(), Long.parseLong(previous.getProperty("input")), start,
+                            getOutputFormat(isOutputTagged)) == null && manifest.getSpecs().equals(errorAnalysis)) {
+                        manifest = manifest.extend(input, inputSentences.size());
+                    } else {
+                        manifest = null;
+                    }
+                }
+            }
+            if (manifest == null) {
+                new File(completeErrorCorpus + ".manifest").delete();
+            }
+
+            Sentence sentence;
+            for (int i = start; i < inputSentences.size(); i++) {
+                if (checkpointInterval > 0 && i > start && i % checkpointInterval == 0) {
+                    checkpoint = newCheckpoint("complete");
+                    checkpoint.setProperty("nextSentence", String.valueOf(i));
+                    print.checkpoint(checkpoint);
+                    saveCheckpoint(completeErrorCorpus, checkpoint);
+                }
+                sentence = (Sentence) inputSentences.get(i);
+                print.startSentence(sentence);
+                print.writeOriginal(sentence);
+                ErrorResult[] results = repeats == null ? null : repeats.visit(sentence);
+                if (results != null) {
+                    for (int j = 0; j < results.length; j++) {
+                        writeResult(print, sentence, results[j], j + 1);
+                        if (manifest != null) {
+                            manifest.setInserted(i, j, results[j].isSuccess());
+                        }
+                    }
+                } else {
+                    if (repeats != null && repeats.isRepeated(sentence)) {
+                        results = new ErrorResult[errorAnalysis.size()];
+                    }
+                    for (int j = 0; j < errorAnalysis.size(); j++) {
+                        ErrorResult result = getResult(j, sentence, sampler, cache, specKeys[j]);
+                        writeResult(print, sentence, result, j + 1);
+                        if (manifest != null) {
+                            manifest.setInserted(i, j, result.isSuccess());
+                        }
+                        if (results != null) {
+                            results[j] = result;
+                        }
+                    }
+                    if (results != null) {
+                        repeats.store(sentence, results);
+                    }
+                }
+                print.writeSeparator(sentence);
+                sentence.releaseAnalysis();
+            }
+            if (progress != null) {
+                progress.stop();
+            }
+            print.close();
+            printReports(print);
+            writeSlowSentences(sampler, completeErrorCorpus);
+            if (repeats != null) {
+                System.err.println(repeats.getReport());
+            }
+            if (cache != null) {
+                cache.close();
+                System.err.println(cache.getReport());
+            }
+            if (manifest != null) {
+                manifest.write(completeErrorCorpus + ".manifest");
+            }
+            saveProperties(completeErrorCorpus + ".watermark", newWatermark("complete"), "GenERRate watermark");
+            deleteCheckpoint(completeErrorCorpus);
+        } catch (IOException io) {
+            System.err.println(io.getMessage());
+        }
+    }
+
+    /**
+     * Updates a complete error corpus after the error analysis file has changed, using the manifest
+     * written with it: only the errors described by new or changed lines are inserted again, and the
+     * results of the lines which are the same are taken from the previous corpus and log. Lines of
+     * the error analysis file which are not valid are always processed again, as their messages give
+     * their line numbers.
+     * <p>
+     * With Manifest.SPLICE the corpus, log and manifest are replaced by the same files a full run
+     * would write. With Manifest.DELTA they are left as they are and the results of the new and
+     * changed lines are written to &lt;file&gt;.delta and &lt;log&gt;.delta, in the usual format.
+     * If there is no usable manifest the whole corpus is created again.
+     */
+    public void updateCompleteErrorCorpus(String theCompleteErrorCorpusFile, boolean isOutputTagged, String theLogFile, String mode) {
+        completeErrorCorpus = theCompleteErrorCorpusFile;
+        try {
+            Manifest previous = Manifest.read(completeErrorCorpus + ".manifest");
+            String mismatch;
+            if (previous == null) {
+                mismatch = "there is no manifest " + completeErrorCorpus + ".manifest";
+            } else if (shards != 1 || isCompressedOutput || duplicateFilterSize != 0) {
+                mismatch = "only a single uncompressed error corpus without duplicate filtering can be updated";
+            } else {
+                mismatch = previous.getMismatch(getEnvironment(), Manifest.getInputFingerprint((List<Sentence>) inputSentences),
+                        inputSentences.size(), getOutputFormat(isOutputTagged));
+            }
+            if (mismatch != null) {
+                System.err.println("Creating the whole error corpus, as " + mismatch + ".");
+                createCompleteErrorCorpus(completeErrorCorpus, isOutputTagged, theLogFile);
+                return;
+            }
+            boolean isDelta = Manifest.DELTA.equals(mode);
+            int oldSpecs = previous.getSpecs().size();
+            int[] matches = previous.match(errorSpecs);
+            Sentence empty = new Sentence("", true);
+            int reused = 0;
+            for (int j = 0; j < matches.length; j++) {
+                if (matches[j] >= 0 && getError(j, empty) == null) {
+                    matches[j] = -1;
+                }
+                if (matches[j] >= 0) {
+                    reused++;
+                }
+            }
+            System.err.println("Updating " + completeErrorCorpus + ": " + reused + " lines of the error analysis file are unchanged, "
+                    + (matches.length - reused) + " are new or changed and " + (oldSpecs - reused) + " of the previous lines are left out.");
+
+            String outputFile = completeErrorCorpus + (isDelta ? ".delta" : ".tmp");
+            String logFile = theLogFile + (isDelta ? ".delta" : ".tmp");
+            CorpusWriter print = openWriter(outputFile, isOutputTagged, logFile, null);
+            BufferedReader oldOutput = null;
+            BufferedReader oldLog = null;
+            Manifest manifest = new Manifest(getEnvironment(), Manifest.getInputFingerprint((List<Sentence>) inputSentences), inputSentences.size(),
+                    getOutputFormat(isOutputTagged), new ArrayList<String>(errorAnalysis));
+            ProgressReporter progress = startProgress(print, outputFile, inputSentences.size(), false);
+            SlowSentenceSampler sampler = createSampler();
+            ResultCache cache = openResultCache();
+            long[] specKeys = new long[errorSpecs.size()];
+            for (int j = 0; cache != null && j < specKeys.length; j++) {
+                specKeys[j] = cache.getSpecKey(errorSpecs.get(j), 0);
+            }
+            String[] oldLines = new String[oldSpecs];
+            try {
+                if (!isDelta) {
+                    oldOutput = new BufferedReader(new FileReader(completeErrorCorpus));
+                    oldLog = new BufferedReader(new FileReader(theLogFile));
+                }
+                for (int i = 0; i < inputSentences.size(); i++) {
+                    Sentence sentence = (Sentence) inputSentences.get(i);
+                    print.startSentence(sentence);
+                    print.writeOriginal(sentence);
+                    if (!isDelta) {
+                        //the lines of the previous corpus and log for this sentence, in the order they were written
+                        if (!isJsonOutput) {
+                            readLine(oldOutput, completeErrorCorpus);
+                        }
+                        for (int k = 0; k < oldSpecs; k++) {
+                            oldLines[k] = previous.isInserted(i, k) ? readLine(oldOutput, completeErrorCorpus) : readLine(oldLog, theLogFile);
+                        }
+                        if (!isJsonOutput) {
+                            readLine(oldOutput, completeErrorCorpus);
+                        }
+                    }
+                    for (int j = 0; j < matches.length; j++) {
+                        int k = matches[j];
+                        if (k < 0) {
+                            ErrorResult result = getResult(j, sentence, sampler, cache, specKeys[j]);
+                            writeResult(print, sentence, result, j + 1);
+                            manifest.setInserted(i, j, result.isSuccess());
+                        } else if (!isDelta) {
+                            if (previous.isInserted(i, k)) {
+                                String line = oldLines[k];
+                                if (isJsonOutput && j != k) {
+                                    line = line.replace(",\"specLine\":" + (k + 1) + ",", ",\"specLine\":" + (j + 1) + ",");
+                                }
+                                print.copyError(sentence, line);
+                            } else {
+                                print.copyFailure(sentence, oldLines[k]);
+                            }
+                            manifest.setInserted(i, j, previous.isInserted(i, k));
+                        }
+                    }
+                    print.writeSeparator(sentence);
+                    sentence.releaseAnalysis();
+                }
+            } finally {
+                if (oldOutput != null) {
+                    oldOutput.close();
+                }
+                if (oldLog != null) {
+                    oldLog.close();
+                }
+                if (progress != null) {
+                    progress.stop();
+                }
+                print.close();
+            }
+            printReports(print);
+            writeSlowSentences(sampler, completeErrorCorpus);
+            if (cache != null) {
+                cache.close();
+                System.err.println(cache.getReport());
+            }
+            if (!isDelta) {
+                //the old manifest goes first and the new one is written last, so an interrupted splice
+                //leaves no manifest which does not match the corpus and log, and the next update starts afresh
+                Files.deleteIfExists(new File(completeErrorCorpus + ".manifest").toPath());
+                Files.move(new File(outputFile).toPath(), new File(completeErrorCorpus).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                Files.move(new File(logFile).toPath(), new File(theLogFile).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                saveProperties(completeErrorCorpus + ".watermark", newWatermark("complete"), "GenERRate watermark");
+                manifest.write(completeErrorCorpus + ".manifest");
+            }
+        } catch (IOException io) {
+            System.err.println(io.getMessage());
+        }
+    }
+
+    /**
+     * Reads a line of a previous error corpus or log, which must have as many lines as its manifest says
+     */
+    private static String readLine(BufferedReader reader, String fileName) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException(fileName + " is shorter than its manifest says; it cannot be updated.");
+        }
+        return line;
+    }
+
+    /**
+     * Same as above method but no output file is produced
+     */
+    public void createCompleteErrorCorpus() {
+        System.out.println("In createCompleteErrorCorpus");
+        Sentence sentence;
+        String errorInfo;
+        Error error;
+        ArrayList list = null;
+        for (int i = 0; i < inputSentences.size(); i++) {
+            sentence = (Sentence) inputSentences.get(i);
+            for (int j = 0; j < errorAnalysis.size(); j++) {
+                try {
+                    errorInfo = (String) errorAnalysis.get(j);
+                    error = getError(j, sentence);
+                    if (error == null) {
+                        throw new CannotCreateErrorException("There is a problem with the error specification in line " + (j + 1) + " of error analysis file.");
+                    }
+                    Sentence ungrammaticalSentence = error.insertError(j + 1);
+
+                    if (completeErrorMap.containsKey(error.getProbability() + "," + error)) {
+                        list = (ArrayList) completeErrorMap.get(error.getProbability() + "," + error);
                     } else {
                         list = new ArrayList();
                     }
@@ -493,6 +1887,67 @@ public class GenERRate {
                     //System.out.println(sentence + "\t" + c.getMessage());
                 }
             }
+            sentence.releaseAnalysis();
+        }
+    }
+
+    /**
+     * For each sentence in inputSentences
+     * Insert the given number of errors, drawn according to their probabilities, one after another
+     * If successful
+     * write the ungrammatical sentence to the output file together with the error types and
+     * details of all the errors inserted (see CompositeError)
+     */
+    public void createComposedErrorCorpus(int errors, long seed, String theOutputFile, boolean isOutputTagged, String theLogFile) {
+        try {
+            Properties checkpoint = loadCheckpoint(theOutputFile, "composed");
+            CorpusWriter print = openWriter(theOutputFile, isOutputTagged, theLogFile, checkpoint);
+            int start = 0;
+            if (checkpoint != null) {
+                start = Integer.parseInt(checkpoint.getProperty("nextSentence"));
+            }
+            ErrorGenerator generator = getErrorGenerator();
+            generator.setSampler(createSampler());
+            Deduplicator repeats = createDeduplicator(start);
+            ProgressReporter progress = startProgress(print, theOutputFile, inputSentences.size(), false);
+            for (int i = start; i < inputSentences.size(); i++) {
+                if (checkpointInterval > 0 && i > start && i % checkpointInterval == 0) {
+                    checkpoint = newCheckpoint("composed");
+                    checkpoint.setProperty("nextSentence", String.valueOf(i));
+                    print.checkpoint(checkpoint);
+                    saveCheckpoint(theOutputFile, checkpoint);
+                }
+                Sentence sentence = (Sentence) inputSentences.get(i);
+                print.startSentence(sentence);
+                ErrorResult[] results = repeats == null ? null : repeats.visit(sentence);
+                ErrorResult result;
+                if (results != null) {
+                    result = results[0];
+                } else {
+                    result = generator.compose(sentence, errors, seed);
+                    if (repeats != null && repeats.isRepeated(sentence)) {
+                        repeats.store(sentence, new ErrorResult[]{result});
+                    }
+                }
+                if (result.isSuccess()) {
+                    print.writeError(sentence, result.getUngrammaticalSentence(), result.getError(), result.getSpec().getLineNumber());
+                } else {
+                    print.writeFailure(sentence, result.getFailure());
+                }
+                sentence.releaseAnalysis();
+            }
+            if (progress != null) {
+                progress.stop();
+            }
+            print.close();
+            printReports(print);
+            writeSlowSentences(generator.getSampler(), theOutputFile);
+            if (repeats != null) {
+                System.err.println(repeats.getReport());
+            }
+            deleteCheckpoint(theOutputFile);
+        } catch (IOException io) {
+            System.err.println(io.getMessage());
         }
     }
 
@@ -505,8 +1960,7 @@ public class GenERRate {
     public void createRealisticErrorCorpus(int size, String theRealisticErrorCorpusFile, boolean isOutputTagged) {
         realisticErrorCorpus = theRealisticErrorCorpusFile;
         try {
-            FileWriter writer = new FileWriter(realisticErrorCorpus);
-            PrintWriter printer = new PrintWriter(writer);
+            CorpusOutput printer = openOutput(realisticErrorCorpus, false);
             double probability = 0.0;
             long sentenceNo = 0;
             int totalCount = 0;
@@ -524,7 +1978,7 @@ public class GenERRate {
                 for (int i = 0; i < inputSentences.size() && errorTypeCount < sentenceNo; i++) {
                     try {
                         sentence = (Sentence) inputSentences.get(i);
-                        error = getError(errorInfo, sentence);
+                        error = getError(j, sentence);
                         if (error == null) {
                             throw new CannotCreateErrorException("There is a problem with the error specification in line " + (j + 1) + " of error analysis file.");
                         }
@@ -534,9 +1988,10 @@ public class GenERRate {
                             sentenceNo = Math.round(size * probability);
                         }
                         if (sentenceNo > 0) {
-                            ungrammaticalSentence = error.insertError();
+                            ungrammaticalSentence = error.insertError(j + 1);
                             errorTypeCount++;
                             totalCount++;
+                            printer.beginSentence(sentence.getId());
                             if (isOutputTagged) {
                                 printer.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + ">" + ungrammaticalSentence + "</s>");
                             } else {
@@ -547,6 +2002,7 @@ public class GenERRate {
                         //System.out.println(sentence);
                         //System.out.println(c.getMessage());
                     }
+                    sentence.releaseAnalysis();
                 }
                 //System.out.println("The error is " + error + " " + error.getProbability() + " " + errorTypeCount + " " + sentenceNo);
             }
@@ -565,10 +2021,10 @@ public class GenERRate {
     public void createRealisticErrorCorpusOneToOne(int size, String theRealisticErrorCorpusFile, boolean isOutputTagged, String theLogFile) {
         realisticErrorCorpus = theRealisticErrorCorpusFile;
         try {
-            FileWriter writer = new FileWriter(realisticErrorCorpus);
-            PrintWriter printer = new PrintWriter(writer);
-            FileWriter failedW = new FileWriter(theLogFile);
-            PrintWriter failedP = new PrintWriter(failedW);
+            Properties checkpoint = loadCheckpoint(realisticErrorCorpus, "realistic");
+            Properties previous = checkpoint == null ? loadWatermark(realisticErrorCorpus, "realistic") : null;
+            Properties watermark = newWatermark("realistic");
+            CorpusWriter printer = openWriter(realisticErrorCorpus, isOutputTagged, theLogFile, checkpoint, previous != null);
             double probability = 0.0;
             long sentenceNo = 0;
             int totalCount = 0;
@@ -578,373 +2034,184 @@ public class GenERRate {
             String errorInfo = null;
             Error error = null;
             int tried = 0;
-            Collections.shuffle(inputSentences, new Random(inputSentences.get(0).hashCode()));
-            for (int j = 0; j < errorAnalysis.size(); j++) {
+            int start = 0;
+            int startSpec = 0;
+            long attempts = 0;
+            long startAttempts = 0;
+            //the number of errors of each type written, including those written by the run the output is added to
+            long[] written = new long[errorAnalysis.size()];
+            //the sentences the errors are inserted into: all of them, or those added since the previous run
+            List<Sentence> pool = inputSentences;
+            if (previous != null) {
+                for (int j = 0; j < written.length; j++) {
+                    written[j] = Long.parseLong(previous.getProperty("count." + j, "0"));
+                }
+                pool = new ArrayList<Sentence>(getSentencesInOrder(inputSentences.size()).subList(Integer.parseInt(previous.getProperty("sentences")), inputSentences.size()));
+            }
+            long seed = pool.isEmpty() ? 0 : pool.get(0).toString().hashCode();
+            if (checkpoint == null) {
+                Collections.shuffle(pool, new Random(seed));
+            } else {
+                startSpec = Integer.parseInt(checkpoint.getProperty("spec"));
+                attempts = Long.parseLong(checkpoint.getProperty("attempts"));
+                startAttempts = attempts;
+                totalCount = Integer.parseInt(checkpoint.getProperty("totalCount"));
+                if (checkpoint.getProperty("written") != null) {
+                    String[] counts = checkpoint.getProperty("written").split(",");
+                    for (int j = 0; j < written.length; j++) {
+                        written[j] = Long.parseLong(counts[j]);
+                    }
+                }
+                //the sentences are reordered as errors are created, so the order is restored rather than shuffled again
+                Sentence[] byId = new Sentence[inputSentences.size()];
+                for (Object inputSentence : inputSentences) {
+                    byId[(int) ((Sentence) inputSentence).getId()] = (Sentence) inputSentence;
+                }
+                pool = new ArrayList<Sentence>();
+                for (String id : checkpoint.getProperty("order").split(",")) {
+                    pool.add(byId[Integer.parseInt(id)]);
+                }
+                if (pool.size() == inputSentences.size()) {
+                    inputSentences.clear();
+                    inputSentences.addAll(pool);
+                    pool = inputSentences;
+                }
+            }
+            ProgressReporter progress = startProgress(printer, realisticErrorCorpus, size, true);
+            SlowSentenceSampler sampler = createSampler();
+            for (int j = startSpec; j < errorAnalysis.size() && !pool.isEmpty(); j++) {
                 errorInfo = (String) errorAnalysis.get(j);
                 sentenceNo = 1;
                 errorTypeCount = 0;
                 tried = 0;
-                for (int i = 0; i < inputSentences.size() && errorTypeCount < sentenceNo && tried < inputSentences.size(); i++) {
+                start = 0;
+                if (checkpoint != null && j == startSpec) {
+                    sentenceNo = Long.parseLong(checkpoint.getProperty("sentenceNo"));
+                    errorTypeCount = Integer.parseInt(checkpoint.getProperty("errorTypeCount"));
+                    tried = Integer.parseInt(checkpoint.getProperty("tried"));
+                    start = Integer.parseInt(checkpoint.getProperty("nextSentence"));
+                }
+                //the errors of this type written before this run, which count towards the quota of the whole corpus
+                long previouslyWritten = written[j] - errorTypeCount;
+                for (int i = start; i < pool.size() && errorTypeCount < sentenceNo && tried < pool.size(); i++) {
+                    if (checkpointInterval > 0 && attempts > startAttempts && attempts % checkpointInterval == 0) {
+                        checkpoint = newCheckpoint("realistic");
+                        checkpoint.setProperty("seed", String.valueOf(seed));
+                        checkpoint.setProperty("spec", String.valueOf(j));
+                        checkpoint.setProperty("nextSentence", String.valueOf(i));
+                        checkpoint.setProperty("attempts", String.valueOf(attempts));
+                        checkpoint.setProperty("sentenceNo", String.valueOf(sentenceNo));
+                        checkpoint.setProperty("errorTypeCount", String.valueOf(errorTypeCount));
+                        checkpoint.setProperty("tried", String.valueOf(tried));
+                        checkpoint.setProperty("totalCount", String.valueOf(totalCount));
+                        StringBuilder counts = new StringBuilder();
+                        for (int k = 0; k < written.length; k++) {
+                            if (k > 0) {
+                                counts.append(',');
+                            }
+                            counts.append(written[k]);
+                        }
+                        checkpoint.setProperty("written", counts.toString());
+                        StringBuilder order = new StringBuilder();
+                        for (Object inputSentence : pool) {
+                            if (order.length() > 0) {
+                                order.append(',');
+                            }
+                            order.append(((Sentence) inputSentence).getId());
+                        }
+                        checkpoint.setProperty("order", order.toString());
+                        printer.checkpoint(checkpoint);
+                        saveCheckpoint(realisticErrorCorpus, checkpoint);
+                    }
+                    attempts++;
                     try {
-                        sentence = (Sentence) inputSentences.get(i);
-                        error = getError(errorInfo, sentence);
+                        sentence = pool.get(i);
+                        error = getError(j, sentence);
                         if (error == null) {
                             throw new CannotCreateErrorException("There is a problem with the error specification in line " + (j + 1) + " of error analysis file.");
                         }
                         //first time we create an Error object for this error type, get the probability associated with this error type
                         if (i == 0) {
                             probability = error.getProbability();
-                            sentenceNo = Math.round(size * probability);
+                            sentenceNo = Math.max(0, Math.round(size * probability) - previouslyWritten);
+                            if (progress != null) {
+                                progress.setQuota(j, sentenceNo);
+                            }
                         }
                         if (sentenceNo > 0) {
                             tried++;
-                            ungrammaticalSentence = error.insertError();
-                            errorTypeCount++;
-                            totalCount++;
-                            //if we succeed in creating an error using this sentence, move this sentence to the end of the list
-                            inputSentences.remove(sentence);
-                            i--;
-                            inputSentences.add(sentence);
-                            if (isOutputTagged) {
-                                printer.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + " original=\"" + sentence + "\">" + ungrammaticalSentence + "</s>");
-                            } else {
-                                printer.println(sentence.getSentenceSGML() + ungrammaticalSentence.getErrorDescription() + " original=\"" + sentence + "\">" + ungrammaticalSentence.toStringNoTags() + "</s>");
+                            ungrammaticalSentence = error.insertError(j + 1, sampler);
+                            printer.startSentence(sentence);
+                            //a duplicate which is left out does not count, and the sentence can still be used
+                            if (printer.writeError(sentence, ungrammaticalSentence, error, j + 1)) {
+                                errorTypeCount++;
+                                totalCount++;
+                                written[j]++;
+                                //if we succeed in creating an error using this sentence, move this sentence to the end of the list
+                                pool.remove(sentence);
+                                i--;
+                                pool.add(sentence);
+                                if (progress != null) {
+                                    progress.fill(j);
+                                }
                             }
                         }
                     } catch (CannotCreateErrorException c) {
-                        failedP.println(sentence + "\t" + c.getMessage());
+                        printer.writeFailure(sentence, c.getMessage());
                     }
+                    sentence.releaseAnalysis();
                 }
                 System.out.println("The error is " + error + " " + error.getProbability() + " " + errorTypeCount + " " + sentenceNo);
             }
+            if (progress != null) {
+                progress.stop();
+            }
             printer.close();
-            failedP.close();
+            printReports(printer);
+            writeSlowSentences(sampler, realisticErrorCorpus);
+            for (int j = 0; j < written.length; j++) {
+                watermark.setProperty("count." + j, String.valueOf(written[j]));
+            }
+            saveProperties(realisticErrorCorpus + ".watermark", watermark, "GenERRate watermark");
+            deleteCheckpoint(realisticErrorCorpus);
         } catch (IOException io) {
             System.err.println(io.getMessage());
         }
     }
 
     /**
-     * Creates an error of the appropriate type based on the error information supplied as the first parameter
+     * Same as createRealisticErrorCorpusOneToOne, but on several threads (see ParallelRealisticGenerator).
+     * The corpus is shuffled with the given seed, and the same seed and number of threads give the same corpus.
      */
-    private Error getError(String errorInfo, Sentence sentence) {
-        StringTokenizer tokens = new StringTokenizer(errorInfo, "\t");
-        int tokenCount = tokens.countTokens();
-        String secondToken = null, thirdToken = null, fourthToken = null, fifthToken = null, sixthToken = null;
-        double prob = 0.0;
-        if (errorInfo.startsWith("subst")) {
-            if (tokenCount == 1) {
-                return new SubstError(sentence, extraWords);
-            } else if (tokenCount == 2) {
-                tokens.nextToken();
-                secondToken = tokens.nextToken();
-                try {
-                    prob = Double.parseDouble(secondToken);
-                    SubstError subst = new SubstError(sentence, extraWords);
-                    subst.setProbability(prob);
-                    return subst;
-                } catch (NumberFormatException n) {
-                    return new SubstWordConfusionError(sentence, extraWords, secondToken);
-                }
-            } else if (tokenCount == 3) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    prob = Double.parseDouble(thirdToken);
-                    SubstWordConfusionError subst = new SubstWordConfusionError(
-                            sentence, extraWords, secondToken);
-                    subst.setProbability(prob);
-                    return subst;
-                } catch (NumberFormatException n) {
-                    return new SubstWrongFormError(
-                            sentence, TAG_SET, secondToken, thirdToken, extraWords, dictionary);
-                }
-            } else if (tokenCount == 4) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    fourthToken = tokens.nextToken();
-                    prob = Double.parseDouble(fourthToken);
-                    SubstWrongFormError subst = new SubstWrongFormError(
-                            sentence, TAG_SET, secondToken, thirdToken, extraWords, dictionary);
-                    subst.setProbability(prob);
-                    return subst;
-
-                } catch (NumberFormatException n) {
-                    return new SubstSpecificWordConfusionError(sentence, new Word(thirdToken), new Word(fourthToken));
-                }
-            } else if (tokenCount == 5) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    fourthToken = tokens.nextToken();
-                    fifthToken = tokens.nextToken();
-                    prob = Double.parseDouble(fifthToken);
-                    SubstSpecificWordConfusionError subst = new SubstSpecificWordConfusionError(sentence, new Word(thirdToken), new Word(fourthToken));
-                    subst.setProbability(prob);
-                    return subst;
-                } catch (NumberFormatException n) {
-                    //invalid input, returning null
-                    return null;
-                }
-            } else {
-                //invalid input, returning null
-                return null;
-            }
-        } else if (errorInfo.startsWith("move")) {
-            if (tokenCount == 1) {
-                return new MoveError(sentence);
-            } else if (tokenCount == 2) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    prob = Double.parseDouble(secondToken);
-                    MoveError move = new MoveError(sentence);
-                    move.setProbability(prob);
-                    return move;
-                } catch (NumberFormatException n) {
-                    return new MovePOSError(sentence, secondToken);
-                }
-            } else if (tokenCount == 3) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    prob = Double.parseDouble(thirdToken);
-                    MovePOSError move = new MovePOSError(sentence, secondToken);
-                    move.setProbability(prob);
-                    return move;
-                } catch (NumberFormatException n) {
-                    //invalid input, returning null
-                    return null;
-                }
-            } else if (tokenCount == 4) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    fourthToken = tokens.nextToken();
-                    return new MovePOSWhereError(sentence, secondToken, Boolean.parseBoolean(thirdToken), Integer.parseInt(fourthToken));
-                } catch (NumberFormatException n) {
-                    //invalid input, returning null
-                    return null;
-                }
-            } else if (tokenCount == 5) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    fourthToken = tokens.nextToken();
-                    fifthToken = tokens.nextToken();
-                    prob = Double.parseDouble(fifthToken);
-                    MovePOSWhereError move = new MovePOSWhereError(sentence, secondToken, Boolean.parseBoolean(thirdToken), Integer.parseInt(fourthToken));
-                    move.setProbability(prob);
-                    return move;
-                } catch (NumberFormatException n) {
-                    //invalid input, returning null
-                    return null;
-                }
-            } else {
-                //invalid input, returning null
-                return null;
-            }
-        } else if (errorInfo.startsWith("delete")) {
-            if (tokenCount == 1) {
-                return new DeletionError(sentence);
-            } else if (tokenCount == 2) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    prob = Double.parseDouble(secondToken);
-                    DeletionError delete = new DeletionError(sentence);
-                    delete.setProbability(prob);
-                    return delete;
-                } catch (NumberFormatException n) {
-                    return new DeletionPOSError(sentence, secondToken);
-                }
-            } else if (tokenCount == 3) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    Error delete;
-                    if (secondToken.equals("word")) {
-                        delete = new DeletionWordError(sentence, thirdToken);
-                    } else {
-                        prob = Double.parseDouble(thirdToken);
-                        delete = new DeletionPOSError(sentence, secondToken);
-                        delete.setProbability(prob);
-                    }
-                    return delete;
-                } catch (NumberFormatException n) {
-                    return null;
-                }
-            } else if (tokenCount == 4) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    fourthToken = tokens.nextToken();
-                    prob = Double.parseDouble(fourthToken);
-                    return null;
-                } catch (NumberFormatException n) {
-                    if (fourthToken.equals("true") || fourthToken.equals("false")) {
-                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, Boolean.parseBoolean(fourthToken));
-                        delete.setProbability(prob);
-                        return delete;
-                    } else {
-                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, fourthToken);
-                        delete.setProbability(prob);
-                        return delete;
-                    }
-                }
-            } else if (tokenCount == 5) {
-                try {
-                    tokens.nextToken();
-                    secondToken = tokens.nextToken();
-                    thirdToken = tokens.nextToken();
-                    fourthToken = tokens.nextToken();
-                    fifthToken = tokens.nextToken();
-                    prob = Double.parseDouble(fifthToken);
-                    if (fourthToken.equals("true") || fourthToken.equals("false")) {
-                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, Boolean.parseBoolean(fourthToken));
-                        delete.setProbability(prob);
-                        return delete;
-                    } else {
-                        DeletionPOSWhereError delete = new DeletionPOSWhereError(sentence, secondToken, thirdToken, fourthToken);
-                        delete.setProbability(prob);
-                        return delete;
-                    }
-                } catch (NumberFormatException n) {
-                    //invalid input, returning null
-                    return null;
-                }
-            } else {
-                //invalid input, returning null
-                return null;
-            }
-        } else if (errorInfo.startsWith("insert")) {
-            if (tokenCount == 1) {
-                return new InsertionError(sentence, extraWords);
-            } else if (tokenCount == 2) {
-                tokens.nextToken();
-                //see whether the second token is the token "file" or "same sentence"
-                secondToken = tokens.nextToken();
-                try {
-                    prob = Double.parseDouble(secondToken);
-                    InsertionError insert = new InsertionError(sentence, extraWords);
-                    insert.setProbability(prob);
-                    return insert;
-                } catch (NumberFormatException n) {
-                    if (secondToken.equalsIgnoreCase("sentence")) {
-                        return new InsertionFromFileOrSentenceError(sentence);
-                    } else if (secondToken.equalsIgnoreCase("file")) {
-                        return new InsertionFromFileOrSentenceError(sentence, extraWords);
-                    }
-                }
-            } else if (tokenCount == 3) {
-                tokens.nextToken();
-                secondToken = tokens.nextToken();
-                thirdToken = tokens.nextToken();
-                try {
-                    prob = Double.parseDouble(thirdToken);
-                    if (secondToken.equalsIgnoreCase("sentence")) {
-                        InsertionFromFileOrSentenceError insert = new InsertionFromFileOrSentenceError(sentence);
-                        insert.setProbability(prob);
-                        return insert;
-                    } else if (secondToken.equalsIgnoreCase("file")) {
-                        InsertionFromFileOrSentenceError insert = new InsertionFromFileOrSentenceError(sentence, extraWords);
-                        insert.setProbability(prob);
-                        return insert;
-                    }
-                } catch (NumberFormatException n) {
-                    if (secondToken.equalsIgnoreCase("sentence")) {
-                        InsertionPOSError insert = new InsertionPOSError(sentence, thirdToken);
-                        return insert;
-                    } else {
-                        InsertionPOSError insert = new InsertionPOSError(sentence, extraWords, thirdToken);
-                        return insert;
-
-                    }
-                }
-            } else if (tokenCount == 4) {
-                tokens.nextToken();
-                secondToken = tokens.nextToken();
-                thirdToken = tokens.nextToken();
-                fourthToken = tokens.nextToken();
-                try {
-                    prob = Double.parseDouble(fourthToken);
-                    if (secondToken.equalsIgnoreCase("sentence")) {
-                        InsertionPOSError insert = new InsertionPOSError(sentence, thirdToken);
-                        insert.setProbability(prob);
-                        return insert;
-                    } else if (secondToken.equalsIgnoreCase("file")) {
-                        InsertionPOSError insert = new InsertionPOSError(sentence, extraWords, thirdToken);
-                        insert.setProbability(prob);
-                        return insert;
-                    }
-                } catch (NumberFormatException n) {
-                    return null;
-                }
-            } else if (tokenCount == 5) {
-                tokens.nextToken();
-                secondToken = tokens.nextToken();
-                thirdToken = tokens.nextToken();
-                fourthToken = tokens.nextToken();
-                fifthToken = tokens.nextToken();
-                try {
-                    prob = Double.parseDouble(fifthToken);
-                    return null;
-                } catch (NumberFormatException n) {
-                    if (secondToken.equalsIgnoreCase("sentence") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        return new InsertionPOSWhereError(sentence, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
-                    } else if (secondToken.equalsIgnoreCase("file") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        return new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
-                    } else if (secondToken.equalsIgnoreCase("sentence") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        return new InsertionPOSWhereError(sentence, thirdToken, fourthToken, fifthToken);
-                    } else if (secondToken.equalsIgnoreCase("file") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        return new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, fifthToken);
-                    }
-                }
-            } else if (tokenCount == 6) {
-                tokens.nextToken();
-                secondToken = tokens.nextToken();
-                thirdToken = tokens.nextToken();
-                fourthToken = tokens.nextToken();
-                fifthToken = tokens.nextToken();
-                sixthToken = tokens.nextToken();
-                try {
-                    prob = Double.parseDouble(sixthToken);
-                    if (secondToken.equalsIgnoreCase("sentence") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
-                        insert.setProbability(prob);
-                        return insert;
-                    } else if (secondToken.equalsIgnoreCase("file") && (fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, Boolean.parseBoolean(fifthToken));
-                        insert.setProbability(prob);
-                        return insert;
-                    } else if (secondToken.equalsIgnoreCase("sentence") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, thirdToken, fourthToken, fifthToken);
-                        insert.setProbability(prob);
-                        return insert;
-                    } else if (secondToken.equalsIgnoreCase("file") && !(fifthToken.equalsIgnoreCase("true") || fifthToken.equalsIgnoreCase("false"))) {
-                        InsertionPOSWhereError insert = new InsertionPOSWhereError(sentence, extraWords, thirdToken, fourthToken, fifthToken);
-                        insert.setProbability(prob);
-                        return insert;
-                    }
-                } catch (NumberFormatException n) {
-                    return null;
-                }
-            } else {
-                //invalid input, returning null
-                return null;
+    public void createParallelRealisticErrorCorpus(int size, int threads, long seed, String theRealisticErrorCorpusFile, boolean isOutputTagged, String theLogFile) {
+        realisticErrorCorpus = theRealisticErrorCorpusFile;
+        if (checkpointInterval > 0 || isResume) {
+            System.err.println("Checkpoints are not written when the realistic error corpus is created on several threads.");
+        }
+        try {
+            CorpusWriter printer = openWriter(realisticErrorCorpus, isOutputTagged, theLogFile, null);
+            ErrorGenerator generator = getErrorGenerator();
+            generator.setSampler(createSampler());
+            ParallelRealisticGenerator parallel = new ParallelRealisticGenerator(generator, threads, seed);
+            parallel.createRealisticErrorCorpus(inputSentences, size, printer);
+            printer.close();
+            printReports(printer);
+            double[] probabilities = generator.getProbabilities();
+            for (int j = 0; j < probabilities.length; j++) {
+                System.err.println("The error is " + generator.getSpecs().get(j) + " " + probabilities[j] + " " + parallel.getCounts()[j]
+                        + " " + parallel.getQuotas()[j]);
             }
+            writeSlowSentences(generator.getSampler(), realisticErrorCorpus);
+        } catch (IOException io) {
+            System.err.println(io.getMessage());
         }
-        //something wrong - returning null
-        return null;
+    }
+
+    /**
+     * Creates an error of the appropriate type based on the line of the error analysis file at the given index
+     */
+    private Error getError(int spec, Sentence sentence) {
+        return errorFactory.createError(errorSpecs.get(spec), sentence);
     }
 
 
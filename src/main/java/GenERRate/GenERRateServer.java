@@ -0,0 +1,324 @@
+package GenERRate;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.xalan.xsltc.cmdline.getopt.GetOpt;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class GenERRateServer
+ * <p>
+ * Runs GenERRate as a long-running local server, so that the dictionary, the word list and the
+ * compiled error analysis files are loaded once rather than for every batch of sentences.
+ * The server listens on localhost and has three endpoints:
+ * <pre>
+ * POST /generate?specs=ID  the request body holds one sentence per line; every error of spec set ID
+ *                          is inserted into every sentence and the results are returned as JSON
+ * GET  /stats              request counts and latency percentiles, as JSON
+ * POST /reload             reads the word list and the error analysis files again
+ * </pre>
+ * A spec set is an error analysis file registered under an id on the command line.
+ */
+public class GenERRateServer {
+    /**
+     * The default port the server listens on
+     */
+    public static final int DEFAULT_PORT = 8642;
+
+    private final PartOfSpeech tagSet;
+    private final Set<String> dictionary;
+    private final String extraWordList;
+
+    /**
+     * Maps a spec set id to the error analysis file it is read from
+     */
+    private final Map<String, String> specFiles;
+
+    /**
+     * Maps a spec set id to the generator for its errors. Replaced as a whole when reloading,
+     * so a request always sees a consistent set of specs and word list.
+     */
+    private volatile Map<String, ErrorGenerator> generators;
+
+    private final LatencyStats latencies = new LatencyStats();
+    private final AtomicLong sentenceCount = new AtomicLong();
+    private final AtomicLong reloadCount = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public GenERRateServer(PartOfSpeech tagSet, Set<String> dictionary, String extraWordList, Map<String, String> specFiles) throws IOException {
+        this.tagSet = tagSet;
+        this.dictionary = dictionary;
+        this.extraWordList = extraWordList;
+        this.specFiles = specFiles;
+        reload();
+    }
+
+    /**
+     * Reads the word list and the error analysis files. If one of them cannot be read, the
+     * previously loaded ones stay in use.
+     */
+    public synchronized void reload() throws IOException {
+        ErrorFactory factory = new ErrorFactory(tagSet, GenERRate.readLines(extraWordList), dictionary);
+        Map<String, ErrorGenerator> loaded = new TreeMap<String, ErrorGenerator>();
+        for (Map.Entry<String, String> entry : specFiles.entrySet()) {
+            loaded.put(entry.getKey(), new ErrorGenerator(ErrorSpec.compile(GenERRate.readLines(entry.getValue())), factory));
+        }
+        generators = loaded;
+        reloadCount.incrementAndGet();
+    }
+
+    /**
+     * Starts listening on localhost
+     *
+     * @param port    the port to listen on
+     * @param threads the number of threads handling requests
+     */
+    public void start(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/generate", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                handleGenerate(exchange);
+            }
+        });
+        server.createContext("/stats", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                handleStats(exchange);
+            }
+        });
+        server.createContext("/reload", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                handleReload(exchange);
+            }
+        });
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /**
+     * The port the server is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Use POST to send sentences");
+            return;
+        }
+        Map<String, String> parameters = getParameters(exchange);
+        String id = parameters.get("specs");
+        if (id == null) {
+            sendError(exchange, 400, "Name the spec set with ?specs=, one of " + generators.keySet());
+            return;
+        }
+        ErrorGenerator generator = generators.get(id);
+        if (generator == null) {
+            sendError(exchange, 404, "Unknown spec set " + id + ", expected one of " + generators.keySet());
+            return;
+        }
+        boolean isTagged = !"false".equals(parameters.get("tagged"));
+        boolean isOutputTagged = "true".equals(parameters.get("outputTagged"));
+
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), "UTF-8"));
+        StringBuffer sgml = new StringBuffer("<s");
+        String line = reader.readLine();
+        while (line != null) {
+            Sentence sentence = new Sentence(GenERRate.extractSgml(line, sgml), isTagged);
+            sentence.setSentenceSGML(sgml.toString());
+            sentence.setId(sentences.size());
+            sentences.add(sentence);
+            sgml.delete(2, sgml.length());
+            line = reader.readLine();
+        }
+
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        writer.beginObject();
+        writer.name("specs").value(id);
+        writer.name("results").beginArray();
+        Iterator<ErrorResult> results = generator.generate(sentences);
+        while (results.hasNext()) {
+            ErrorResult result = results.next();
+            writer.beginObject();
+            writer.name("sentence").value(result.getSentence().getId());
+            writer.name("specLine").value(result.getSpec().getLineNumber());
+            if (result.isSuccess()) {
+                Sentence ungrammaticalSentence = result.getUngrammaticalSentence();
+                writer.name("error").value(ungrammaticalSentence.getErrorDescription().trim());
+                writer.name("corrupted").value(isOutputTagged ? ungrammaticalSentence.toString() : ungrammaticalSentence.toStringNoTags());
+            } else {
+                writer.name("failure").value(result.getFailure());
+            }
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.close();
+        send(exchange, 200, json.toString());
+        sentenceCount.addAndGet(sentences.size());
+        latencies.record(System.nanoTime() - start);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        writer.beginObject();
+        writer.name("requests").value(latencies.getCount());
+        writer.name("sentences").value(sentenceCount.get());
+        writer.name("reloads").value(reloadCount.get());
+        writer.name("specSets").beginArray();
+        for (String id : generators.keySet()) {
+            writer.value(id);
+        }
+        writer.endArray();
+        writer.name("latencyMs").beginObject();
+        writer.name("p50").value(latencies.getPercentile(50) / 1e6);
+        writer.name("p90").value(latencies.getPercentile(90) / 1e6);
+        writer.name("p99").value(latencies.getPercentile(99) / 1e6);
+        writer.name("max").value(latencies.getMax() / 1e6);
+        writer.endObject();
+        writer.endObject();
+        writer.close();
+        send(exchange, 200, json.toString());
+    }
+
+    private void handleReload(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            sendError(exchange, 405, "Use POST to reload");
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException io) {
+            sendError(exchange, 500, "Could not reload, keeping the previous specs and word list: " + io.getMessage());
+            return;
+        }
+        handleStats(exchange);
+    }
+
+    private static Map<String, String> getParameters(HttpExchange exchange) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<String, String>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"), URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringWriter json = new StringWriter();
+        JsonWriter writer = new JsonWriter(json);
+        writer.beginObject().name("error").value(message).endObject();
+        writer.close();
+        send(exchange, status, json.toString());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+
+    /**
+     * Prints a help message about the server options
+     */
+    private static void printHelp() {
+        System.out.println("Usage: java GenERRate.GenERRateServer [-options] word-list id=error-analysis-file [id=error-analysis-file ...]");
+        System.out.println();
+        System.out.println("where options are: ");
+        System.out.println();
+        System.out.println("-p <port>\t the port to listen on (on localhost, default is " + DEFAULT_PORT + ")");
+        System.out.println();
+        System.out.println("-t <tagset>\t the name of the POS tagset (WSJ or CLAWS, default is WSJ), or a tagset definition file with one role and its tag per line, e.g. SINGULAR_NOUN NN1");
+        System.out.println();
+        System.out.println("-w <threads>\t the number of threads handling requests (default is the number of processors)");
+        System.out.println();
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            printHelp();
+            return;
+        }
+        GetOpt g = new GetOpt(args, "+:p:t:w:");
+        int c;
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String tagset = "WSJ";
+        try {
+            while ((c = g.getNextOption()) != -1) {
+                switch (c) {
+                    case 'p':
+                        try {
+                            port = Integer.parseInt(g.getOptionArg());
+                        } catch (NumberFormatException n) {
+                            System.err.println("Listening on port " + DEFAULT_PORT + ".");
+                            port = DEFAULT_PORT;
+                        }
+                        break;
+                    case 't':
+                        tagset = g.getOptionArg();
+                        break;
+                    case 'w':
+                        try {
+                            threads = Integer.parseInt(g.getOptionArg());
+                        } catch (NumberFormatException n) {
+                            System.err.println("Handling requests on " + threads + " threads.");
+                        }
+                        break;
+                }
+            }
+            String[] obligArgs = g.getCmdArgs();
+            Map<String, String> specFiles = new TreeMap<String, String>();
+            for (int i = 1; i < obligArgs.length; i++) {
+                int equals = obligArgs[i].indexOf('=');
+                if (equals > 0) {
+                    specFiles.put(obligArgs[i].substring(0, equals), obligArgs[i].substring(equals + 1));
+                } else {
+                    specFiles.put("default", obligArgs[i]);
+                }
+            }
+            if (specFiles.isEmpty()) {
+                printHelp();
+                return;
+            }
+            GenERRateServer server = new GenERRateServer(new PartOfSpeech(tagset), GenERRate.loadDictionary(), obligArgs[0], specFiles);
+            server.start(port, threads);
+            System.err.println("GenERRate server listening on localhost:" + server.getPort() + " with spec sets " + specFiles.keySet());
+        } catch (ArrayIndexOutOfBoundsException e) {
+            printHelp();
+        } catch (Exception e) {
+            System.err.println(e.getMessage());
+            printHelp();
+        }
+    }
+}
@@ -17,17 +17,17 @@ public class InsertionError extends Error {
 
     public InsertionError(Sentence inputS, List<String> extraWords) {
         super(inputS);
-        errorInfo = "errortype=\"InsertionError\"";
+        setErrorType("InsertionError");
         extraWordList = extraWords;
     }
 
     public InsertionError(Sentence inputS) {
         super(inputS);
-        errorInfo = "errortype=\"InsertionError\"";
+        setErrorType("InsertionError");
     }
 
 	protected void setErrorInfo(String newToken) {
-		errorInfo = "errortype=\"Insertion" + newToken + "Error\"";
+		setErrorType("Insertion" + newToken + "Error");
 	}
 
     /**
@@ -43,8 +43,8 @@ public class InsertionError extends Error {
 		if ((extraWordList == null || extraWordList.size() < 1) && sentence.size() < 1) {
 			throw new CannotCreateErrorException("Cannot insert an extra word: the extra word list and the sentence are both empty.");
         } else {
-			Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-			Random random = new Random(newSentence.toString().hashCode());
+			Sentence newSentence = copySentence();
+			Random random = createRandom(newSentence.toString());
             //randomly choose the position in the sentence where the extra word should be inserted
             int where = 0;
             if (newSentence.size() > 0) {
@@ -58,15 +58,18 @@ public class InsertionError extends Error {
 				StringTokenizer tokens = new StringTokenizer(extraWord, " ");
                 String newToken = tokens.nextToken();
                 String newTag = tokens.nextToken();
-                newSentence.insertWord(new Word(newToken, newTag), where);
+                Word newWord = new Word(newToken, newTag);
+                newSentence.insertWord(newWord, where);
+                newSentence.addEdit(Edit.insertion(where, newWord));
 				setErrorInfo(newToken);
-				newSentence.setErrorDescription(errorInfo + " details=\"" + newToken + " from file at " + (where + 1) + "\"");
+				setErrorDescription(newSentence, newToken + " from file at " + (where + 1));
             } else {
                 //randomly choose the extra word from the sentence itself
                 Word extraWord = newSentence.getWord(random.nextInt(newSentence.size()));
 				setErrorInfo(extraWord.getToken());
 				newSentence.insertWord(extraWord, where);
-                newSentence.setErrorDescription(errorInfo + " details=\"" + extraWord.getToken() + " from sentence at " + (where + 1) + "\"");
+				newSentence.addEdit(Edit.insertion(where, extraWord));
+                setErrorDescription(newSentence, extraWord.getToken() + " from sentence at " + (where + 1));
             }
             return newSentence;
         }
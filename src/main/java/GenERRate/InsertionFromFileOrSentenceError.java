@@ -20,14 +20,14 @@ public class InsertionFromFileOrSentenceError extends InsertionError {
 
     public InsertionFromFileOrSentenceError(Sentence inputS) {
         super(inputS);
-        errorInfo = "errortype=\"InsertionFromFileOrSentenceError\"";
+        setErrorType("InsertionFromFileOrSentenceError");
         isSameSentence = true;
     }
 
 
     public InsertionFromFileOrSentenceError(Sentence inputS, List anExtraWordList) {
         super(inputS, anExtraWordList);
-        errorInfo = "errortype=\"InsertionFromFileOrSentenceError\"";
+        setErrorType("InsertionFromFileOrSentenceError");
         isSameSentence = false;
     }
 
@@ -71,8 +71,8 @@ public class InsertionFromFileOrSentenceError extends InsertionError {
             throw new CannotCreateErrorException("Cannot insert an extra word: the sentence itself is empty.");
         }
 
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-        Random random = new Random(newSentence.toString().hashCode());
+        Sentence newSentence = copySentence();
+        Random random = createRandom(newSentence.toString());
         //randomly choose the position in the sentence where the extra word should be inserted
         int where = 0;
         if (newSentence.size() > 0) {
@@ -84,14 +84,17 @@ public class InsertionFromFileOrSentenceError extends InsertionError {
             StringTokenizer tokens = new StringTokenizer(extraWord, " ");
             String token = tokens.nextToken();
             String tag = tokens.nextToken();
-            newSentence.insertWord(new Word(token, tag), where);
+            Word newWord = new Word(token, tag);
+            newSentence.insertWord(newWord, where);
+            newSentence.addEdit(Edit.insertion(where, newWord));
             setErrorInfo(token);
-            newSentence.setErrorDescription(errorInfo + " details=\"" + extraWord + " from file at " + (where + 1) + "\"");
+            setErrorDescription(newSentence, extraWord + " from file at " + (where + 1));
         } else {
             //randomly choose the extra word from the sentence itself
             Word extraWord = newSentence.getWord(random.nextInt(newSentence.size()));
             newSentence.insertWord(extraWord, where);
-            newSentence.setErrorDescription(errorInfo + "details=\"" + extraWord + " from sentence at " + (where + 1) + "\"");
+            newSentence.addEdit(Edit.insertion(where, extraWord));
+            setErrorDescription(newSentence, extraWord + " from sentence at " + (where + 1));
         }
         return newSentence;
     }
@@ -17,13 +17,13 @@ public class InsertionPOSError extends InsertionFromFileOrSentenceError {
     public InsertionPOSError(Sentence inputS, List<String> extraWords, String tag) {
         super(inputS, extraWords);
         POS = tag;
-        errorInfo = "errortype=\"Insertion" + POS + "Error\"";
+        setErrorType("Insertion" + POS + "Error");
     }
 
     public InsertionPOSError(Sentence inputS, String aPOS) {
         super(inputS);
         POS = aPOS;
-        errorInfo = "errortype=\"Insertion" + POS + "Error\"";
+        setErrorType("Insertion" + POS + "Error");
     }
 
     /**
@@ -62,11 +62,13 @@ public class InsertionPOSError extends InsertionFromFileOrSentenceError {
         if (isSameSentence && sentence.size() < 1) {
             throw new CannotCreateErrorException("Cannot insert an extra word: the sentence itself is empty.");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-        // Don't make the randomness deterministic.
-        // Random random = new Random(newSentence.toString().hashCode());
-        // Make it random instead; this allows us to have multiple insert file TAG rules.:w
-        Random random = new Random();
+        Sentence newSentence = copySentence();
+        // This used to be new Random(), so that several insert file TAG rules would not all choose
+        // the same position. A resumed run (-r) and the parallel realistic corpus (-f) must make the
+        // same choices as an uninterrupted sequential run, so the choices are seeded like those of the
+        // other errors; the tag is added to the seed, so rules for different tags still choose
+        // independently.
+        Random random = createRandom(newSentence.toString() + POS);
         int where = 0;
         if (newSentence.size() > 0) {
             where = random.nextInt(newSentence.size());
@@ -94,9 +96,11 @@ public class InsertionPOSError extends InsertionFromFileOrSentenceError {
             tokens = new StringTokenizer(extraWord, " ");
             String newToken = tokens.nextToken();
             String newTag = tokens.nextToken();
-            newSentence.insertWord(new Word(newToken, newTag), where);
+            Word newWord = new Word(newToken, newTag);
+            newSentence.insertWord(newWord, where);
+            newSentence.addEdit(Edit.insertion(where, newWord));
             setErrorInfo(newToken);
-            newSentence.setErrorDescription(errorInfo + " details=\"" + newToken + " from file at " + (where + 1) + "\"");
+            setErrorDescription(newSentence, newToken + " from file at " + (where + 1));
         } else {
             List<Word> extraPosWordList = new ArrayList<Word>();
 
@@ -105,12 +109,8 @@ public class InsertionPOSError extends InsertionFromFileOrSentenceError {
                 throw new CannotCreateErrorException("The input sentence is not tagged. Cannot create an extra word error of this type.");
             }
             //find all words tagged as POS in the sentence
-            Word extraPosWord;
-            for (int i = 0; i < newSentence.size(); i++) {
-                extraPosWord = newSentence.getWord(i);
-                if (extraPosWord.getTag().equals(POS)) {
-                    extraPosWordList.add(extraPosWord);
-                }
+            for (int i : sentence.getAnalysis().getPositions(POS)) {
+                extraPosWordList.add(sentence.getWord(i));
             }
             //randomly choose the extra word from the word
             if (extraPosWordList.size() == 0) {
@@ -118,8 +118,9 @@ public class InsertionPOSError extends InsertionFromFileOrSentenceError {
             }
             Word extraWord = extraPosWordList.get(random.nextInt(extraPosWordList.size()));
             newSentence.insertWord(extraWord, where);
+            newSentence.addEdit(Edit.insertion(where, extraWord));
             setErrorInfo(extraWord.getToken());
-            newSentence.setErrorDescription(errorInfo + "details=\"" + extraWord.getToken() + " from sentence at " + (where + 1) + "\"");
+            setErrorDescription(newSentence, extraWord.getToken() + " from sentence at " + (where + 1));
         }
         return newSentence;
     }
@@ -16,14 +16,14 @@ public class InsertionPOSWhereError extends InsertionPOSError {
     private String POSAfter;
 
 
-    public InsertionPOSWhereError(Sentence inputS, ArrayList anExtraWordList, String aPOS, String aPOSNear, boolean isBefore) {
+    public InsertionPOSWhereError(Sentence inputS, List<String> anExtraWordList, String aPOS, String aPOSNear, boolean isBefore) {
         super(inputS, anExtraWordList, aPOS);
         if (isBefore) {
             POSBefore = aPOSNear;
-            errorInfo = "errortype=\"Insertion" + POSBefore + POS + "Error\"";
+            setErrorType("Insertion" + POSBefore + POS + "Error");
         } else {
             POSAfter = aPOSNear;
-            errorInfo = "errortype=\"Insertion" + POS + POSAfter + "Error\"";
+            setErrorType("Insertion" + POS + POSAfter + "Error");
         }
     }
 
@@ -31,27 +31,27 @@ public class InsertionPOSWhereError extends InsertionPOSError {
         super(inputS, aPOS);
         if (isBefore) {
             POSBefore = aPOSNear;
-            errorInfo = "errortype=\"Insertion" + POSBefore + POS + "Error\"";
+            setErrorType("Insertion" + POSBefore + POS + "Error");
         } else {
             POSAfter = aPOSNear;
-            errorInfo = "errortype=\"Insertion" + POS + POSAfter + "Error\"";
+            setErrorType("Insertion" + POS + POSAfter + "Error");
         }
 
     }
 
 
-    public InsertionPOSWhereError(Sentence inputS, ArrayList anExtraWordList, String aPOSBefore, String aPOS, String aPOSAfter) {
+    public InsertionPOSWhereError(Sentence inputS, List<String> anExtraWordList, String aPOSBefore, String aPOS, String aPOSAfter) {
         super(inputS, anExtraWordList, aPOS);
         POSBefore = aPOSBefore;
         POSAfter = aPOSAfter;
-        errorInfo = "errortype=\"Insertion" + POSBefore + POS + POSAfter + "Error\"";
+        setErrorType("Insertion" + POSBefore + POS + POSAfter + "Error");
     }
 
     public InsertionPOSWhereError(Sentence inputS, String aPOSBefore, String aPOS, String aPOSAfter) {
         super(inputS, aPOS);
         POSBefore = aPOSBefore;
         POSAfter = aPOSAfter;
-        errorInfo = "errortype=\"Insertion" + POSBefore + POS + POSAfter + "Error\"";
+        setErrorType("Insertion" + POSBefore + POS + POSAfter + "Error");
     }
 
     /**
@@ -95,69 +95,36 @@ public class InsertionPOSWhereError extends InsertionPOSError {
         if (!sentence.areTagsIncluded()) {
             throw new CannotCreateErrorException("The input sentence is not tagged. Cannot create an " + errorInfo);
         }
-        List<Integer> listPOSBefore = null;ArrayList<Integer> listPOSAfter = null;
-        List<Integer> listPOSBeforeAfter = null;
+        SentenceAnalysis analysis = sentence.getAnalysis();
+        int[] listPOSBefore = null;int[] listPOSAfter = null;
+        int[] listPOSBeforeAfter = null;
         if (POSAfter == null) {
             //find all words in the input sentence tagged as POSBefore - if there are none, throw an exception
-            listPOSBefore = new ArrayList<Integer>();
-            Word word;
-            for (int i = 0; i < sentence.size(); i++) {
-                word = sentence.getWord(i);
-                if (word.getTag().equals(POSBefore)) {
-                    //add the position of the word to the sentence
-                    listPOSBefore.add(i);
-                }
-            }
-            if (listPOSBefore.size() < 1) {
+            listPOSBefore = analysis.getPositions(POSBefore);
+            if (listPOSBefore.length < 1) {
                 throw new CannotCreateErrorException("There is no word with POS " + POSBefore + " in the sentence. Cannot create an " + errorInfo);
             }
         } else if (POSBefore == null) {
             //find all words in the input sentence tagged as POSAfter - if there are none, throw an exception
-            listPOSAfter = new ArrayList<Integer>();
-            Word word;
-            for (int i = 0; i < sentence.size(); i++) {
-                word = sentence.getWord(i);
-                if (word.getTag().equals(POSAfter)) {
-                    //add the position of the word to the sentence
-                    listPOSAfter.add(i);
-                }
-            }
-            if (listPOSAfter.size() < 1) {
+            listPOSAfter = analysis.getPositions(POSAfter);
+            if (listPOSAfter.length < 1) {
                 throw new CannotCreateErrorException("There is no word with POS " + POSAfter + " in the sentence. Cannot create an " + errorInfo);
             }
         } else {
-            listPOSBeforeAfter = new ArrayList<Integer>();
             if (POSBefore.equalsIgnoreCase("start")) {
-                Word secondWord = sentence.getWord(0);
-
-                if (secondWord.getTag().equals(POSAfter)) {
-                    listPOSBeforeAfter.add(0);
-                }
+                listPOSBeforeAfter = analysis.hasTag(0, POSAfter) ? new int[]{0} : new int[0];
             } else if (POSAfter.equalsIgnoreCase("end")) {
-                Word secondLastWord = sentence.getWord(sentence.size() - 1);
-
-                if (secondLastWord.getTag().equals(POSBefore)) {
-                    listPOSBeforeAfter.add(sentence.size() - 1);
-                }
+                listPOSBeforeAfter = analysis.hasTag(sentence.size() - 1, POSBefore) ? new int[]{sentence.size() - 1} : new int[0];
             } else {
                 //find all word pairs in the input sentence tagged as POSBefore, POSAfter - if there are none, throw an exception
-
-                Word word, nextWord;
-                for (int i = 0; i < sentence.size() - 1; i++) {
-                    word = sentence.getWord(i);
-                    nextWord = sentence.getWord(i + 1);
-                    if (word.getTag().equals(POSBefore) && nextWord.getTag().equals(POSAfter)) {
-                        //add the position of the word to the sentence
-                        listPOSBeforeAfter.add(i);
-                    }
-                }
+                listPOSBeforeAfter = analysis.getBigramPositions(POSBefore, POSAfter);
             }
-            if (listPOSBeforeAfter.size() < 1) {
+            if (listPOSBeforeAfter.length < 1) {
                 throw new CannotCreateErrorException("There is no word pairs with POSs " + POSBefore + "," + POSAfter + " in the sentence. Cannot create an " + errorInfo);
             }
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-        Random random = new Random(newSentence.toString().hashCode());
+        Sentence newSentence = copySentence();
+        Random random = createRandom(newSentence.toString());
 
         if (!isSameSentence) {
             List<String> extraPosWordList = new ArrayList<String>();
@@ -187,29 +154,27 @@ public class InsertionPOSWhereError extends InsertionPOSError {
             //decide where to insert the extra word
             int where = -1;
             if (POSAfter == null) {
-                where = listPOSBefore.get(random.nextInt(listPOSBefore.size())) + 1;
+                where = listPOSBefore[random.nextInt(listPOSBefore.length)] + 1;
             } else if (POSBefore == null) {
-                where = listPOSAfter.get(random.nextInt(listPOSAfter.size()));
+                where = listPOSAfter[random.nextInt(listPOSAfter.length)];
             } else {
                 if (POSBefore.equalsIgnoreCase("start")) {
-                    where = listPOSBeforeAfter.get(random.nextInt(listPOSBeforeAfter.size()));
+                    where = listPOSBeforeAfter[random.nextInt(listPOSBeforeAfter.length)];
                 } else {
-                    where = listPOSBeforeAfter.get(random.nextInt(listPOSBeforeAfter.size()));
+                    where = listPOSBeforeAfter[random.nextInt(listPOSBeforeAfter.length)];
                 }
             }
             String newToken = tokens.nextToken();
             String newTag = tokens.nextToken();
-            newSentence.insertWord(new Word(newToken, newTag), where);
-            newSentence.setErrorDescription(errorInfo + " details=\"" + newToken + " from file at " + (where + 1) + "\"");
+            Word newWord = new Word(newToken, newTag);
+            newSentence.insertWord(newWord, where);
+            newSentence.addEdit(Edit.insertion(where, newWord));
+            setErrorDescription(newSentence, newToken + " from file at " + (where + 1));
         } else {
             List<Word> extraPosWordList = new ArrayList<Word>();
             //find all words tagged as POS in the sentence
-            Word extraPosWord;
-            for (int i = 0; i < newSentence.size(); i++) {
-                extraPosWord = newSentence.getWord(i);
-                if (extraPosWord.getTag().equals(POS)) {
-                    extraPosWordList.add(extraPosWord);
-                }
+            for (int i : analysis.getPositions(POS)) {
+                extraPosWordList.add(newSentence.getWord(i));
             }
             //randomly choose the extra word from the list
             if (extraPosWordList.size() == 0) {
@@ -218,18 +183,19 @@ public class InsertionPOSWhereError extends InsertionPOSError {
             Word extraWord = extraPosWordList.get(random.nextInt(extraPosWordList.size()));
             int where = -1;
             if (POSAfter == null) {
-                where = listPOSBefore.get(random.nextInt(listPOSBefore.size())) + 1;
+                where = listPOSBefore[random.nextInt(listPOSBefore.length)] + 1;
             } else if (POSBefore == null) {
-                where = listPOSAfter.get(random.nextInt(listPOSAfter.size()));
+                where = listPOSAfter[random.nextInt(listPOSAfter.length)];
             } else {
                 if (POSBefore.equalsIgnoreCase("start")) {
-                    where = listPOSBeforeAfter.get(random.nextInt(listPOSBeforeAfter.size()));
+                    where = listPOSBeforeAfter[random.nextInt(listPOSBeforeAfter.length)];
                 } else {
-                    where = listPOSBeforeAfter.get(random.nextInt(listPOSBeforeAfter.size()));
+                    where = listPOSBeforeAfter[random.nextInt(listPOSBeforeAfter.length)];
                 }
             }
             newSentence.insertWord(extraWord, where);
-            newSentence.setErrorDescription(errorInfo + " details=\"" + extraWord.getToken() + " from sentence at " + (where + 1) + "\"");
+            newSentence.addEdit(Edit.insertion(where, extraWord));
+            setErrorDescription(newSentence, extraWord.getToken() + " from sentence at " + (where + 1));
         }
         return newSentence;
     }
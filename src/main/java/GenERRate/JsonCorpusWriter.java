@@ -0,0 +1,91 @@
+package GenERRate;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Class JsonCorpusWriter
+ * <p>
+ * Writes an error corpus as JSON lines, one record per ungrammatical sentence, instead of SGML.
+ * Each record holds the id of the input sentence, the original and corrupted tokens (and tags, if
+ * the output is tagged), the class of the error, the line of the error analysis file which
+ * specified it and the list of edits which turned the original sentence into the corrupted one.
+ * <p>
+ * The grammatical sentences and the blank lines of the complete error corpus are not written,
+ * as every record already contains the original sentence.
+ */
+public class JsonCorpusWriter extends CorpusWriter {
+
+    public JsonCorpusWriter(CorpusOutput output, CorpusOutput log, boolean isOutputTagged) {
+        super(output, log, isOutputTagged);
+    }
+
+    public void writeOriginal(Sentence sentence) throws IOException {
+    }
+
+    public void writeSeparator(Sentence sentence) throws IOException {
+    }
+
+    public boolean writeError(Sentence sentence, Sentence ungrammaticalSentence, Error error, int specLine) throws IOException {
+        if (isDuplicate(sentence, ungrammaticalSentence)) {
+            return false;
+        }
+        countError(error);
+        StringWriter buffer = new StringWriter(64 + 16 * (sentence.size() + ungrammaticalSentence.size()));
+        JsonWriter json = new JsonWriter(buffer);
+        json.beginObject();
+        json.name("id").value(sentence.getId());
+        writeWords(json, "original", sentence.getWords());
+        writeWords(json, "corrupted", ungrammaticalSentence.getWords());
+        json.name("errorClass").value(error.getErrorClass());
+        json.name("specLine").value(specLine);
+        json.name("edits").beginArray();
+        for (Edit edit : ungrammaticalSentence.getEdits()) {
+            writeEdit(json, edit);
+        }
+        json.endArray();
+        json.endObject();
+        json.close();
+        output.println(buffer.toString());
+        return true;
+    }
+
+    /**
+     * Writes the tokens of a sentence and, if the output is tagged, its tags
+     */
+    private void writeWords(JsonWriter json, String name, List<Word> words) throws IOException {
+        json.name(name).beginArray();
+        for (Word word : words) {
+            json.value(word.getToken());
+        }
+        json.endArray();
+        if (isOutputTagged) {
+            json.name(name + "Tags").beginArray();
+            for (Word word : words) {
+                json.value(word.getTag());
+            }
+            json.endArray();
+        }
+    }
+
+    private void writeEdit(JsonWriter json, Edit edit) throws IOException {
+        json.beginObject();
+        json.name("op").value(edit.getOperation());
+        if (edit.getFrom() >= 0) {
+            json.name("from").value(edit.getFrom());
+        }
+        if (edit.getTo() >= 0) {
+            json.name("to").value(edit.getTo());
+        }
+        if (edit.getOldWord() != null) {
+            json.name("old").value(edit.getOldWord().getToken());
+        }
+        if (edit.getNewWord() != null) {
+            json.name("new").value(edit.getNewWord().getToken());
+        }
+        json.endObject();
+    }
+}
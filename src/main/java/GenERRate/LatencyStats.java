@@ -0,0 +1,70 @@
+package GenERRate;
+
+import java.util.Arrays;
+
+/**
+ * Class LatencyStats
+ * <p>
+ * Keeps the most recent latencies in a ring buffer so that percentiles can be reported
+ * without the memory growing with the number of requests.
+ */
+public class LatencyStats {
+    /**
+     * The default number of recent latencies kept
+     */
+    public static final int DEFAULT_WINDOW = 4096;
+
+    private final long[] window;
+
+    /**
+     * The number of latencies recorded since the start
+     */
+    private long count;
+
+    private long max;
+
+    public LatencyStats() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public LatencyStats(int size) {
+        window = new long[size];
+    }
+
+    /**
+     * Records a latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        window[(int) (count % window.length)] = nanos;
+        count++;
+        max = Math.max(max, nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * The largest latency recorded since the start, in nanoseconds
+     */
+    public synchronized long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the latency (in nanoseconds) below which the given percentage of the recent latencies fall,
+     * or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percent) {
+        long[] recent;
+        synchronized (this) {
+            recent = Arrays.copyOf(window, (int) Math.min(count, window.length));
+        }
+        if (recent.length == 0) {
+            return 0;
+        }
+        Arrays.sort(recent);
+        int rank = (int) Math.ceil(percent / 100 * recent.length) - 1;
+        return recent[Math.max(0, Math.min(rank, recent.length - 1))];
+    }
+}
@@ -0,0 +1,266 @@
+package GenERRate;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class Manifest
+ * <p>
+ * Records what a complete error corpus was made from and where each of its lines came from, so
+ * that when the error analysis file changes only the errors described by new or changed lines
+ * have to be inserted again (see GenERRate.updateCompleteErrorCorpus).
+ * <p>
+ * The manifest holds a fingerprint of the input sentences and their markup, a fingerprint of the
+ * rest of the setup (see ResultCache.getEnvironment), the output format, the lines of the error
+ * analysis file and, for each sentence and line, whether the error was inserted (and written to
+ * the error corpus) or not (and written to the log). Together with the order in which the errors
+ * are written, this tells which line of the error corpus or log holds the result of each error.
+ */
+public class Manifest {
+
+    /**
+     * The previous error corpus and log are rewritten with the results of the new and changed lines
+     */
+    public static final String SPLICE = "splice";
+
+    /**
+     * Only the results of the new and changed lines are written, to separate files
+     */
+    public static final String DELTA = "delta";
+
+    private static final String HEADER = "#GenERRate manifest";
+
+    /**
+     * The number of bits in each of the bit sets which hold the inserted errors, as a corpus of
+     * millions of sentences and hundreds of lines has more bits than a single BitSet can index
+     */
+    private static final int BLOCK_BITS = 1 << 30;
+
+    private final long environment;
+
+    private final long input;
+
+    private final int sentences;
+
+    private final String format;
+
+    /**
+     * The lines of the error analysis file
+     */
+    private final List<String> specs;
+
+    /**
+     * Whether the error of each line of the error analysis file was inserted into each sentence, at
+     * bit sentence * specs.size() + spec, split into blocks of BLOCK_BITS bits
+     */
+    private final List<BitSet> inserted;
+
+    public Manifest(long environment, long input, int sentences, String format, List<String> specs) {
+        this(environment, input, sentences, format, specs, new ArrayList<BitSet>());
+    }
+
+    private Manifest(long environment, long input, int sentences, String format, List<String> specs, List<BitSet> inserted) {
+        this.environment = environment;
+        this.input = input;
+        this.sentences = sentences;
+        this.format = format;
+        this.specs = specs;
+        this.inserted = inserted;
+    }
+
+    /**
+     * Returns the fingerprint of the input sentences and their markup
+     */
+    public static long getInputFingerprint(List<Sentence> sentences) {
+        long hash = ErrorUtilities.fingerprint("");
+        for (Sentence sentence : sentences) {
+            hash = ErrorUtilities.fingerprint(hash, sentence.getSentenceSGML());
+            hash = ErrorUtilities.fingerprint(hash, "\t" + sentence.getFingerprint() + "\n");
+        }
+        return hash;
+    }
+
+    /**
+     * Records whether the error described by a line of the error analysis file was inserted into a sentence
+     */
+    public void setInserted(int sentence, int spec, boolean isInserted) {
+        long bit = (long) sentence * specs.size() + spec;
+        int block = (int) (bit / BLOCK_BITS);
+        while (inserted.size() <= block) {
+            inserted.add(new BitSet());
+        }
+        inserted.get(block).set((int) (bit % BLOCK_BITS), isInserted);
+    }
+
+    /**
+     * Was the error described by a line of the error analysis file inserted into a sentence?
+     */
+    public boolean isInserted(int sentence, int spec) {
+        long bit = (long) sentence * specs.size() + spec;
+        int block = (int) (bit / BLOCK_BITS);
+        return block < inserted.size() && inserted.get(block).get((int) (bit % BLOCK_BITS));
+    }
+
+    /**
+     * Returns the reason the error corpus recorded in this manifest cannot be updated for a run with
+     * the given setup, or null if it can be
+     */
+    public String getMismatch(long environment, long input, int sentences, String format) {
+        if (this.environment != environment) {
+            return "the tagset, word list, dictionary or version is different";
+        } else if (this.input != input || this.sentences != sentences) {
+            return "the input sentences are different";
+        } else if (!this.format.equals(format)) {
+            return "the output format is different";
+        }
+        return null;
+    }
+
+    /**
+     * Finds the line of this manifest's error analysis file which is the same as each line of a new
+     * error analysis file. Lines which occur more than once are matched in order.
+     *
+     * @return the index of the matching line for each new line, or -1 for a new or changed line
+     */
+    public int[] match(List<ErrorSpec> newSpecs) {
+        Map<String, LinkedList<Integer>> positions = new HashMap<String, LinkedList<Integer>>();
+        for (int k = 0; k < specs.size(); k++) {
+            LinkedList<Integer> list = positions.get(specs.get(k));
+            if (list == null) {
+                list = new LinkedList<Integer>();
+                positions.put(specs.get(k), list);
+            }
+            list.add(k);
+        }
+        int[] matches = new int[newSpecs.size()];
+        for (int j = 0; j < matches.length; j++) {
+            LinkedList<Integer> list = positions.get(newSpecs.get(j).getText());
+            matches[j] = list == null || list.isEmpty() ? -1 : list.removeFirst();
+        }
+        return matches;
+    }
+
+    /**
+     * Returns a manifest for the same error corpus with more input sentences added, whose errors are
+     * still to be recorded
+     *
+     * @param input     the fingerprint of all the input sentences
+     * @param sentences the number of input sentences
+     */
+    public Manifest extend(long input, int sentences) {
+        return new Manifest(environment, input, sentences, format, specs, inserted);
+    }
+
+    public List<String> getSpecs() {
+        return specs;
+    }
+
+    /**
+     * Reads a manifest, or returns null if the file does not exist
+     */
+    public static Manifest read(String fileName) throws IOException {
+        File file = new File(fileName);
+        if (!file.exists()) {
+            return null;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            if (!HEADER.equals(reader.readLine())) {
+                throw new IOException(fileName + " is not a GenERRate manifest");
+            }
+            Map<String, String> fields = new HashMap<String, String>();
+            String line = reader.readLine();
+            while (line != null && !line.startsWith("specs=")) {
+                int equals = line.indexOf('=');
+                if (equals > 0) {
+                    fields.put(line.substring(0, equals), line.substring(equals + 1));
+                }
+                line = reader.readLine();
+            }
+            if (line == null) {
+                throw new IOException("The manifest " + fileName + " is incomplete");
+            }
+            int count = Integer.parseInt(line.substring(6));
+            List<String> specs = new ArrayList<String>(count);
+            for (int k = 0; k < count; k++) {
+                specs.add(readLine(reader, fileName));
+            }
+            int sentences = Integer.parseInt(fields.get("sentences"));
+            Manifest manifest = new Manifest(Long.parseLong(fields.get("environment")), Long.parseLong(fields.get("input")), sentences,
+                    fields.get("format"), specs);
+            for (int i = 0; i < sentences; i++) {
+                String bits = readLine(reader, fileName);
+                for (int k = 0; k < count; k++) {
+                    if (((Character.digit(bits.charAt(k / 4), 16) >> (k % 4)) & 1) == 1) {
+                        manifest.setInserted(i, k, true);
+                    }
+                }
+            }
+            return manifest;
+        } catch (RuntimeException r) {
+            throw new IOException("The manifest " + fileName + " is damaged: " + r);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static String readLine(BufferedReader reader, String fileName) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            throw new IOException("The manifest " + fileName + " is incomplete");
+        }
+        return line;
+    }
+
+    /**
+     * Writes the manifest. It is written to a temporary file which then replaces the previous
+     * manifest, so an interruption never leaves a partial manifest.
+     */
+    public void write(String fileName) throws IOException {
+        File temp = new File(fileName + ".tmp");
+        PrintWriter writer = new PrintWriter(new FileWriter(temp));
+        try {
+            writer.println(HEADER);
+            writer.println("environment=" + environment);
+            writer.println("input=" + input);
+            writer.println("sentences=" + sentences);
+            writer.println("format=" + format);
+            writer.println("specs=" + specs.size());
+            for (String spec : specs) {
+                writer.println(spec);
+            }
+            //the errors inserted into each sentence, as a hexadecimal number with the first line as the lowest bit of the first digit
+            char[] bits = new char[(specs.size() + 3) / 4];
+            for (int i = 0; i < sentences; i++) {
+                for (int d = 0; d < bits.length; d++) {
+                    int digit = 0;
+                    for (int k = 4 * d; k < Math.min(4 * d + 4, specs.size()); k++) {
+                        if (isInserted(i, k)) {
+                            digit |= 1 << (k % 4);
+                        }
+                    }
+                    bits[d] = Character.forDigit(digit, 16);
+                }
+                writer.println(bits);
+            }
+        } finally {
+            writer.close();
+        }
+        if (writer.checkError()) {
+            throw new IOException("Could not write to " + temp);
+        }
+        Files.move(temp.toPath(), new File(fileName).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -11,7 +11,7 @@ public class MoveError extends Error {
 
     public MoveError(Sentence inputS) {
         super(inputS);
-        errorInfo = "errortype=\"MoveError\"";
+        setErrorType("MoveError");
     }
 
     //for testing purposes
@@ -67,8 +67,8 @@ public class MoveError extends Error {
         if (sentence == null || sentence.size() < 2) {
             throw new CannotCreateErrorException("Either the input sentence is empty or it has only one word. Cannot insert a Move Error");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-        Random random = new Random(newSentence.toString().hashCode());
+        Sentence newSentence = copySentence();
+        Random random = createRandom(newSentence.toString());
         //randomly choose the  word to be moved
         int moveWordPosition = random.nextInt(newSentence.size());
         Word moveWord = newSentence.getWord(moveWordPosition);
@@ -79,7 +79,8 @@ public class MoveError extends Error {
         }
         newSentence.removeWord(moveWordPosition);
         newSentence.insertWord(moveWord, moveWordNewPosition);
-        newSentence.setErrorDescription(errorInfo + " details=\"" + moveWord.getToken() + " from " + (moveWordPosition + 1) + " to " + (moveWordNewPosition + 1) + "\"");
+        newSentence.addEdit(Edit.move(moveWordPosition, moveWordNewPosition, moveWord));
+        setErrorDescription(newSentence, moveWord.getToken() + " from " + (moveWordPosition + 1) + " to " + (moveWordNewPosition + 1));
         return newSentence;
     }
 
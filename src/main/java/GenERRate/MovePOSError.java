@@ -1,7 +1,5 @@
 package GenERRate;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -18,7 +16,7 @@ public class MovePOSError extends MoveError {
     public MovePOSError(Sentence inputS, String thePOS) {
         super(inputS);
         POS = thePOS;
-        errorInfo = "errortype=\"Move" + POS + "Error\"";
+        setErrorType("Move" + POS + "Error");
     }
 
     public static void main(String[] args) {
@@ -118,20 +116,15 @@ public class MovePOSError extends MoveError {
         if (!sentence.areTagsIncluded()) {
             throw new CannotCreateErrorException("The input sentence is not tagged. Cannot create a " + errorInfo + ".");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
         //find all words with the preferred part of speech
-        List<Integer> movePOSList = new ArrayList<Integer>();
-        for (int i = 0; i < newSentence.size(); i++) {
-            if (newSentence.getWord(i).getTag().equals(POS)) {
-                movePOSList.add(i);
-            }
-        }
-        if (movePOSList.size() < 1) {
+        int[] movePOSList = sentence.getAnalysis().getPositions(POS);
+        Sentence newSentence = copySentence();
+        if (movePOSList.length < 1) {
             throw new CannotCreateErrorException("The input sentence does not contain a word tagged as " + POS + " . Cannot create a " + errorInfo + ".");
         }
-        Random random = new Random(newSentence.toString().hashCode());
+        Random random = createRandom(newSentence.toString());
         //randomly choose the word to be moved
-        int moveWordPosition = movePOSList.get(random.nextInt(movePOSList.size()));
+        int moveWordPosition = movePOSList[random.nextInt(movePOSList.length)];
         Word moveWord = newSentence.getWord(moveWordPosition);
 
         //randomly choose where the word is to be moved to
@@ -143,7 +136,8 @@ public class MovePOSError extends MoveError {
         newSentence.removeWord(moveWordPosition);
         //add it again
         newSentence.insertWord(moveWord, moveWordNewPosition);
-        newSentence.setErrorDescription(errorInfo + " details=\"" + moveWord.getToken() + " from " + (moveWordPosition + 1) + " to " + (moveWordNewPosition + 1) + "\"");
+        newSentence.addEdit(Edit.move(moveWordPosition, moveWordNewPosition, moveWord));
+        setErrorDescription(newSentence, moveWord.getToken() + " from " + (moveWordPosition + 1) + " to " + (moveWordNewPosition + 1));
         return newSentence;
     }
 }
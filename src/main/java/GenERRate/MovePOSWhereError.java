@@ -24,7 +24,7 @@ public class MovePOSWhereError extends MovePOSError {
         super(inputS, thePOS);
         isLeft = isLeftVal;
         movePosition = theMovePosition;
-        errorInfo = "errortype=\"Move" + POS + isLeft + movePosition + "Error\"";
+        setErrorType("Move" + POS + isLeft + movePosition + "Error");
     }
 
     public static void main(String[] args) {
@@ -164,19 +164,18 @@ public class MovePOSWhereError extends MovePOSError {
         if (movePosition == 0) {
             throw new CannotCreateErrorException("Cannot create this kind of move error. The move position is zero.");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
         //find all words with the preferred part of speech
         List<Integer> movePOSList = new ArrayList<Integer>();
-        for (int i = 0; i < newSentence.size(); i++) {
-            if ((newSentence.getWord(i).getTag().equals(POS)) &&
-                    ((isLeft && i - movePosition >= 0) || (!isLeft && i + movePosition < newSentence.size()))) {
+        for (int i : sentence.getAnalysis().getPositions(POS)) {
+            if ((isLeft && i - movePosition >= 0) || (!isLeft && i + movePosition < sentence.size())) {
                 movePOSList.add(i);
             }
         }
+        Sentence newSentence = copySentence();
         if (movePOSList.size() < 1) {
             throw new CannotCreateErrorException("The input sentence does not contain a word tagged as " + POS + " in the correct position . Cannot create a " + errorInfo + ".");
         }
-        Random random = new Random(newSentence.toString().hashCode());
+        Random random = createRandom(newSentence.toString());
         //randomly choose the word to be move
         int moveWordPosition = movePOSList.get(random.nextInt(movePOSList.size()));
         Word moveWord = newSentence.getWord(moveWordPosition);
@@ -190,7 +189,8 @@ public class MovePOSWhereError extends MovePOSError {
             moveWordNewPosition = moveWordPosition + movePosition;
         }
         newSentence.insertWord(moveWord, moveWordNewPosition);
-        newSentence.setErrorDescription(errorInfo + " details=\"" + moveWord.getToken() + " from " + (moveWordPosition + 1) + " to " + (moveWordNewPosition + 1) + "\"");
+        newSentence.addEdit(Edit.move(moveWordPosition, moveWordNewPosition, moveWord));
+        setErrorDescription(newSentence, moveWord.getToken() + " from " + (moveWordPosition + 1) + " to " + (moveWordNewPosition + 1));
         return newSentence;
     }
 
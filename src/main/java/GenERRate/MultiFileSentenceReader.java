@@ -0,0 +1,239 @@
+package GenERRate;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Stream;
+
+/**
+ * Class MultiFileSentenceReader
+ * <p>
+ * Reads the sentences of a corpus kept in many files, given as a directory or a glob such as
+ * corpus/*.txt. The files are read and parsed concurrently by a pool of reader threads, so a corpus
+ * of many small files is not limited by the time taken to open and read each one.
+ * <p>
+ * The parsed files are handed over in a bounded channel of at most getCapacity() files, which are
+ * taken in the order of the file names. The sentences therefore come out in the same order as if the
+ * files had been concatenated, and are numbered accordingly, while no more than a fixed number of
+ * files is held in memory.
+ */
+public class MultiFileSentenceReader implements Iterator<Sentence> {
+
+    private final List<File> files;
+
+    /**
+     * Whether the sentences are POS-tagged
+     */
+    private final boolean isTagged;
+
+    /**
+     * Decides which lines are used, or null to use them all
+     */
+    private final SentenceFilter filter;
+
+    private final ExecutorService readers;
+
+    /**
+     * The files which are being read, in order
+     */
+    private final ArrayDeque<Future<List<Sentence>>> channel = new ArrayDeque<Future<List<Sentence>>>();
+
+    private final int capacity;
+
+    private int nextFile;
+
+    private Iterator<Sentence> current = Collections.<Sentence>emptyList().iterator();
+
+    private long count;
+
+    /**
+     * @param files    the files of the corpus, in order
+     * @param isTagged whether the sentences are POS-tagged
+     * @param threads  the number of reader threads
+     */
+    public MultiFileSentenceReader(List<File> files, boolean isTagged, int threads) {
+        this(files, isTagged, threads, null);
+    }
+
+    /**
+     * @param files    the files of the corpus, in order
+     * @param isTagged whether the sentences are POS-tagged
+     * @param threads  the number of reader threads
+     * @param filter   decides which lines are used, or null to use them all
+     */
+    public MultiFileSentenceReader(List<File> files, boolean isTagged, int threads, SentenceFilter filter) {
+        this.files = files;
+        this.isTagged = isTagged;
+        this.filter = filter;
+        this.capacity = 2 * threads;
+        readers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "GenERRate-reader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        fill();
+    }
+
+    /**
+     * Is the input a directory or a glob rather than a single file? An existing file is read as a
+     * single file even if its name has characters which would make it a glob, e.g. corpus[1].txt.
+     */
+    public static boolean isFileSet(String input) {
+        File file = new File(input);
+        return !file.isFile() && (file.isDirectory() || isGlob(input));
+    }
+
+    private static boolean isGlob(String input) {
+        for (char c : "*?[{".toCharArray()) {
+            if (input.indexOf(c) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the directory a glob is relative to (the part of it before the first pattern), or
+     * the input itself if it is a directory
+     */
+    public static String getBaseDirectory(String input) {
+        if (!isGlob(input)) {
+            return input;
+        }
+        int firstPattern = input.length();
+        for (char c : "*?[{".toCharArray()) {
+            if (input.indexOf(c) >= 0) {
+                firstPattern = Math.min(firstPattern, input.indexOf(c));
+            }
+        }
+        int separator = input.lastIndexOf(File.separatorChar, firstPattern);
+        return separator < 0 ? "." : (separator == 0 ? File.separator : input.substring(0, separator));
+    }
+
+    /**
+     * Returns the files in a directory and its subdirectories, or the files matching a glob, sorted by name
+     */
+    public static List<File> listFiles(String input) throws IOException {
+        Path base = Paths.get(getBaseDirectory(input));
+        PathMatcher matcher = null;
+        if (isGlob(input)) {
+            //a glob without a directory is matched against the names relative to the current directory
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + (getBaseDirectory(input).equals(".") && !input.startsWith(".") ? "./" + input : input));
+        }
+        List<String> names = new ArrayList<String>();
+        Stream<Path> paths = Files.walk(base);
+        try {
+            Iterator<Path> iterator = paths.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                if (Files.isRegularFile(path) && (matcher == null || matcher.matches(path))) {
+                    names.add(path.toString());
+                }
+            }
+        } finally {
+            paths.close();
+        }
+        Collections.sort(names);
+        List<File> files = new ArrayList<File>(names.size());
+        for (String name : names) {
+            files.add(new File(name));
+        }
+        return files;
+    }
+
+    /**
+     * Starts reading files until the channel is full
+     */
+    private void fill() {
+        while (channel.size() < capacity && nextFile < files.size()) {
+            final File file = files.get(nextFile++);
+            channel.add(readers.submit(new Callable<List<Sentence>>() {
+                public List<Sentence> call() throws IOException {
+                    List<Sentence> sentences = new ArrayList<Sentence>();
+                    SentenceReader reader = new SentenceReader(new BufferedReader(new FileReader(file)), isTagged, filter);
+                    try {
+                        while (reader.hasNext()) {
+                            sentences.add(reader.next());
+                        }
+                    } finally {
+                        reader.close();
+                    }
+                    return sentences;
+                }
+            }));
+        }
+    }
+
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (channel.isEmpty()) {
+                readers.shutdown();
+                return false;
+            }
+            try {
+                current = channel.poll().get().iterator();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while reading the corpus", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Could not read " + files.get(nextFile - channel.size() - 1) + ": " + e.getCause().getMessage(), e.getCause());
+            }
+            fill();
+        }
+        return true;
+    }
+
+    public Sentence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Sentence sentence = current.next();
+        sentence.setId(count++);
+        return sentence;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The number of sentences read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * The number of files which may be read ahead of the sentence being returned
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Stops the reader threads
+     */
+    public void close() {
+        readers.shutdownNow();
+    }
+}
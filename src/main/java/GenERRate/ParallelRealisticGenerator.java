@@ -0,0 +1,326 @@
+package GenERRate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class ParallelRealisticGenerator
+ * <p>
+ * Creates a realistic error corpus, in which each error type occurs as often as its probability in
+ * the error analysis file says and each sentence is used for at most one error, on several threads.
+ * <p>
+ * The error types are inserted in the order of the error analysis file, as in the sequential corpus.
+ * The shuffled corpus is split into stripes, which are processed by fork/join tasks. The quota of an
+ * error type is divided between the stripes, and each stripe fills its own share from its sentences,
+ * so the counters are striped and never contended. A sentence is claimed in a bitmap shared by all
+ * stripes when an error is inserted into it. A stripe which runs out of sentences hands the rest of
+ * its share back, and the unfilled shares are divided between the other stripes in another round.
+ * The quotas are therefore met exactly unless there are not enough unclaimed sentences for an error
+ * type in the whole corpus. The attempts of a round are written as soon as the round is over, so only
+ * one round is held in memory.
+ * <p>
+ * What a stripe does depends only on its own sentences and shares, so the corpus is the same for a
+ * given seed and number of threads, however the threads are scheduled.
+ */
+public class ParallelRealisticGenerator {
+
+    /**
+     * The number of stripes per thread, so that a thread which finishes early can take over work
+     */
+    public static final int STRIPES_PER_THREAD = 4;
+
+    private final ErrorGenerator generator;
+
+    private final int threads;
+
+    /**
+     * Seeds the shuffle of the corpus and the random choices made when inserting the errors
+     */
+    private final long seed;
+
+    /**
+     * The number of errors of each type inserted by the last call to createRealisticErrorCorpus
+     */
+    private int[] counts;
+
+    /**
+     * The number of errors of each type wanted by the last call to createRealisticErrorCorpus
+     */
+    private int[] quotas;
+
+    public ParallelRealisticGenerator(ErrorGenerator generator, int threads, long seed) {
+        this.generator = generator;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * The number of errors of each type inserted by the last call to createRealisticErrorCorpus
+     */
+    public int[] getCounts() {
+        return counts;
+    }
+
+    /**
+     * The number of errors of each type wanted by the last call to createRealisticErrorCorpus
+     */
+    public int[] getQuotas() {
+        return quotas;
+    }
+
+    /**
+     * Writes the errors of each type, in the order of the error analysis file, and logs the attempts
+     * which failed
+     *
+     * @param size the desired number of sentences in the output corpus
+     */
+    public void createRealisticErrorCorpus(List<Sentence> sentences, int size, CorpusWriter printer) throws IOException {
+        List<ErrorSpec> specs = generator.getSpecs();
+        double[] probabilities = generator.getProbabilities();
+        quotas = new int[specs.size()];
+        for (int j = 0; j < specs.size(); j++) {
+            quotas[j] = (int) Math.round(size * probabilities[j]);
+        }
+
+        int[] order = new int[sentences.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        int stripeCount = Math.max(1, Math.min(threads * STRIPES_PER_THREAD, order.length));
+        Stripe[] stripes = new Stripe[stripeCount];
+        for (int s = 0; s < stripeCount; s++) {
+            stripes[s] = new Stripe(sentences, order, (int) ((long) order.length * s / stripeCount),
+                    (int) ((long) order.length * (s + 1) / stripeCount), specs.size());
+        }
+        Claims claims = new Claims(order.length);
+        counts = new int[specs.size()];
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int j = 0; j < specs.size(); j++) {
+                int deficit = quotas[j];
+                while (share(j, deficit, stripes)) {
+                    pool.invoke(new StripeTask(stripes, 0, stripeCount, j, claims));
+                    deficit = write(j, stripes, claims, printer);
+                    for (Stripe stripe : stripes) {
+                        deficit += stripe.shares[j].getAndSet(0);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Writes the attempts made by the stripes in a round of an error type, in the order of their
+     * positions in the shuffled corpus, and forgets them, so that only one round is held in memory.
+     * An error which the printer leaves out as a duplicate does not count: its sentence is released
+     * for the other error types.
+     *
+     * @return the number of errors left out as duplicates, which still have to be inserted
+     */
+    private int write(int spec, Stripe[] stripes, Claims claims, CorpusWriter printer) throws IOException {
+        int duplicates = 0;
+        //each stripe tries its positions in increasing order, and the stripes are in the order of their positions
+        for (Stripe stripe : stripes) {
+            for (Attempt attempt : stripe.attempts) {
+                ErrorResult result = attempt.result;
+                if (result.isSuccess()) {
+                    printer.startSentence(result.getSentence());
+                    if (printer.writeError(result.getSentence(), result.getUngrammaticalSentence(), result.getError(), result.getSpec().getLineNumber())) {
+                        counts[spec]++;
+                    } else {
+                        claims.release(attempt.position);
+                        duplicates++;
+                    }
+                } else {
+                    printer.writeFailure(result.getSentence(), result.getFailure());
+                }
+            }
+            stripe.attempts.clear();
+        }
+        return duplicates;
+    }
+
+    /**
+     * Divides what is left of the quota of an error type between the stripes which still have
+     * sentences to try for it. Returns false if there is nothing left to divide.
+     */
+    private static boolean share(int spec, int deficit, Stripe[] stripes) {
+        List<Stripe> open = new ArrayList<Stripe>();
+        for (Stripe stripe : stripes) {
+            if (stripe.next[spec] < stripe.end) {
+                open.add(stripe);
+            }
+        }
+        if (deficit == 0 || open.isEmpty()) {
+            return false;
+        }
+        for (int s = 0; s < open.size(); s++) {
+            //the remainder goes to different stripes for different error types
+            int extra = (s - spec % open.size() + open.size()) % open.size() < deficit % open.size() ? 1 : 0;
+            open.get(s).shares[spec].set(deficit / open.size() + extra);
+        }
+        return true;
+    }
+
+    /**
+     * One bit per position in the shuffled corpus, set when an error is inserted into the sentence
+     * at that position. Neighbouring stripes share the words at their borders, so bits are set atomically.
+     */
+    private static class Claims {
+        private final AtomicLongArray bits;
+
+        private Claims(int size) {
+            bits = new AtomicLongArray((size + 63) >>> 6);
+        }
+
+        private boolean isClaimed(int position) {
+            return (bits.get(position >>> 6) & (1L << position)) != 0;
+        }
+
+        /**
+         * Releases a position which was claimed, when its error was not written
+         */
+        private void release(int position) {
+            int word = position >>> 6;
+            long bit = 1L << position;
+            while (true) {
+                long old = bits.get(word);
+                if (bits.compareAndSet(word, old, old & ~bit)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Claims a position, returning false if it was already claimed
+         */
+        private boolean claim(int position) {
+            int word = position >>> 6;
+            long bit = 1L << position;
+            while (true) {
+                long old = bits.get(word);
+                if ((old & bit) != 0) {
+                    return false;
+                }
+                if (bits.compareAndSet(word, old, old | bit)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * A range of positions in the shuffled corpus, with its share of each quota
+     */
+    private class Stripe {
+        private final List<Sentence> sentences;
+        private final int[] order;
+        private final int end;
+        /**
+         * The number of errors of each type still to be inserted by this stripe
+         */
+        private final AtomicInteger[] shares;
+        /**
+         * The next position to try for each error type: the positions before it have been tried or claimed
+         */
+        private final int[] next;
+        /**
+         * The attempts made in the current round, in the order they were made
+         */
+        private final List<Attempt> attempts = new ArrayList<Attempt>();
+
+        private Stripe(List<Sentence> sentences, int[] order, int start, int end, int specCount) {
+            this.sentences = sentences;
+            this.order = order;
+            this.end = end;
+            shares = new AtomicInteger[specCount];
+            next = new int[specCount];
+            for (int j = 0; j < specCount; j++) {
+                shares[j] = new AtomicInteger();
+                next[j] = start;
+            }
+        }
+
+        /**
+         * Inserts errors of a type into the unclaimed sentences of the stripe until its share is filled
+         * or there are no sentences left to try
+         */
+        private void run(int spec, Claims claims) {
+            AtomicInteger share = shares[spec];
+            ErrorSpec errorSpec = generator.getSpecs().get(spec);
+            while (share.get() > 0 && next[spec] < end) {
+                int position = next[spec]++;
+                if (claims.isClaimed(position)) {
+                    continue;
+                }
+                Sentence sentence = sentences.get(order[position]);
+                ErrorResult result = generator.generate(sentence, errorSpec, seed);
+                sentence.releaseAnalysis();
+                if (result.isSuccess()) {
+                    claims.claim(position);
+                    share.decrementAndGet();
+                }
+                attempts.add(new Attempt(position, result));
+            }
+        }
+    }
+
+    /**
+     * Processes a range of stripes, splitting it until each task has a single stripe
+     */
+    private static class StripeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Stripe[] stripes;
+        private final int from;
+        private final int to;
+        private final int spec;
+        private final Claims claims;
+
+        private StripeTask(Stripe[] stripes, int from, int to, int spec, Claims claims) {
+            this.stripes = stripes;
+            this.from = from;
+            this.to = to;
+            this.spec = spec;
+            this.claims = claims;
+        }
+
+        protected void compute() {
+            if (to - from == 1) {
+                stripes[from].run(spec, claims);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StripeTask(stripes, from, middle, spec, claims), new StripeTask(stripes, middle, to, spec, claims));
+            }
+        }
+    }
+
+    /**
+     * An attempt to insert an error into the sentence at a position of the shuffled corpus
+     */
+    private static class Attempt {
+        private final int position;
+        private final ErrorResult result;
+
+        private Attempt(int position, ErrorResult result) {
+            this.position = position;
+            this.result = result;
+        }
+    }
+}
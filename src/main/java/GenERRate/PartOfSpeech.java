@@ -1,92 +1,243 @@
 package GenERRate;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+
+/**
+ * Class PartOfSpeech
+ * <p>
+ * The tags of a POS tagset which the errors need to know about. When the tagset is created, each
+ * distinct tag is given a small integer id, so that errors can compare tags with integer comparisons.
+ * Tags which are not in the tagset have the id -1.
+ * <p>
+ * WSJ and CLAWS are built in. Other tagsets are read from a definition file with one role and its
+ * tag per line, separated by white space, for example "SINGULAR_NOUN NN1". Every role in ROLES must
+ * be given a tag, several roles may share a tag, and lines starting with # are comments.
+ */
 class PartOfSpeech {
-    public String SINGULAR_NOUN;
-    public String PLURAL_NOUN;
-    public String VERB_THIRD_SING;
-    public String VERB_NON_THIRD_SING;
-    public String VERB_PRES_PART;
-    public String VERB_PAST_PART;
-    public String VERB_PAST;
-    public String VERB_BASE;
-    public String ADJ;
-    public String ADJ_COMP;
-    public String ADJ_SUP;
-    public String ADV;
-    public String VERB_PARTICLE;
-    public String PREP;
-    public String INF;
+    /**
+     * The roles a tag can have, in the order of the fields below
+     */
+    public static final String[] ROLES = {"SINGULAR_NOUN", "PLURAL_NOUN", "VERB_THIRD_SING", "VERB_NON_THIRD_SING",
+            "VERB_PRES_PART", "VERB_PAST_PART", "VERB_PAST", "VERB_BASE", "ADJ", "ADJ_COMP", "ADJ_SUP", "ADV",
+            "VERB_PARTICLE", "PREP", "INF"};
+
+    private static final String[] WSJ_TAGS = {"NN", "NNS", "VBZ", "VBP", "VBG", "VBN", "VBD", "VB", "JJ", "JJR", "JJS", "RB",
+            "RP", "IN", "TO"};
+
+    private static final String[] CLAWS_TAGS = {"NN1", "NN2", "VVZ", "VV0", "VVG", "VVN", "VVD", "VV0", "JJ", "JJR", "JJT", "RR",
+            "RP", "II", "TO"};
+
+    public final String SINGULAR_NOUN;
+    public final String PLURAL_NOUN;
+    public final String VERB_THIRD_SING;
+    public final String VERB_NON_THIRD_SING;
+    public final String VERB_PRES_PART;
+    public final String VERB_PAST_PART;
+    public final String VERB_PAST;
+    public final String VERB_BASE;
+    public final String ADJ;
+    public final String ADJ_COMP;
+    public final String ADJ_SUP;
+    public final String ADV;
+    public final String VERB_PARTICLE;
+    public final String PREP;
+    public final String INF;
+
+    /**
+     * The ids of the tags above (tags shared by several roles have the same id)
+     */
+    public final int SINGULAR_NOUN_ID;
+    public final int PLURAL_NOUN_ID;
+    public final int VERB_THIRD_SING_ID;
+    public final int VERB_NON_THIRD_SING_ID;
+    public final int VERB_PRES_PART_ID;
+    public final int VERB_PAST_PART_ID;
+    public final int VERB_PAST_ID;
+    public final int VERB_BASE_ID;
+    public final int ADJ_ID;
+    public final int ADJ_COMP_ID;
+    public final int ADJ_SUP_ID;
+    public final int ADV_ID;
+    public final int VERB_PARTICLE_ID;
+    public final int PREP_ID;
+    public final int INF_ID;
+
+    /**
+     * The tags, indexed by their ids
+     */
+    private final String[] tags;
+
+    /**
+     * The id of the tag of each role, indexed by the position of the role in ROLES
+     */
+    private final int[] roleIds;
+
+    /**
+     * The id of each tag
+     */
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
 
     public PartOfSpeech() {
-        SINGULAR_NOUN = "NN";
-        PLURAL_NOUN = "NNS";
-        VERB_THIRD_SING = "VBZ";
-        VERB_NON_THIRD_SING = "VBP";
-        VERB_PRES_PART = "VBG";
-        VERB_PAST_PART = "VBN";
-        VERB_PAST = "VBD";
-        VERB_BASE = "VB";
-        ADJ = "JJ";
-        ADJ_COMP = "JJR";
-        ADJ_SUP = "JJS";
-        ADV = "RB";
-        VERB_PARTICLE = "RP";
-        PREP = "IN";
-        INF = "TO";
+        this(WSJ_TAGS);
     }
 
+    /**
+     * @param tagset WSJ or CLAWS, or the name of a tagset definition file
+     * @throws IllegalArgumentException if the tagset is neither built in nor an existing file, or if the
+     *                                  definition file cannot be read or is not valid
+     */
     public PartOfSpeech(String tagset) {
+        this(getRoleTags(tagset));
+    }
+
+    /**
+     * @param roleTags the tag of each role, in the order of ROLES
+     */
+    private PartOfSpeech(String[] roleTags) {
+        SINGULAR_NOUN = roleTags[0];
+        PLURAL_NOUN = roleTags[1];
+        VERB_THIRD_SING = roleTags[2];
+        VERB_NON_THIRD_SING = roleTags[3];
+        VERB_PRES_PART = roleTags[4];
+        VERB_PAST_PART = roleTags[5];
+        VERB_PAST = roleTags[6];
+        VERB_BASE = roleTags[7];
+        ADJ = roleTags[8];
+        ADJ_COMP = roleTags[9];
+        ADJ_SUP = roleTags[10];
+        ADV = roleTags[11];
+        VERB_PARTICLE = roleTags[12];
+        PREP = roleTags[13];
+        INF = roleTags[14];
+
+        String[] distinctTags = new String[roleTags.length];
+        roleIds = new int[roleTags.length];
+        for (int role = 0; role < roleTags.length; role++) {
+            Integer id = ids.get(roleTags[role]);
+            if (id == null) {
+                id = ids.size();
+                distinctTags[id] = roleTags[role];
+                ids.put(roleTags[role], id);
+            }
+            roleIds[role] = id;
+        }
+        tags = new String[ids.size()];
+        System.arraycopy(distinctTags, 0, tags, 0, tags.length);
+
+        SINGULAR_NOUN_ID = roleIds[0];
+        PLURAL_NOUN_ID = roleIds[1];
+        VERB_THIRD_SING_ID = roleIds[2];
+        VERB_NON_THIRD_SING_ID = roleIds[3];
+        VERB_PRES_PART_ID = roleIds[4];
+        VERB_PAST_PART_ID = roleIds[5];
+        VERB_PAST_ID = roleIds[6];
+        VERB_BASE_ID = roleIds[7];
+        ADJ_ID = roleIds[8];
+        ADJ_COMP_ID = roleIds[9];
+        ADJ_SUP_ID = roleIds[10];
+        ADV_ID = roleIds[11];
+        VERB_PARTICLE_ID = roleIds[12];
+        PREP_ID = roleIds[13];
+        INF_ID = roleIds[14];
+    }
+
+    /**
+     * Returns the tag of each role of a built-in tagset or a tagset definition file
+     */
+    private static String[] getRoleTags(String tagset) {
         if (tagset.equalsIgnoreCase("CLAWS")) {
-            SINGULAR_NOUN = "NN1";
-            PLURAL_NOUN = "NN2";
-            VERB_THIRD_SING = "VVZ";
-            VERB_NON_THIRD_SING = "VV0";
-            VERB_PRES_PART = "VVG";
-            VERB_PAST_PART = "VVN";
-            VERB_PAST = "VVD";
-            VERB_BASE = "VV0";
-            ADJ = "JJ";
-            ADJ_COMP = "JJR";
-            ADJ_SUP = "JJT";
-            ADV = "RR";
-            VERB_PARTICLE = "RP";
-            PREP = "II";
-            INF = "TO";
+            return CLAWS_TAGS;
         } else if (tagset.equalsIgnoreCase("WSJ")) {
-            SINGULAR_NOUN = "NN";
-            PLURAL_NOUN = "NNS";
-            VERB_THIRD_SING = "VBZ";
-            VERB_NON_THIRD_SING = "VBP";
-            VERB_PRES_PART = "VBG";
-            VERB_PAST_PART = "VBN";
-            VERB_PAST = "VBD";
-            VERB_BASE = "VB";
-            ADJ = "JJ";
-            ADJ_COMP = "JJR";
-            ADJ_SUP = "JJS";
-            ADV = "RB";
-            VERB_PARTICLE = "RP";
-            PREP = "IN";
-            INF = "TO";
+            return WSJ_TAGS;
+        } else if (new File(tagset).isFile()) {
+            try {
+                return readRoleTags(tagset);
+            } catch (IOException io) {
+                throw new IllegalArgumentException("Cannot read the tagset definition file " + tagset + ": " + io.getMessage());
+            }
+        }
+        //a mistyped name or path must not quietly give the wrong tags
+        throw new IllegalArgumentException("Unknown tagset " + tagset + ": give WSJ, CLAWS or an existing tagset definition file");
+    }
+
+    /**
+     * Reads the tag of each role from a tagset definition file
+     */
+    private static String[] readRoleTags(String fileName) throws IOException {
+        Map<String, Integer> roles = new HashMap<String, Integer>();
+        for (int role = 0; role < ROLES.length; role++) {
+            roles.put(ROLES[role], role);
         }
-        //no other tagset supported at the moment - defaulting to WSJ
-        else {
-            SINGULAR_NOUN = "NN";
-            PLURAL_NOUN = "NNS";
-            VERB_THIRD_SING = "VBZ";
-            VERB_NON_THIRD_SING = "VBP";
-            VERB_PRES_PART = "VBG";
-            VERB_PAST_PART = "VBN";
-            VERB_PAST = "VBD";
-            VERB_BASE = "VB";
-            ADJ = "JJ";
-            ADJ_COMP = "JJR";
-            ADJ_SUP = "JJS";
-            ADV = "RB";
-            VERB_PARTICLE = "RP";
-            PREP = "IN";
-            INF = "TO";
+        String[] roleTags = new String[ROLES.length];
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) {
+                    continue;
+                }
+                StringTokenizer tokens = new StringTokenizer(line);
+                Integer role = roles.get(tokens.nextToken().toUpperCase());
+                if (role == null || tokens.countTokens() != 1) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " of the tagset definition file " + fileName
+                            + " is not a role followed by its tag: " + line);
+                }
+                if (roleTags[role] != null) {
+                    throw new IllegalArgumentException("The role " + ROLES[role] + " is given twice in the tagset definition file " + fileName);
+                }
+                roleTags[role] = tokens.nextToken();
+            }
+        } finally {
+            reader.close();
         }
+        for (int role = 0; role < ROLES.length; role++) {
+            if (roleTags[role] == null) {
+                throw new IllegalArgumentException("The tagset definition file " + fileName + " does not give a tag for the role " + ROLES[role]);
+            }
+        }
+        return roleTags;
+    }
+
+    /**
+     * Returns the id of a tag, or -1 if the tag is not in the tagset
+     */
+    public int getId(String tag) {
+        Integer id = tag == null ? null : ids.get(tag);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the tag with the given id
+     */
+    public String getTag(int id) {
+        return tags[id];
+    }
+
+    /**
+     * Returns the tag of a role (one of ROLES), or null if there is no such role
+     */
+    public String getRoleTag(String role) {
+        for (int i = 0; i < ROLES.length; i++) {
+            if (ROLES[i].equals(role)) {
+                return tags[roleIds[i]];
+            }
+        }
+        return null;
+    }
 
+    /**
+     * Returns the number of distinct tags in the tagset
+     */
+    public int size() {
+        return tags.length;
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package GenERRate;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class ProgressReporter
+ * <p>
+ * Reports the progress of a long run at regular intervals, on standard error and in a status file:
+ * how much of the work is done, the sentences, errors and failures written so far, the throughput
+ * over the last minute and the last five minutes, the fill of the quota of each error type in a
+ * realistic error corpus, and the estimated time left.
+ * <p>
+ * The reports are made by a separate thread, which only reads counters kept by the CorpusWriter
+ * and by this object, so the thread creating the corpus does no more than increment a counter.
+ */
+public class ProgressReporter {
+
+    /**
+     * The windows over which the throughput is reported, in seconds
+     */
+    private static final int[] WINDOWS = {60, 300};
+
+    private final CorpusWriter writer;
+
+    /**
+     * The amount of work to be done, in sentences or errors (see isCountingErrors)
+     */
+    private final long total;
+
+    /**
+     * Is the work measured in errors written (realistic error corpus) rather than input sentences?
+     */
+    private final boolean isCountingErrors;
+
+    private final String statusFile;
+
+    private final long interval;
+
+    /**
+     * The quota and the number of errors written, for each error type
+     */
+    private final AtomicLongArray quotas;
+    private final AtomicLongArray filled;
+
+    private final long startTime = System.nanoTime();
+
+    /**
+     * The amount of work done at each report, oldest first, going back as far as the largest window
+     */
+    private final ArrayDeque<long[]> samples = new ArrayDeque<long[]>();
+
+    private Thread reporter;
+
+    /**
+     * @param writer           the writer of the corpus, whose counts are reported
+     * @param total            the amount of work to be done
+     * @param isCountingErrors whether the work is measured in errors written rather than in input sentences
+     * @param specs            the number of error types whose quota fill is reported, or 0
+     * @param statusFile       the file the latest report is written to, or null
+     * @param seconds          the number of seconds between reports
+     */
+    public ProgressReporter(CorpusWriter writer, long total, boolean isCountingErrors, int specs, String statusFile, int seconds) {
+        this.writer = writer;
+        this.total = total;
+        this.isCountingErrors = isCountingErrors;
+        this.statusFile = statusFile;
+        this.interval = seconds * 1000L;
+        quotas = new AtomicLongArray(specs);
+        filled = new AtomicLongArray(specs);
+    }
+
+    /**
+     * Starts reporting on a background thread
+     */
+    public void start() {
+        reporter = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (true) {
+                        Thread.sleep(interval);
+                        report();
+                    }
+                } catch (InterruptedException e) {
+                    //stopped
+                }
+            }
+        }, "GenERRate-progress");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    /**
+     * Stops reporting and makes a last report
+     */
+    public void stop() {
+        if (reporter != null) {
+            reporter.interrupt();
+            try {
+                reporter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reporter = null;
+            report();
+        }
+    }
+
+    /**
+     * Sets the number of errors of a type wanted in a realistic error corpus
+     */
+    public void setQuota(int spec, long quota) {
+        quotas.lazySet(spec, quota);
+    }
+
+    /**
+     * Records that an error of a type has been written
+     */
+    public void fill(int spec) {
+        filled.lazySet(spec, filled.get(spec) + 1);
+    }
+
+    /**
+     * Returns the amount of work done so far
+     */
+    public long getDone() {
+        return isCountingErrors ? writer.getErrorCount() : writer.getSentenceCount();
+    }
+
+    /**
+     * Returns the work done per second over the last given number of seconds, or over the whole run
+     * if it has not lasted that long
+     */
+    private double getRate(long now, long done, int seconds) {
+        long[] from = samples.peekFirst();
+        for (long[] sample : samples) {
+            if (now - sample[0] <= seconds * 1000000000L) {
+                break;
+            }
+            from = sample;
+        }
+        if (from == null || from[0] == now) {
+            return 0;
+        }
+        return (done - from[1]) * 1e9 / (now - from[0]);
+    }
+
+    /**
+     * Writes a report to standard error and to the status file
+     */
+    synchronized void report() {
+        long now = System.nanoTime();
+        //each count is read once, so that the report is consistent
+        long sentences = writer.getSentenceCount();
+        long errors = writer.getErrorCount();
+        long failures = writer.getFailureCount();
+        long done = isCountingErrors ? errors : sentences;
+        if (samples.isEmpty()) {
+            samples.add(new long[]{startTime, 0});
+        }
+        samples.add(new long[]{now, done});
+        //keep one sample older than the largest window, so the window is covered
+        Iterator<long[]> oldest = samples.iterator();
+        oldest.next();
+        while (samples.size() > 2 && now - oldest.next()[0] > WINDOWS[WINDOWS.length - 1] * 1000000000L) {
+            samples.removeFirst();
+            oldest = samples.iterator();
+            oldest.next();
+        }
+
+        Properties status = new Properties();
+        long elapsed = (now - startTime) / 1000000000L;
+        status.setProperty("elapsedSeconds", String.valueOf(elapsed));
+        status.setProperty("done", String.valueOf(done));
+        status.setProperty("total", String.valueOf(total));
+        status.setProperty("sentences", String.valueOf(sentences));
+        status.setProperty("errors", String.valueOf(errors));
+        status.setProperty("failures", String.valueOf(failures));
+        StringBuilder line = new StringBuilder("progress: ");
+        line.append(done).append('/').append(total);
+        if (total > 0) {
+            line.append(String.format(" (%.1f%%)", 100.0 * done / total));
+        }
+        line.append(", ").append(sentences).append(" sentences, ").append(errors).append(" errors, ").append(failures).append(" failures");
+        double rate = 0;
+        for (int window : WINDOWS) {
+            double windowRate = getRate(now, done, window);
+            if (rate == 0) {
+                rate = windowRate;
+            }
+            status.setProperty("rate." + window + "s", String.format("%.1f", windowRate));
+            line.append(String.format(", %.0f/s (%dm)", windowRate, window / 60));
+        }
+        if (rate > 0 && total > done) {
+            long eta = Math.round((total - done) / rate);
+            status.setProperty("etaSeconds", String.valueOf(eta));
+            line.append(String.format(", ETA %d:%02d:%02d", eta / 3600, eta / 60 % 60, eta % 60));
+        }
+        for (int j = 0; j < quotas.length(); j++) {
+            if (quotas.get(j) > 0) {
+                status.setProperty("spec." + (j + 1), filled.get(j) + "/" + quotas.get(j));
+            }
+        }
+        System.err.println(line);
+        if (statusFile != null) {
+            try {
+                writeStatus(status);
+            } catch (IOException io) {
+                System.err.println("Cannot write the status file " + statusFile + ": " + io.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Replaces the status file, so that a reader never sees a partly written status
+     */
+    private void writeStatus(Properties status) throws IOException {
+        String temporaryFile = statusFile + ".tmp";
+        OutputStream out = new FileOutputStream(temporaryFile);
+        try {
+            status.store(out, "GenERRate progress");
+        } finally {
+            out.close();
+        }
+        Files.move(Paths.get(temporaryFile), Paths.get(statusFile), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,387 @@
+package GenERRate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class ResultCache
+ * <p>
+ * Keeps the results of inserting errors into sentences in a file from one run to the next, so that
+ * a run over a corpus which has already been processed with a slightly different error analysis
+ * file only inserts the errors described by the new lines. As the random choices made when
+ * inserting an error depend only on the sentence, the error specification and the seed, a result
+ * can be used again as long as those and the rest of the setup are the same.
+ * <p>
+ * A result is found by a 64-bit key made from the fingerprint of the sentence, the error
+ * specification (with its fields separated by single tabs), the seed and the environment: the
+ * version of the error classes (ENGINE_VERSION), whether the input is tagged, the tagset, the extra
+ * word list, the dictionary and whether errors which change nothing are rejected. Either the
+ * ungrammatical sentence (its words, error description, edits and error type) or the reason the
+ * error could not be inserted is kept.
+ * <p>
+ * The file holds one result per line, the least recently used first. It is read when the cache is
+ * opened and replaced when it is closed. When the results take more than the given number of bytes
+ * the least recently used are evicted, so the memory used and the size of the file are bounded.
+ */
+public class ResultCache {
+
+    /**
+     * The version of the error classes. Changing the way an error is inserted must change this, so
+     * that results cached by an earlier version are not used.
+     */
+    public static final String ENGINE_VERSION = "1";
+
+    private final String fileName;
+
+    private final long maxBytes;
+
+    /**
+     * The fingerprint of everything other than the sentence, the specification and the seed which
+     * the results depend on
+     */
+    private final long environment;
+
+    /**
+     * The cached results as JSON, by key, the least recently used first
+     */
+    private final LinkedHashMap<Long, String> entries = new LinkedHashMap<Long, String>(1024, 0.75f, true);
+
+    /**
+     * The approximate number of bytes the entries take in the file
+     */
+    private long bytes;
+
+    private long hits;
+    private long misses;
+    private long stored;
+    private long evicted;
+
+    /**
+     * Whether the file has to be written again when the cache is closed
+     */
+    private boolean isChanged;
+
+    /**
+     * Opens a cache, reading the results cached by earlier runs if the file exists
+     *
+     * @param fileName    the file the results are kept in
+     * @param maxBytes    the size the file is kept under
+     * @param environment the fingerprint of the setup of the run (see getEnvironment)
+     */
+    public ResultCache(String fileName, long maxBytes, long environment) throws IOException {
+        this.fileName = fileName;
+        this.maxBytes = maxBytes;
+        this.environment = environment;
+        File file = new File(fileName);
+        if (file.exists()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+            try {
+                String line = reader.readLine();
+                while (line != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab > 0) {
+                        try {
+                            add(Long.parseUnsignedLong(line.substring(0, tab), 16), line.substring(tab + 1));
+                        } catch (NumberFormatException n) {
+                            //a damaged line is left out
+                        }
+                    }
+                    line = reader.readLine();
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the setup of a run which the results depend on, besides the
+     * sentence, the specification and the seed
+     */
+    public static long getEnvironment(boolean isTagged, PartOfSpeech tagSet, List<String> extraWords, Set<String> dictionary,
+                                      boolean isRejectingNoOps) {
+        long hash = ErrorUtilities.fingerprint(ENGINE_VERSION + "\t" + isTagged + "\t" + isRejectingNoOps);
+        for (String role : PartOfSpeech.ROLES) {
+            hash = ErrorUtilities.fingerprint(hash, "\t" + tagSet.getRoleTag(role));
+        }
+        if (extraWords != null) {
+            for (String word : extraWords) {
+                hash = ErrorUtilities.fingerprint(hash, "\n" + word);
+            }
+        }
+        //the order of a set is not fixed, so the fingerprints of the words are added up
+        long words = 0;
+        if (dictionary != null) {
+            for (String word : dictionary) {
+                words += ErrorUtilities.fingerprint(word);
+            }
+        }
+        return ErrorUtilities.fingerprint(hash, "\t" + words);
+    }
+
+    /**
+     * Returns the part of the key given by an error specification and the seed, which is the same
+     * for every sentence
+     */
+    public long getSpecKey(ErrorSpec spec, long seed) {
+        StringBuilder normalized = new StringBuilder(spec.getText().length());
+        for (String field : spec.getFields()) {
+            if (normalized.length() > 0) {
+                normalized.append('\t');
+            }
+            normalized.append(field);
+        }
+        //the type of an error is read from the start of the line, so a line starting with a tab is kept as it is
+        String text = spec.getFields().isEmpty() || !spec.getText().startsWith(spec.getFields().get(0)) ? spec.getText() : normalized.toString();
+        return ErrorUtilities.fingerprint(environment, "\t" + seed + "\t" + text);
+    }
+
+    /**
+     * Returns the key of the result of inserting an error into a sentence
+     *
+     * @param specKey the key of the specification and seed (see getSpecKey)
+     */
+    public static long getKey(Sentence sentence, long specKey) {
+        return ErrorUtilities.fingerprint(specKey, "\t" + sentence.getFingerprint());
+    }
+
+    /**
+     * Returns the cached result of inserting the error described by a specification into a
+     * sentence, or null if there is none
+     *
+     * @param specKey the key of the specification and seed (see getSpecKey)
+     */
+    public ErrorResult get(Sentence sentence, ErrorSpec spec, long specKey) {
+        String json = entries.get(getKey(sentence, specKey));
+        if (json != null) {
+            try {
+                ErrorResult result = decode(sentence, spec, json);
+                hits++;
+                isChanged = true;
+                return result;
+            } catch (RuntimeException r) {
+                //a damaged entry is treated as missing and replaced by the new result
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches the result of inserting an error into a sentence
+     *
+     * @param specKey the key of the specification and seed (see getSpecKey)
+     */
+    public void put(Sentence sentence, long specKey, ErrorResult result) throws IOException {
+        add(getKey(sentence, specKey), encode(result));
+        stored++;
+        isChanged = true;
+    }
+
+    /**
+     * Adds an entry, evicting the least recently used entries if the cache is full
+     */
+    private void add(long key, String json) {
+        String previous = entries.put(key, json);
+        if (previous != null) {
+            bytes -= getSize(previous);
+        }
+        bytes += getSize(json);
+        Iterator<String> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= getSize(eldest.next());
+            eldest.remove();
+            evicted++;
+            isChanged = true;
+        }
+    }
+
+    /**
+     * The approximate size of an entry in the file: the JSON, the key and the separators
+     */
+    private static long getSize(String json) {
+        return json.length() + 18;
+    }
+
+    /**
+     * Writes a result as JSON
+     */
+    private static String encode(ErrorResult result) throws IOException {
+        StringWriter buffer = new StringWriter();
+        JsonWriter json = new JsonWriter(buffer);
+        json.beginObject();
+        if (result.isSuccess()) {
+            Sentence ungrammaticalSentence = result.getUngrammaticalSentence();
+            json.name("class").value(result.getError().getErrorClass());
+            json.name("type").value(result.getError().toString());
+            json.name("description").value(ungrammaticalSentence.getErrorDescription());
+            json.name("words").beginArray();
+            for (Word word : ungrammaticalSentence.getWords()) {
+                writeWord(json, word);
+            }
+            json.endArray();
+            json.name("edits").beginArray();
+            for (Edit edit : ungrammaticalSentence.getEdits()) {
+                json.beginArray();
+                json.value(edit.getOperation());
+                json.value(edit.getFrom());
+                json.value(edit.getTo());
+                writeWord(json, edit.getOldWord());
+                writeWord(json, edit.getNewWord());
+                json.endArray();
+            }
+            json.endArray();
+        } else {
+            json.name("failure").value(result.getFailure());
+        }
+        json.endObject();
+        json.close();
+        return buffer.toString();
+    }
+
+    private static void writeWord(JsonWriter json, Word word) throws IOException {
+        if (word == null) {
+            json.nullValue();
+        } else {
+            json.beginArray();
+            json.value(word.getToken());
+            json.value(word.getTag());
+            json.endArray();
+        }
+    }
+
+    /**
+     * Reads a result written by encode
+     */
+    private static ErrorResult decode(Sentence sentence, ErrorSpec spec, String text) {
+        JsonObject json = new JsonParser().parse(text).getAsJsonObject();
+        if (json.has("failure")) {
+            return new ErrorResult(sentence, spec, null, null, json.get("failure").getAsString());
+        }
+        Sentence ungrammaticalSentence = new Sentence(sentence);
+        List<Word> words = new ArrayList<Word>();
+        for (JsonElement word : json.getAsJsonArray("words")) {
+            words.add(readWord(word));
+        }
+        ungrammaticalSentence.setWords(words);
+        JsonElement description = json.get("description");
+        ungrammaticalSentence.setErrorDescription(description.isJsonNull() ? null : description.getAsString());
+        for (JsonElement element : json.getAsJsonArray("edits")) {
+            JsonArray edit = element.getAsJsonArray();
+            String operation = edit.get(0).getAsString();
+            int from = edit.get(1).getAsInt();
+            int to = edit.get(2).getAsInt();
+            if (operation.equals(Edit.DELETE)) {
+                ungrammaticalSentence.addEdit(Edit.deletion(from, readWord(edit.get(3))));
+            } else if (operation.equals(Edit.INSERT)) {
+                ungrammaticalSentence.addEdit(Edit.insertion(to, readWord(edit.get(4))));
+            } else if (operation.equals(Edit.MOVE)) {
+                ungrammaticalSentence.addEdit(Edit.move(from, to, readWord(edit.get(3))));
+            } else if (operation.equals(Edit.SUBST)) {
+                ungrammaticalSentence.addEdit(Edit.substitution(from, readWord(edit.get(3)), readWord(edit.get(4))));
+            } else {
+                throw new JsonParseException("Unknown edit " + operation);
+            }
+        }
+        Error error = new CachedError(sentence, json.get("class").getAsString(), json.get("type").getAsString());
+        return new ErrorResult(sentence, spec, error, ungrammaticalSentence, null);
+    }
+
+    private static Word readWord(JsonElement element) {
+        if (element.isJsonNull()) {
+            return null;
+        }
+        JsonArray word = element.getAsJsonArray();
+        return new Word(word.get(0).getAsString(), word.get(1).isJsonNull() ? null : word.get(1).getAsString());
+    }
+
+    /**
+     * Writes the cache back to its file if anything has changed. The file is written to a
+     * temporary file which then replaces it, so an interruption never leaves a partial cache.
+     */
+    public void close() throws IOException {
+        if (!isChanged) {
+            return;
+        }
+        File file = new File(fileName);
+        File temp = new File(fileName + ".tmp");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temp), "UTF-8"));
+        try {
+            for (Map.Entry<Long, String> entry : entries.entrySet()) {
+                writer.write(Long.toHexString(entry.getKey()));
+                writer.write('\t');
+                writer.write(entry.getValue());
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the hits, misses and hit ratio of the run, and the size of the cache
+     */
+    public String getReport() {
+        long lookups = hits + misses;
+        return "Result cache: " + hits + " hits, " + misses + " misses (" + String.format("%.1f", lookups == 0 ? 0.0 : 100.0 * hits / lookups)
+                + "% hit ratio), " + stored + " results stored, " + evicted + " evicted, " + entries.size() + " results (" + bytes + " bytes) kept";
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stands for an error whose result was read from the cache, with the class and type of the
+     * error which was inserted
+     */
+    static class CachedError extends Error {
+        private final String errorClass;
+
+        CachedError(Sentence sentence, String errorClass, String errorInfo) {
+            super(sentence);
+            this.errorClass = errorClass;
+            this.errorInfo = errorInfo;
+        }
+
+        public String getErrorClass() {
+            return errorClass;
+        }
+    }
+}
@@ -25,13 +25,37 @@ public class Sentence {
      */
     private String errorDescription;
 
+    /**
+     * If the sentence is ungrammatical, the changes which were made to the original sentence
+     */
+    private final List<Edit> edits = new ArrayList<Edit>();
+
     /**
      * The SGML mark-up surrounding an input sentence
      */
     private String sentenceSGML = "<s ";
 
+    /**
+     * The position of the sentence in the input corpus, or -1 if it was not read from a corpus
+     */
+    private long id = -1;
+
+    /**
+     * A 64-bit hash of the text the sentence was made from (see getFingerprint)
+     */
+    private long fingerprint;
+
+    private boolean isFingerprinted;
+
+    /**
+     * What the errors look up in the sentence, worked out when it is first needed and forgotten
+     * when a word is changed
+     */
+    private SentenceAnalysis analysis;
 
     public Sentence(String sentence, boolean isTagged) {
+        fingerprint = ErrorUtilities.fingerprint(sentence);
+        isFingerprinted = true;
         if (isTagged) {
             //tokenise the sentence and place each token/tag into the vector of words
             StringTokenizer tokens = new StringTokenizer(sentence, " ");
@@ -39,7 +63,7 @@ public class Sentence {
             String tag;
             String word;
             if (tokens.countTokens() % 2 == 1) {
-                System.out.println("Problem creating sentence: \t" + sentence + " uneven number of tags and tokens");
+                System.err.println("Problem creating sentence: \t" + sentence + " uneven number of tags and tokens");
             }
             while (tokens.hasMoreTokens()) {
                 word = tokens.nextToken();
@@ -61,12 +85,23 @@ public class Sentence {
         this.isTagged = isTagged;
     }
 
+    /**
+     * Copy the words of a sentence, without tokenising it again. The words themselves are shared,
+     * as they are never changed, and so are the edits already made to the sentence.
+     */
+    public Sentence(Sentence sentence) {
+        words = new ArrayList<Word>(sentence.words);
+        isTagged = sentence.isTagged;
+        edits.addAll(sentence.edits);
+        analysis = sentence.analysis;
+    }
+
     /**
      * Get the value of words
      *
      * @return the value of words
      */
-    public List getWords() {
+    public List<Word> getWords() {
         return words;
     }
 
@@ -77,6 +112,7 @@ public class Sentence {
      */
     public void setWords(List newVar) {
         words = newVar;
+        analysis = null;
     }
 
     /**
@@ -100,27 +136,42 @@ public class Sentence {
         sentenceSGML = newSGML;
     }
 
+    /**
+     * Return the position of the sentence in the input corpus
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Set the position of the sentence in the input corpus
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Return a 64-bit hash of the text the sentence was read from, which identifies sentences with the
+     * same text. A copy of a sentence, which may have been changed, is hashed by its current text.
+     */
+    public long getFingerprint() {
+        if (!isFingerprinted) {
+            fingerprint = ErrorUtilities.fingerprint(toString());
+            isFingerprinted = true;
+        }
+        return fingerprint;
+    }
+
     /**
      * Return the sentence as a string
      *
      * @return String
      */
     public String toString() {
-        String theSentence = "";
-        String theWord;
-        for (int i = 0; i < words.size(); i++) {
-            if (isTagged) {
-                theWord = words.get(i).toString();
-            } else {
-                theWord = words.get(i).getToken();
-            }
-            if (i < words.size() - 1) {
-                theSentence += theWord + " ";
-            } else {
-                theSentence += theWord;
-            }
+        if (analysis != null) {
+            return analysis.toString();
         }
-        return theSentence;
+        return render(isTagged);
     }
 
 
@@ -130,18 +181,48 @@ public class Sentence {
      * @return String
      */
     public String toStringNoTags() {
-        String theSentence = "";
-        String theWord;
-        for (int i = 0; i < words.size(); i++) {
-            theWord = words.get(i).getToken();
+        if (analysis != null) {
+            return analysis.toStringNoTags();
+        }
+        return render(false);
+    }
 
-            if (i < words.size() - 1) {
-                theSentence += theWord + " ";
+    /**
+     * Join the words of the sentence with spaces, with or without their tags
+     */
+    private String render(boolean withTags) {
+        StringBuilder theSentence = new StringBuilder();
+        for (int i = 0; i < words.size(); i++) {
+            if (i > 0) {
+                theSentence.append(' ');
+            }
+            if (withTags) {
+                theSentence.append(words.get(i).toString());
             } else {
-                theSentence += theWord;
+                theSentence.append(words.get(i).getToken());
             }
         }
-        return theSentence;
+        return theSentence.toString();
+    }
+
+    /**
+     * Return the analysis of the sentence which the errors read, working it out the first time it is
+     * needed. A copy of the sentence shares the analysis until one of its words is changed.
+     */
+    public SentenceAnalysis getAnalysis() {
+        if (analysis == null) {
+            analysis = new SentenceAnalysis(this);
+        }
+        return analysis;
+    }
+
+    /**
+     * Forget the analysis of the sentence once no more errors are to be inserted into it for now, so
+     * that the sentences of a corpus held in memory do not each keep their analysis for the rest of
+     * the run. It is worked out again if it is needed again.
+     */
+    public void releaseAnalysis() {
+        analysis = null;
     }
 
     /**
@@ -174,6 +255,7 @@ public class Sentence {
      * Remove a word at the specified index from the sentence
      */
     public Word removeWord(int index) {
+        analysis = null;
         return words.remove(index);
     }
 
@@ -181,6 +263,7 @@ public class Sentence {
      * Add a word to the sentence at the specified index
      */
     public void insertWord(Word word, int index) {
+        analysis = null;
         words.add(index, word);
     }
 
@@ -188,6 +271,7 @@ public class Sentence {
      * Replace a word at the specified index.
      */
     public void replaceWord(Word word, int index) {
+        analysis = null;
         words.set(index, word);
     }
 
@@ -204,4 +288,18 @@ public class Sentence {
     public void setErrorDescription(String errorDescription) {
         this.errorDescription = errorDescription;
     }
+
+    /**
+     * Return the changes which were made to the original sentence, in the order they were made
+     */
+    public List<Edit> getEdits() {
+        return edits;
+    }
+
+    /**
+     * Record a change made to the original sentence
+     */
+    public void addEdit(Edit edit) {
+        edits.add(edit);
+    }
 }
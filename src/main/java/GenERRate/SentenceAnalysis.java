@@ -0,0 +1,204 @@
+package GenERRate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class SentenceAnalysis
+ * <p>
+ * What the errors look up in a sentence before inserting an error into it: the id of the tag and
+ * of the token of each word, the positions of each tag and of each token, and the sentence as a
+ * string with and without its tags. It is worked out once for a sentence (see Sentence.getAnalysis)
+ * and shared by the errors inserted into the sentence, so the errors of the lines of the error
+ * analysis file do not each scan the sentence again. The loops which insert the errors release it
+ * (see Sentence.releaseAnalysis) once they are done with a sentence, so that a corpus held in memory
+ * does not keep the analysis of every sentence.
+ * <p>
+ * The ids are given to the distinct tags and tokens of the sentence in the order they first occur,
+ * rather than taken from the tagset, as the tags in the error analysis file need not be in the
+ * tagset. All the arrays of positions are in increasing order and must not be changed.
+ */
+public class SentenceAnalysis {
+
+    private static final int[] NONE = new int[0];
+
+    /**
+     * The id of the tag of each word, or -1 if the word has no tag
+     */
+    private final int[] tagIds;
+
+    /**
+     * The id of the token of each word
+     */
+    private final int[] tokenIds;
+
+    private final Map<String, Integer> tags = new HashMap<String, Integer>();
+
+    private final Map<String, Integer> tokens = new HashMap<String, Integer>();
+
+    /**
+     * The positions of the words with each tag, indexed by the id of the tag
+     */
+    private final int[][] tagPositions;
+
+    /**
+     * The positions of the words with each token, indexed by the id of the token
+     */
+    private final int[][] tokenPositions;
+
+    private final String rendered;
+
+    private final String renderedNoTags;
+
+    public SentenceAnalysis(Sentence sentence) {
+        int size = sentence.size();
+        tagIds = new int[size];
+        tokenIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            Word word = sentence.getWord(i);
+            tagIds[i] = word.getTag() == null ? -1 : getId(tags, word.getTag());
+            tokenIds[i] = getId(tokens, word.getToken());
+        }
+        tagPositions = getPositions(tagIds, tags.size());
+        tokenPositions = getPositions(tokenIds, tokens.size());
+        rendered = sentence.toString();
+        renderedNoTags = sentence.toStringNoTags();
+    }
+
+    /**
+     * Returns the id of a tag or token, giving it the next id if it has not been seen before
+     */
+    private static int getId(Map<String, Integer> ids, String key) {
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = ids.size();
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the positions of the words with each id, indexed by the id
+     *
+     * @param ids   the id of each word, or -1 for none
+     * @param count the number of distinct ids
+     */
+    private static int[][] getPositions(int[] ids, int count) {
+        int[] sizes = new int[count];
+        for (int id : ids) {
+            if (id >= 0) {
+                sizes[id]++;
+            }
+        }
+        int[][] positions = new int[count][];
+        for (int id = 0; id < count; id++) {
+            positions[id] = new int[sizes[id]];
+            sizes[id] = 0;
+        }
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] >= 0) {
+                positions[ids[i]][sizes[ids[i]]++] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Return the number of words in the sentence
+     */
+    public int size() {
+        return tagIds.length;
+    }
+
+    /**
+     * Return the id of a tag, or -1 if no word of the sentence has this tag
+     */
+    public int getTagId(String tag) {
+        Integer id = tag == null ? null : tags.get(tag);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the id of the tag of the word at a position, or -1 if the word has no tag
+     */
+    public int getTagId(int position) {
+        return tagIds[position];
+    }
+
+    /**
+     * Return the id of a token, or -1 if no word of the sentence has this token
+     */
+    public int getTokenId(String token) {
+        Integer id = token == null ? null : tokens.get(token);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Return the id of the token of the word at a position
+     */
+    public int getTokenId(int position) {
+        return tokenIds[position];
+    }
+
+    /**
+     * Does the word at a position have a particular tag?
+     */
+    public boolean hasTag(int position, String tag) {
+        return position >= 0 && position < tagIds.length && tagIds[position] >= 0 && tagIds[position] == getTagId(tag);
+    }
+
+    /**
+     * Return the positions of the words with a particular tag
+     */
+    public int[] getPositions(String tag) {
+        int id = getTagId(tag);
+        return id < 0 ? NONE : tagPositions[id];
+    }
+
+    /**
+     * Return the positions of the first word of each pair of adjacent words tagged as first, second
+     */
+    public int[] getBigramPositions(String first, String second) {
+        int secondId = getTagId(second);
+        if (secondId < 0) {
+            return NONE;
+        }
+        int[] firstPositions = getPositions(first);
+        int count = 0;
+        for (int position : firstPositions) {
+            if (position + 1 < tagIds.length && tagIds[position + 1] == secondId) {
+                count++;
+            }
+        }
+        int[] positions = new int[count];
+        count = 0;
+        for (int position : firstPositions) {
+            if (position + 1 < tagIds.length && tagIds[position + 1] == secondId) {
+                positions[count++] = position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Return the positions of the words with a particular token
+     */
+    public int[] getTokenPositions(String token) {
+        int id = getTokenId(token);
+        return id < 0 ? NONE : tokenPositions[id];
+    }
+
+    /**
+     * Return the sentence as a string, as Sentence.toString does
+     */
+    public String toString() {
+        return rendered;
+    }
+
+    /**
+     * Return the sentence as a string without its tags, as Sentence.toStringNoTags does
+     */
+    public String toStringNoTags() {
+        return renderedNoTags;
+    }
+}
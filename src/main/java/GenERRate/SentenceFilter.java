@@ -0,0 +1,216 @@
+package GenERRate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Class SentenceFilter
+ * <p>
+ * Decides which lines of the input corpus are used, as they are read and before a Sentence is made
+ * of them: sentences can be kept by their number of words, by the attributes of their SGML markup
+ * (e.g. only sentences with genre="news"), and by a sampling rate. The sample is taken by the hash
+ * of the sentence, so it is the same on every run and a sentence which occurs more than once is
+ * either always kept or always left out.
+ * <p>
+ * The reasons lines were left out are counted. Several threads may use a filter at once.
+ */
+public class SentenceFilter {
+
+    private int minWords;
+
+    private int maxWords = Integer.MAX_VALUE;
+
+    /**
+     * The fraction of the sentences kept by the sample, 1 to keep them all
+     */
+    private double sampleRate = 1.0;
+
+    private final List<String> attributeNames = new ArrayList<String>();
+
+    /**
+     * The patterns which must be found in the values of the attributes at the same position in attributeNames
+     */
+    private final List<Pattern> attributeValues = new ArrayList<Pattern>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong tooShort = new AtomicLong();
+    private final AtomicLong tooLong = new AtomicLong();
+    private final AtomicLong wrongAttributes = new AtomicLong();
+    private final AtomicLong sampledOut = new AtomicLong();
+
+    /**
+     * Keeps only sentences with at least min and at most max words
+     */
+    public void setWordRange(int min, int max) {
+        minWords = min;
+        maxWords = max;
+    }
+
+    /**
+     * Keeps only the given fraction of the sentences, between 0 and 1
+     */
+    public void setSampleRate(double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("The sampling rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Keeps only sentences whose SGML markup has an attribute with a given value. The condition is
+     * either name=value, for the exact value, or name~regex, for a value containing a match of the
+     * regular expression. All the conditions added must hold.
+     */
+    public void addAttributeCondition(String condition) {
+        int equals = condition.indexOf('=');
+        int tilde = condition.indexOf('~');
+        if (equals > 0 && (tilde < 0 || equals < tilde)) {
+            attributeNames.add(condition.substring(0, equals));
+            attributeValues.add(Pattern.compile("\\A" + Pattern.quote(condition.substring(equals + 1)) + "\\z"));
+        } else if (tilde > 0) {
+            attributeNames.add(condition.substring(0, tilde));
+            attributeValues.add(Pattern.compile(condition.substring(tilde + 1)));
+        } else {
+            throw new IllegalArgumentException("An attribute condition must be name=value or name~regex: " + condition);
+        }
+    }
+
+    /**
+     * Reads the settings of a filter from command line arguments
+     *
+     * @param wordRange  min,max (either may be left out), or null
+     * @param sampleRate the sampling rate, or null
+     * @param conditions the attribute conditions
+     * @return the filter, or null if the arguments do not filter anything
+     */
+    public static SentenceFilter create(String wordRange, String sampleRate, List<String> conditions) {
+        if (wordRange == null && sampleRate == null && conditions.isEmpty()) {
+            return null;
+        }
+        SentenceFilter filter = new SentenceFilter();
+        if (wordRange != null) {
+            int comma = wordRange.indexOf(',');
+            String min = comma < 0 ? wordRange : wordRange.substring(0, comma);
+            String max = comma < 0 ? "" : wordRange.substring(comma + 1);
+            filter.setWordRange(min.length() == 0 ? 0 : Integer.parseInt(min), max.length() == 0 ? Integer.MAX_VALUE : Integer.parseInt(max));
+        }
+        if (sampleRate != null) {
+            filter.setSampleRate(Double.parseDouble(sampleRate));
+        }
+        for (String condition : conditions) {
+            filter.addAttributeCondition(condition);
+        }
+        return filter;
+    }
+
+    /**
+     * Decides whether a line of the corpus is used
+     *
+     * @param text     the sentence, without its markup (see GenERRate.extractSgml)
+     * @param sgml     the markup of the sentence
+     * @param isTagged whether the sentence is POS-tagged, in which case each word is followed by its tag
+     */
+    public boolean accept(String text, String sgml, boolean isTagged) {
+        if (minWords > 0 || maxWords < Integer.MAX_VALUE) {
+            int words = countTokens(text);
+            if (isTagged) {
+                words = (words + 1) / 2;
+            }
+            if (words < minWords) {
+                tooShort.incrementAndGet();
+                return false;
+            }
+            if (words > maxWords) {
+                tooLong.incrementAndGet();
+                return false;
+            }
+        }
+        for (int i = 0; i < attributeNames.size(); i++) {
+            String value = getAttribute(sgml, attributeNames.get(i));
+            if (value == null || !attributeValues.get(i).matcher(value).find()) {
+                wrongAttributes.incrementAndGet();
+                return false;
+            }
+        }
+        if (sampleRate < 1 && (ErrorUtilities.fingerprint(text) >>> 11) * 0x1.0p-53 >= sampleRate) {
+            sampledOut.incrementAndGet();
+            return false;
+        }
+        accepted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Counts the tokens separated by spaces, as Sentence does
+     */
+    static int countTokens(String text) {
+        int tokens = 0;
+        boolean inToken = false;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ' ') {
+                inToken = false;
+            } else if (!inToken) {
+                inToken = true;
+                tokens++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the value of an attribute in SGML markup such as &lt;s id="3" genre=news, without any
+     * quotes, or null if the markup does not have the attribute
+     */
+    static String getAttribute(String sgml, String name) {
+        int from = 0;
+        while (true) {
+            int at = sgml.indexOf(name, from);
+            if (at < 0) {
+                return null;
+            }
+            from = at + name.length();
+            int equals = from;
+            while (equals < sgml.length() && sgml.charAt(equals) == ' ') {
+                equals++;
+            }
+            if (at > 0 && Character.isWhitespace(sgml.charAt(at - 1)) && equals < sgml.length() && sgml.charAt(equals) == '=') {
+                int start = equals + 1;
+                while (start < sgml.length() && sgml.charAt(start) == ' ') {
+                    start++;
+                }
+                if (start == sgml.length()) {
+                    return "";
+                }
+                char quote = sgml.charAt(start);
+                if (quote == '"' || quote == '\'') {
+                    int end = sgml.indexOf(quote, start + 1);
+                    return sgml.substring(start + 1, end < 0 ? sgml.length() : end);
+                }
+                int end = start;
+                while (end < sgml.length() && !Character.isWhitespace(sgml.charAt(end)) && sgml.charAt(end) != '>') {
+                    end++;
+                }
+                return sgml.substring(start, end);
+            }
+        }
+    }
+
+    /**
+     * Returns a summary of the lines kept and left out, and why
+     */
+    public String getReport() {
+        long rejected = tooShort.get() + tooLong.get() + wrongAttributes.get() + sampledOut.get();
+        return "Kept " + accepted.get() + " of " + (accepted.get() + rejected) + " sentences: " + tooShort.get() + " too short, "
+                + tooLong.get() + " too long, " + wrongAttributes.get() + " without the attributes, " + sampledOut.get() + " not in the sample";
+    }
+
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public long getRejected() {
+        return tooShort.get() + tooLong.get() + wrongAttributes.get() + sampledOut.get();
+    }
+}
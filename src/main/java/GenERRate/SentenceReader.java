@@ -0,0 +1,96 @@
+package GenERRate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class SentenceReader
+ * <p>
+ * Reads the sentences of a corpus one line at a time, so that a corpus of any size can be
+ * processed without holding it in memory. SGML markup around a sentence is kept with the
+ * sentence, and each sentence is numbered by its position in the corpus.
+ */
+public class SentenceReader implements Iterator<Sentence> {
+    private final BufferedReader reader;
+
+    /**
+     * Whether the sentences are POS-tagged
+     */
+    private final boolean isTagged;
+
+    /**
+     * Decides which lines are used, or null to use them all
+     */
+    private final SentenceFilter filter;
+
+    private final StringBuffer sgml = new StringBuffer("<s");
+
+    private Sentence next;
+
+    private long count;
+
+    public SentenceReader(BufferedReader reader, boolean isTagged) {
+        this(reader, isTagged, null);
+    }
+
+    /**
+     * @param reader   the corpus
+     * @param isTagged whether the sentences are POS-tagged
+     * @param filter   decides which lines are used, or null to use them all. The sentences are numbered
+     *                 by their position among the lines used.
+     */
+    public SentenceReader(BufferedReader reader, boolean isTagged, SentenceFilter filter) {
+        this.reader = reader;
+        this.isTagged = isTagged;
+        this.filter = filter;
+    }
+
+    public boolean hasNext() {
+        while (next == null) {
+            String line;
+            try {
+                line = reader.readLine();
+            } catch (IOException io) {
+                throw new RuntimeException("Could not read sentence " + (count + 1) + ": " + io.getMessage(), io);
+            }
+            if (line == null) {
+                break;
+            }
+            String text = GenERRate.extractSgml(line, sgml);
+            if (filter == null || filter.accept(text, sgml.toString(), isTagged)) {
+                next = new Sentence(text, isTagged);
+                next.setSentenceSGML(sgml.toString());
+                next.setId(count++);
+            }
+            //reset the string buffer to be "<s"
+            sgml.delete(2, sgml.length());
+        }
+        return next != null;
+    }
+
+    public Sentence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Sentence sentence = next;
+        next = null;
+        return sentence;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The number of sentences read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,143 @@
+package GenERRate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Class ShardedCorpusWriter
+ * <p>
+ * Splits an error corpus over several CorpusWriters (shards). Each input sentence is assigned
+ * to a shard by its fingerprint, a stable hash of its text (see Sentence.getFingerprint), so a
+ * sentence and all the errors created from it end up in the same shard, and the same sentence
+ * always ends up in the same shard.
+ */
+public class ShardedCorpusWriter extends CorpusWriter {
+
+    private final CorpusWriter[] shards;
+
+    /**
+     * The file each shard writes its summary to when it is closed
+     */
+    private final String[] summaryFiles;
+
+    public ShardedCorpusWriter(CorpusWriter[] shards, String[] summaryFiles) {
+        this.shards = shards;
+        this.summaryFiles = summaryFiles;
+    }
+
+    /**
+     * Returns the shard an input sentence is assigned to
+     *
+     * @param sentence  the input sentence
+     * @param numShards the number of shards
+     */
+    public static int getShard(Sentence sentence, int numShards) {
+        return (int) ((sentence.getFingerprint() & Long.MAX_VALUE) % numShards);
+    }
+
+    public void startSentence(Sentence sentence) throws IOException {
+        shards[getShard(sentence, shards.length)].startSentence(sentence);
+    }
+
+    public void writeOriginal(Sentence sentence) throws IOException {
+        shards[getShard(sentence, shards.length)].writeOriginal(sentence);
+    }
+
+    public boolean writeError(Sentence sentence, Sentence ungrammaticalSentence, Error error, int specLine) throws IOException {
+        return shards[getShard(sentence, shards.length)].writeError(sentence, ungrammaticalSentence, error, specLine);
+    }
+
+    public void copyError(Sentence sentence, String line) throws IOException {
+        shards[getShard(sentence, shards.length)].copyError(sentence, line);
+    }
+
+    public void copyFailure(Sentence sentence, String line) throws IOException {
+        shards[getShard(sentence, shards.length)].copyFailure(sentence, line);
+    }
+
+    public void writeSeparator(Sentence sentence) throws IOException {
+        shards[getShard(sentence, shards.length)].writeSeparator(sentence);
+    }
+
+    public boolean isOutputTagged() {
+        return shards[0].isOutputTagged();
+    }
+
+    public void writeFailure(Sentence sentence, String message) throws IOException {
+        shards[getShard(sentence, shards.length)].writeFailure(sentence, message);
+    }
+
+    /**
+     * Gives each shard a filter of its own with the same number of entries, as the errors created
+     * from an input sentence all go to the same shard
+     */
+    public void setDuplicateFilter(DuplicateFilter duplicates) {
+        for (CorpusWriter shard : shards) {
+            shard.setDuplicateFilter(duplicates == null ? null : new DuplicateFilter(duplicates.getCapacity()));
+        }
+    }
+
+    public void checkpoint(Properties checkpoint) throws IOException {
+        for (CorpusWriter shard : shards) {
+            shard.checkpoint(checkpoint);
+        }
+    }
+
+    public void restore(Properties checkpoint) {
+        for (CorpusWriter shard : shards) {
+            shard.restore(checkpoint);
+        }
+    }
+
+    /**
+     * Closes every shard and writes its summary
+     */
+    public void close() throws IOException {
+        IOException problem = null;
+        for (int i = 0; i < shards.length; i++) {
+            try {
+                shards[i].close();
+                shards[i].writeSummary(summaryFiles[i]);
+            } catch (IOException io) {
+                problem = io;
+            }
+        }
+        if (problem != null) {
+            throw problem;
+        }
+    }
+
+    public List<String> getReports() {
+        List<String> reports = new ArrayList<String>();
+        for (CorpusWriter shard : shards) {
+            reports.addAll(shard.getReports());
+        }
+        return reports;
+    }
+
+    public long getSentenceCount() {
+        long count = 0;
+        for (CorpusWriter shard : shards) {
+            count += shard.getSentenceCount();
+        }
+        return count;
+    }
+
+    public long getErrorCount() {
+        long count = 0;
+        for (CorpusWriter shard : shards) {
+            count += shard.getErrorCount();
+        }
+        return count;
+    }
+
+    public long getFailureCount() {
+        long count = 0;
+        for (CorpusWriter shard : shards) {
+            count += shard.getFailureCount();
+        }
+        return count;
+    }
+}
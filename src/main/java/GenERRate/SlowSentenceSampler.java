@@ -0,0 +1,143 @@
+package GenERRate;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Class SlowSentenceSampler
+ * <p>
+ * Keeps the slowest insertions of an error into a sentence seen during a run, so that the inputs
+ * which cost the most (very long sentences, for instance) can be found and filtered or fixed.
+ * <p>
+ * Only the given number of insertions is kept, in a heap ordered by time. Once the heap is full an
+ * insertion faster than the fastest one kept is turned away without taking a lock, so recording
+ * costs little more than reading the clock. Several threads may record insertions at once.
+ */
+public class SlowSentenceSampler {
+
+    /**
+     * The number of characters of a sentence written to the report
+     */
+    public static final int MAX_REPORTED_LENGTH = 200;
+
+    private final int size;
+
+    /**
+     * The slowest insertions so far, the fastest of them first
+     */
+    private final PriorityQueue<Sample> slowest;
+
+    /**
+     * The time of the fastest insertion kept once the heap is full: anything faster is not kept
+     */
+    private volatile long threshold;
+
+    /**
+     * @param size the number of insertions to keep
+     */
+    public SlowSentenceSampler(int size) {
+        this.size = size;
+        slowest = new PriorityQueue<Sample>(Math.max(1, size), new Comparator<Sample>() {
+            public int compare(Sample a, Sample b) {
+                return a.nanos < b.nanos ? -1 : (a.nanos == b.nanos ? 0 : 1);
+            }
+        });
+    }
+
+    /**
+     * Records the time taken to insert an error into a sentence
+     *
+     * @param sentence  the input sentence
+     * @param specLine  the line of the error analysis file which describes the error
+     * @param errorType the error type (see Error.toString())
+     * @param nanos     the time taken, in nanoseconds
+     */
+    public void record(Sentence sentence, int specLine, String errorType, long nanos) {
+        if (nanos <= threshold || size == 0) {
+            return;
+        }
+        synchronized (slowest) {
+            slowest.add(new Sample(sentence, specLine, errorType, nanos));
+            if (slowest.size() > size) {
+                slowest.poll();
+            }
+            if (slowest.size() == size) {
+                threshold = slowest.peek().nanos;
+            }
+        }
+    }
+
+    /**
+     * Returns the insertions kept, the slowest first
+     */
+    public List<Sample> getSamples() {
+        List<Sample> samples;
+        synchronized (slowest) {
+            samples = new ArrayList<Sample>(slowest);
+        }
+        Collections.sort(samples, Collections.reverseOrder(slowest.comparator()));
+        return samples;
+    }
+
+    /**
+     * Writes the insertions kept to a file, the slowest first, one per line: the time in
+     * milliseconds, the line of the error analysis file, the error type, the id of the sentence,
+     * its length in tokens and in characters, and the sentence itself (cut short if very long)
+     */
+    public void writeReport(String fileName) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(fileName));
+        try {
+            writer.println("#ms\tline\terror type\tsentence\ttokens\tcharacters\ttext");
+            for (Sample sample : getSamples()) {
+                String text = sample.sentence.toString();
+                writer.println(String.format("%.3f", sample.nanos / 1e6) + "\t" + sample.specLine + "\t" + sample.errorType
+                        + "\t" + sample.sentence.getId() + "\t" + sample.sentence.size() + "\t" + text.length()
+                        + "\t" + (text.length() > MAX_REPORTED_LENGTH ? text.substring(0, MAX_REPORTED_LENGTH) + "..." : text));
+            }
+        } finally {
+            writer.close();
+        }
+        if (writer.checkError()) {
+            throw new IOException("Could not write to " + fileName);
+        }
+    }
+
+    /**
+     * The time taken to insert an error into a sentence
+     */
+    public static class Sample {
+        private final Sentence sentence;
+        private final int specLine;
+        private final String errorType;
+        private final long nanos;
+
+        private Sample(Sentence sentence, int specLine, String errorType, long nanos) {
+            this.sentence = sentence;
+            this.specLine = specLine;
+            this.errorType = errorType;
+            this.nanos = nanos;
+        }
+
+        public Sentence getSentence() {
+            return sentence;
+        }
+
+        public int getSpecLine() {
+            return specLine;
+        }
+
+        public String getErrorType() {
+            return errorType;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
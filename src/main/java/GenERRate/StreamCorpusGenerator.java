@@ -0,0 +1,152 @@
+package GenERRate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Class StreamCorpusGenerator
+ * <p>
+ * Creates an error corpus from a stream of sentences, reading each sentence once and holding
+ * only a bounded number of them in memory, so that it can be used in a Unix pipeline.
+ * <p>
+ * The complete error corpus is written as the sentences are read. For the realistic error corpus
+ * the number of sentences needed for each error type is not known until the end of the stream,
+ * so a sample of the required size is kept for each error type by reservoir sampling, and the
+ * samples are written at the end. As in GenERRate.createRealisticErrorCorpus, each error type is
+ * sampled independently, so a sentence can be used for more than one error type.
+ */
+public class StreamCorpusGenerator {
+
+    private final ErrorGenerator generator;
+
+    public StreamCorpusGenerator(ErrorGenerator generator) {
+        this.generator = generator;
+    }
+
+    /**
+     * Writes each sentence followed by every error which could be inserted into it
+     */
+    public void createCompleteErrorCorpus(Iterator<Sentence> sentences, CorpusWriter print) throws IOException {
+        List<ErrorSpec> specs = generator.getSpecs();
+        while (sentences.hasNext()) {
+            Sentence sentence = sentences.next();
+            print.startSentence(sentence);
+            print.writeOriginal(sentence);
+            for (ErrorSpec spec : specs) {
+                ErrorResult result = generator.generate(sentence, spec);
+                if (result.isSuccess()) {
+                    print.writeError(sentence, result.getUngrammaticalSentence(), result.getError(), spec.getLineNumber());
+                } else {
+                    print.writeFailure(sentence, result.getFailure());
+                }
+            }
+            print.writeSeparator(sentence);
+        }
+    }
+
+    /**
+     * Writes, for each error type, a uniform random sample of the sentences it could be inserted
+     * into. The sample size is the size of the corpus times the probability of the error type.
+     *
+     * @param size the desired number of sentences in the output corpus
+     */
+    public void createRealisticErrorCorpus(Iterator<Sentence> sentences, int size, CorpusWriter printer) throws IOException {
+        List<ErrorSpec> specs = generator.getSpecs();
+        Reservoir[] reservoirs = new Reservoir[specs.size()];
+        //the pairs of sentences held in the samples, when the printer leaves out duplicates: a pair already
+        //held is not offered again, so that every sentence sampled is written
+        Set<Long> held = printer.getDuplicateFilter() == null ? null : new HashSet<Long>();
+        while (sentences.hasNext()) {
+            Sentence sentence = sentences.next();
+            for (int j = 0; j < specs.size(); j++) {
+                Reservoir reservoir = reservoirs[j];
+                if (reservoir != null && reservoir.capacity == 0) {
+                    continue;
+                }
+                ErrorResult result = generator.generate(sentence, specs.get(j));
+                if (reservoir == null && result.getError() != null) {
+                    //first time we create an Error object for this error type, get the probability associated with this error type
+                    reservoir = new Reservoir((int) Math.round(size * result.getError().getProbability()), specs.get(j).getText().hashCode());
+                    reservoirs[j] = reservoir;
+                }
+                if (result.isSuccess()) {
+                    if (held == null) {
+                        reservoir.offer(result);
+                    } else {
+                        long pair = DuplicateFilter.fingerprint(sentence, result.getUngrammaticalSentence(), printer.isOutputTagged());
+                        if (held.add(pair)) {
+                            ErrorResult dropped = reservoir.offer(result);
+                            if (dropped != null) {
+                                held.remove(DuplicateFilter.fingerprint(dropped.getSentence(), dropped.getUngrammaticalSentence(), printer.isOutputTagged()));
+                            }
+                        }
+                    }
+                } else {
+                    printer.writeFailure(sentence, result.getFailure());
+                }
+            }
+        }
+        for (Reservoir reservoir : reservoirs) {
+            if (reservoir == null) {
+                continue;
+            }
+            for (ErrorResult result : reservoir.getSample()) {
+                printer.startSentence(result.getSentence());
+                printer.writeError(result.getSentence(), result.getUngrammaticalSentence(), result.getError(), result.getSpec().getLineNumber());
+            }
+        }
+    }
+
+    /**
+     * A uniform random sample of fixed size from a stream of results (algorithm R)
+     */
+    private static class Reservoir {
+        private final int capacity;
+        private final Random random;
+        private final List<ErrorResult> sample;
+        private long seen;
+
+        private Reservoir(int capacity, long seed) {
+            this.capacity = capacity;
+            this.random = new Random(seed);
+            this.sample = new ArrayList<ErrorResult>(Math.min(capacity, 1 << 16));
+        }
+
+        /**
+         * Offers a result to the sample, and returns the result which is not in the sample as a
+         * consequence (the result it replaced, or the result itself), or null if none
+         */
+        private ErrorResult offer(ErrorResult result) {
+            seen++;
+            if (sample.size() < capacity) {
+                sample.add(result);
+                return null;
+            }
+            long slot = (long) (random.nextDouble() * seen);
+            if (slot < capacity) {
+                return sample.set((int) slot, result);
+            }
+            return result;
+        }
+
+        /**
+         * The sample in the order the sentences were read
+         */
+        private List<ErrorResult> getSample() {
+            Collections.sort(sample, new Comparator<ErrorResult>() {
+                public int compare(ErrorResult a, ErrorResult b) {
+                    long difference = a.getSentence().getId() - b.getSentence().getId();
+                    return difference < 0 ? -1 : (difference > 0 ? 1 : 0);
+                }
+            });
+            return sample;
+        }
+    }
+}
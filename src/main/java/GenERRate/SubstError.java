@@ -14,13 +14,13 @@ public class SubstError extends Error {
 
     public SubstError(Sentence sentence, List<String> extraWords) {
         super(sentence);
-        errorInfo = "errortype=\"SubstError\"";
+        setErrorType("SubstError");
         extraWordList = extraWords;
     }
 
     public SubstError(Sentence inputS) {
         super(inputS);
-        errorInfo = "errortype=\"SubstError\"";
+        setErrorType("SubstError");
     }
 
     /**
@@ -38,8 +38,8 @@ public class SubstError extends Error {
         if (extraWordList == null || extraWordList.size() < 1) {
             throw new CannotCreateErrorException("Cannot substitute a word: the extra word list is empty.");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-        Random random = new Random(newSentence.toString().hashCode());
+        Sentence newSentence = copySentence();
+        Random random = createRandom(newSentence.toString());
 
         //randomly choose the position in the sentence where the word should be replaced
         int where = random.nextInt(newSentence.size());
@@ -53,8 +53,10 @@ public class SubstError extends Error {
         StringTokenizer tokens = new StringTokenizer(newWord, " ");
         String newToken = tokens.nextToken();
         String newTag = tokens.nextToken();
-        newSentence.insertWord(new Word(newToken, newTag), where);
-        newSentence.setErrorDescription(errorInfo + " details=\"" + oldWord.getToken() + "/" + newToken + " at " + (where + 1) + "\"");
+        Word replacement = new Word(newToken, newTag);
+        newSentence.insertWord(replacement, where);
+        newSentence.addEdit(Edit.substitution(where, oldWord, replacement));
+        setErrorDescription(newSentence, oldWord.getToken() + "/" + newToken + " at " + (where + 1));
 
         return newSentence;
     }
@@ -1,7 +1,5 @@
 package GenERRate;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -25,7 +23,7 @@ public class SubstSpecificWordConfusionError extends SubstError {
         super(inputS);
         this.wordToBeReplaced = wordToBeReplaced;
         replacementWord = replacement;
-        errorInfo = "errortype=\"Subst" + this.wordToBeReplaced + replacementWord + "Error\"";
+        setErrorType("Subst" + this.wordToBeReplaced + replacementWord + "Error");
     }
 
     /**
@@ -80,27 +78,20 @@ public class SubstSpecificWordConfusionError extends SubstError {
         if (sentence.size() < 1) {
             throw new CannotCreateErrorException("The sentence is empty. Cannot substitute one word for another");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
         //see if the word to be replaced is in the input sentence, if not throw an exception
-        boolean isWordThere = false;
-        Word word;
-        List<Integer> whereList = new ArrayList<Integer>();
-        for (int i = 0; i < newSentence.size() && !isWordThere; i++) {
-            word = newSentence.getWord(i);
-            if (word.getToken().equals(wordToBeReplaced.getToken())) {
-                isWordThere = true;
-                whereList.add(i);
-            }
-        }
-        if (!isWordThere) {
+        int[] positions = sentence.getAnalysis().getTokenPositions(wordToBeReplaced.getToken());
+        if (positions.length == 0) {
             throw new CannotCreateErrorException("Cannot substitute one word for another. " +
                     "The word to be replaced '" + wordToBeReplaced.getToken() + "' is not in the input sentence");
         }
+        //only the first instance is replaced
+        int[] whereList = {positions[0]};
+        Sentence newSentence = copySentence();
 
-        Random random = new Random(newSentence.toString().hashCode());
+        Random random = createRandom(newSentence.toString());
 
         //if there is more than one instance of the word to be replaced in the sentence, randomly choose one of them
-        int where = whereList.get(random.nextInt(whereList.size()));
+        int where = whereList[random.nextInt(whereList.length)];
         Word removedWord = newSentence.removeWord(where);
         if (where == 0) {
             if (Character.isUpperCase(removedWord.getToken().charAt(0))) {
@@ -110,9 +101,9 @@ public class SubstSpecificWordConfusionError extends SubstError {
             }
         }
         newSentence.insertWord(replacementWord, where);
-        newSentence.setErrorDescription(errorInfo + " details=\"" +
-                wordToBeReplaced.getToken() + "/" +
-                replacementWord.getToken() + " at " + (where + 1) + "\"");
+        newSentence.addEdit(Edit.substitution(where, removedWord, replacementWord));
+        setErrorDescription(newSentence, wordToBeReplaced.getToken() + "/" +
+                replacementWord.getToken() + " at " + (where + 1));
 
         return newSentence;
     }
@@ -20,7 +20,7 @@ public class SubstWordConfusionError extends SubstError {
     public SubstWordConfusionError(Sentence sentence, List<String> extraWords, String posTag) {
         super(sentence, extraWords);
         this.posTag = posTag;
-        errorInfo = "errortype=\"Subst" + this.posTag + "Error\"";
+        setErrorType("Subst" + this.posTag + "Error");
     }
 
     /**
@@ -65,31 +65,21 @@ public class SubstWordConfusionError extends SubstError {
         if (!sentence.areTagsIncluded()) {
             throw new CannotCreateErrorException("Cannot substitute a word with posTag tag " + posTag + ". The input sentence is not tagged.");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
         //find all words in the sentence tagged as posTag
-        List<Integer> listPOS = new ArrayList<Integer>();
-        Word word;
-        for (int i = 0; i < newSentence.size(); i++) {
-            word = newSentence.getWord(i);
-            if (word.getTag().equals(posTag)) {
-                listPOS.add(i);
-            }
-        }
+        int[] positions = sentence.getAnalysis().getPositions(posTag);
+        Sentence newSentence = copySentence();
         //throw an exception if there is no word of this posTag in the sentence
-        if (listPOS.size() < 1) {
+        if (positions.length < 1) {
             throw new CannotCreateErrorException("Cannot substitute a word with posTag " + posTag + " because there is none in the sentence.");
         }
-        Random random = new Random(newSentence.toString().hashCode());
+        Random random = createRandom(newSentence.toString());
 
         //randomly choose the position in the sentence where the word should be replaced
-        int where = listPOS.get(random.nextInt(listPOS.size()));
+        int where = positions[random.nextInt(positions.length)];
         Word substitutedWord = newSentence.getWord(where);
 
-        //delete the word which was at this position in the sentence
-        newSentence.removeWord(where);
-
         //build up a list of words tagged as posTag from the extra word list
-        listPOS = new ArrayList<Integer>();
+        List<Integer> listPOS = new ArrayList<Integer>();
         String tokenTagPair;
         StringTokenizer tokens;
         String token;
@@ -112,8 +102,12 @@ public class SubstWordConfusionError extends SubstError {
         tokens = new StringTokenizer(newWord, " ");
         String newToken = tokens.nextToken();
         String newTag = tokens.nextToken();
-        newSentence.insertWord(new Word(newToken, newTag), where);
-        newSentence.setErrorDescription(errorInfo + " details=\"" + substitutedWord.getToken() + "/" + newToken + " at " + (where + 1) + "\"");
+        Word replacement = new Word(newToken, newTag);
+        //replace the word which was at this position in the sentence
+        newSentence.removeWord(where);
+        newSentence.insertWord(replacement, where);
+        newSentence.addEdit(Edit.substitution(where, substitutedWord, replacement));
+        setErrorDescription(newSentence, substitutedWord.getToken() + "/" + newToken + " at " + (where + 1));
 
         return newSentence;
     }
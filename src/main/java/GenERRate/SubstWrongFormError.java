@@ -46,6 +46,12 @@ public class SubstWrongFormError extends SubstError {
      */
     private final String targetTag;
 
+    /**
+     * The ids of sourceTag and targetTag in the tag set (-1 if they are not in it)
+     */
+    private final int sourceId;
+    private final int targetId;
+
     private final List<String> extraWords;
 
     private final Set<String> dictionary;
@@ -56,9 +62,11 @@ public class SubstWrongFormError extends SubstError {
         this.tagSet = tagSet;
         this.sourceTag = sourceTag;
         this.targetTag = targetTag;
+        this.sourceId = tagSet.getId(sourceTag);
+        this.targetId = tagSet.getId(targetTag);
         this.extraWords = extraWords;
         this.dictionary = dictionary;
-        super.errorInfo = "errortype=\"SubstWrongForm" + this.sourceTag + this.targetTag + "Error\"";
+        setErrorType("SubstWrongForm" + this.sourceTag + this.targetTag + "Error");
     }
 
     /**
@@ -79,29 +87,19 @@ public class SubstWrongFormError extends SubstError {
         if (!sentence.areTagsIncluded()) {
             throw new CannotCreateErrorException("Cannot substitute a word with sourceTag tag " + sourceTag + ". The input sentence is not tagged.");
         }
-        Sentence newSentence = new Sentence(sentence.toString(), sentence.areTagsIncluded());
-        //find all words in the sentence tagged as sourceTag
-        List<Integer> listPOS = new ArrayList<Integer>();
-        Word word;
-        for (int i = 0; i < newSentence.size(); i++) {
-            word = newSentence.getWord(i);
-            if (word.getTag().equals(sourceTag) && sourceTag.equals(tagSet.INF)) {
-                Word nextWord = newSentence.getWord(i + 1);
-                if (nextWord != null && nextWord.getTag().equals(tagSet.VERB_BASE)) {
-                    listPOS.add(i);
-                }
-            } else if (word.getTag().equals(sourceTag)) {
-                listPOS.add(i);
-            }
-        }
+        //find all words in the sentence tagged as sourceTag (an infinitive marker only before a base verb)
+        SentenceAnalysis analysis = sentence.getAnalysis();
+        int[] listPOS = sourceId == tagSet.INF_ID ? analysis.getBigramPositions(sourceTag, tagSet.VERB_BASE)
+                : analysis.getPositions(sourceTag);
+        Sentence newSentence = copySentence();
         //throw an exception if there is no word of this sourceTag in the sentence
-        if (listPOS.size() < 1) {
+        if (listPOS.length < 1) {
             throw new CannotCreateErrorException("Cannot substitute a word with sourceTag " + sourceTag + " because there is none in the sentence.");
         }
-        Random random = new Random(newSentence.toString().hashCode());
+        Random random = createRandom(newSentence.toString());
 
         //randomly choose the position in the sentence where the word should be replaced
-        int where = listPOS.get(random.nextInt(listPOS.size()));
+        int where = listPOS[random.nextInt(listPOS.length)];
 
         //delete the word which was at this position in the sentence
         Word oldWord = newSentence.getWord(where);
@@ -110,57 +108,57 @@ public class SubstWrongFormError extends SubstError {
         int where2 = -1;
 
         //examine the sourceTag and the targetTag to see how to substitute the word
-        if ((sourceTag.equals(tagSet.SINGULAR_NOUN)) && (targetTag.equals(tagSet.PLURAL_NOUN))) {
+        if (sourceId == tagSet.SINGULAR_NOUN_ID && targetId == tagSet.PLURAL_NOUN_ID) {
             newWord = makeNounPlural(oldWord);
-        } else if ((sourceTag.equals(tagSet.PLURAL_NOUN)) && (targetTag.equals(tagSet.SINGULAR_NOUN))) {
+        } else if (sourceId == tagSet.PLURAL_NOUN_ID && targetId == tagSet.SINGULAR_NOUN_ID) {
             newWord = makeNounSingular(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_THIRD_SING)) && (targetTag.equals(tagSet.VERB_NON_THIRD_SING))) {
+        } else if (sourceId == tagSet.VERB_THIRD_SING_ID && targetId == tagSet.VERB_NON_THIRD_SING_ID) {
             newWord = thirdSingularToNonThirdSingular(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_NON_THIRD_SING)) && (targetTag.equals(tagSet.VERB_THIRD_SING))) {
+        } else if (sourceId == tagSet.VERB_NON_THIRD_SING_ID && targetId == tagSet.VERB_THIRD_SING_ID) {
             newWord = nonThirdSingularToThirdSingular(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_THIRD_SING)) && (targetTag.equals(tagSet.VERB_PRES_PART))) {
+        } else if (sourceId == tagSet.VERB_THIRD_SING_ID && targetId == tagSet.VERB_PRES_PART_ID) {
             newWord = thirdSingToPresP(oldWord);
         }
-    /*else if ((sourceTag.equals(tagSet.VERB_NON_THIRD_SING)) && (targetTag.equals(tagSet.VERB_PAST_PART)))
+    /*else if (sourceId == tagSet.VERB_NON_THIRD_SING_ID && targetId == tagSet.VERB_PAST_PART_ID)
     {
 		newWord = nonThirdSingToPastP(oldWord);
 	}*/
-        else if ((sourceTag.equals(tagSet.VERB_PRES_PART)) && (targetTag.equals(tagSet.VERB_PAST_PART))) {
+        else if (sourceId == tagSet.VERB_PRES_PART_ID && targetId == tagSet.VERB_PAST_PART_ID) {
             newWord = presPToPastP(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_PRES_PART)) && (targetTag.equals(tagSet.VERB_THIRD_SING))) {
+        } else if (sourceId == tagSet.VERB_PRES_PART_ID && targetId == tagSet.VERB_THIRD_SING_ID) {
             newWord = presPToThirdSing(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_PRES_PART)) && (targetTag.equals(tagSet.VERB_NON_THIRD_SING))) {
+        } else if (sourceId == tagSet.VERB_PRES_PART_ID && targetId == tagSet.VERB_NON_THIRD_SING_ID) {
             newWord = presPToNonThirdSing(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_PRES_PART)) && (targetTag.equals(tagSet.INF))) {
+        } else if (sourceId == tagSet.VERB_PRES_PART_ID && targetId == tagSet.INF_ID) {
             newWord = presPToInf(oldWord);
             anotherNewWord = buildSubstitution("to", tagSet.INF, oldWord.getToken());
-        } else if ((sourceTag.equals(tagSet.INF)) && (targetTag.equals(tagSet.VERB_PRES_PART))) {
+        } else if (sourceId == tagSet.INF_ID && targetId == tagSet.VERB_PRES_PART_ID) {
             oldWord = newSentence.getWord(where + 1);
             newWord = baseToPresP(oldWord);
             where2 = where + 1;
-        } else if ((sourceTag.equals(tagSet.VERB_BASE)) && (targetTag.equals(tagSet.VERB_PRES_PART))) {
+        } else if (sourceId == tagSet.VERB_BASE_ID && targetId == tagSet.VERB_PRES_PART_ID) {
             newWord = baseToPresP(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_NON_THIRD_SING)) && (targetTag.equals(tagSet.VERB_PRES_PART))) {
+        } else if (sourceId == tagSet.VERB_NON_THIRD_SING_ID && targetId == tagSet.VERB_PRES_PART_ID) {
             newWord = nonThirdSingToPresP(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_PAST_PART)) && (targetTag.equals(tagSet.VERB_THIRD_SING))) {
+        } else if (sourceId == tagSet.VERB_PAST_PART_ID && targetId == tagSet.VERB_THIRD_SING_ID) {
             newWord = pastPToThirdSing(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_PAST_PART)) && (targetTag.equals(tagSet.VERB_PRES_PART))) {
+        } else if (sourceId == tagSet.VERB_PAST_PART_ID && targetId == tagSet.VERB_PRES_PART_ID) {
             newWord = pastPToPresP(oldWord);
-        } else if ((sourceTag.equals(tagSet.VERB_BASE)) && (targetTag.equals(tagSet.VERB_THIRD_SING))) {
+        } else if (sourceId == tagSet.VERB_BASE_ID && targetId == tagSet.VERB_THIRD_SING_ID) {
             newWord = baseToThirdSing(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADJ)) && (targetTag.equals(tagSet.ADJ_COMP))) {
+        } else if (sourceId == tagSet.ADJ_ID && targetId == tagSet.ADJ_COMP_ID) {
             newWord = regularAdjToComparative(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADJ)) && (targetTag.equals(tagSet.ADJ_SUP))) {
+        } else if (sourceId == tagSet.ADJ_ID && targetId == tagSet.ADJ_SUP_ID) {
             newWord = regularAdjToSuperlative(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADJ_COMP)) && (targetTag.equals(tagSet.ADJ_SUP))) {
+        } else if (sourceId == tagSet.ADJ_COMP_ID && targetId == tagSet.ADJ_SUP_ID) {
             newWord = comparativeAdjToSuperlative(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADJ_COMP)) && (targetTag.equals(tagSet.ADJ))) {
+        } else if (sourceId == tagSet.ADJ_COMP_ID && targetId == tagSet.ADJ_ID) {
             newWord = comparativeAdjToRegular(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADJ_SUP)) && (targetTag.equals(tagSet.ADJ))) {
+        } else if (sourceId == tagSet.ADJ_SUP_ID && targetId == tagSet.ADJ_ID) {
             newWord = superlativeAdjToRegular(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADJ_SUP)) && (targetTag.equals(tagSet.ADJ_COMP))) {
+        } else if (sourceId == tagSet.ADJ_SUP_ID && targetId == tagSet.ADJ_COMP_ID) {
             newWord = superlativeAdjToComparative(oldWord);
-        } else if ((sourceTag.equals(tagSet.ADV)) && (targetTag.equals(tagSet.ADJ)) && (oldWord.getToken().endsWith("ly"))) {
+        } else if (sourceId == tagSet.ADV_ID && targetId == tagSet.ADJ_ID && (oldWord.getToken().endsWith("ly"))) {
             newWord = adverbToAdj(oldWord);
         } else {
             //find all the words tagged as targetTag in the extra word list
@@ -200,18 +198,21 @@ public class SubstWrongFormError extends SubstError {
         if (where2 == -1) {
             newSentence.removeWord(where);
         } else {
-            newSentence.removeWord(where);
+            //the infinitive marker goes and the verb after it is substituted
+            newSentence.addEdit(Edit.deletion(where, newSentence.removeWord(where)));
             newSentence.removeWord(where);
         }
+        newSentence.addEdit(Edit.substitution(where, oldWord, newWord));
 
         if (anotherNewWord == null) {
             newSentence.insertWord(newWord, where);
         } else {
             newSentence.insertWord(anotherNewWord, where);
             newSentence.insertWord(newWord, where + 1);
+            newSentence.addEdit(Edit.insertion(where, anotherNewWord));
         }
 
-        newSentence.setErrorDescription(errorInfo + " details=\"" + oldWord.getToken() + "/" + newWord.getToken() + " at " + (where + 1) + "\"");
+        setErrorDescription(newSentence, oldWord.getToken() + "/" + newWord.getToken() + " at " + (where + 1));
 
         return newSentence;
 
@@ -0,0 +1,38 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+
+/**
+ * Tests for the output written on a separate writer thread.
+ */
+public class AsyncCorpusOutputTest extends TestCase {
+
+    public void testLinesAreWrittenInOrder() throws Exception {
+        File corpus = File.createTempFile("generrate", ".txt");
+        // small batches and a queue of one batch make the writer fall behind
+        AsyncCorpusOutput output = new AsyncCorpusOutput(corpus.getPath(), 100, 1);
+        for (int i = 0; i < 10000; i++) {
+            output.println("line " + i);
+            if (i % 3 == 0) {
+                output.println();
+            }
+        }
+        output.close();
+        assertTrue(output.getBatchCount() > 1);
+
+        BufferedReader reader = new BufferedReader(new FileReader(corpus));
+        for (int i = 0; i < 10000; i++) {
+            assertEquals("line " + i, reader.readLine());
+            if (i % 3 == 0) {
+                assertEquals("", reader.readLine());
+            }
+        }
+        assertNull(reader.readLine());
+        reader.close();
+        corpus.delete();
+    }
+}
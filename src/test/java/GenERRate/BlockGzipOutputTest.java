@@ -0,0 +1,86 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for the block compressed output and its sentence index.
+ */
+public class BlockGzipOutputTest extends TestCase {
+
+    private File corpus;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        corpus = File.createTempFile("generrate", ".gz");
+    }
+
+    public void tearDown() throws Exception {
+        corpus.delete();
+        new File(corpus.getPath() + BlockGzipOutput.INDEX_EXTENSION).delete();
+    }
+
+    public void testIndexPointsAtEverySentence() throws Exception {
+        // a tiny block size puts every sentence in a block of its own
+        BlockGzipOutput output = new BlockGzipOutput(corpus.getPath(), 1, 3);
+        for (int i = 0; i < 50; i++) {
+            output.beginSentence(i);
+            output.println("sentence " + i);
+            output.println("error " + i);
+            output.println();
+        }
+        output.close();
+
+        BufferedReader index = new BufferedReader(new FileReader(corpus.getPath() + BlockGzipOutput.INDEX_EXTENSION));
+        String line;
+        int count = 0;
+        while ((line = index.readLine()) != null) {
+            String[] fields = line.split("\t");
+            assertEquals(String.valueOf(count), fields[0]);
+            BufferedReader reader = BlockGzipOutput.openAt(corpus.getPath(), Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+            assertEquals("sentence " + count, reader.readLine());
+            assertEquals("error " + count, reader.readLine());
+            reader.close();
+            count++;
+        }
+        index.close();
+        assertEquals(50, count);
+    }
+
+    public void testBlocksFormOneGzipFile() throws Exception {
+        BlockGzipOutput output = new BlockGzipOutput(corpus.getPath(), 64, 2);
+        for (int i = 0; i < 200; i++) {
+            output.beginSentence(i);
+            output.println("line " + i);
+        }
+        output.close();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(corpus))));
+        for (int i = 0; i < 200; i++) {
+            assertEquals("line " + i, reader.readLine());
+        }
+        assertNull(reader.readLine());
+        reader.close();
+    }
+
+    public void testSentencesInOneBlockShareItsOffset() throws Exception {
+        BlockGzipOutput output = new BlockGzipOutput(corpus.getPath(), 1 << 20, 1);
+        output.beginSentence(0);
+        output.println("first");
+        output.beginSentence(1);
+        output.println("second");
+        output.close();
+
+        BufferedReader index = new BufferedReader(new FileReader(corpus.getPath() + BlockGzipOutput.INDEX_EXTENSION));
+        String[] first = index.readLine().split("\t");
+        String[] second = index.readLine().split("\t");
+        index.close();
+        assertEquals(first[1], second[1]);
+        assertEquals("0", first[2]);
+        BufferedReader reader = BlockGzipOutput.openAt(corpus.getPath(), Long.parseLong(second[1]), Long.parseLong(second[2]));
+        assertEquals("second", reader.readLine());
+        reader.close();
+    }
+}
@@ -0,0 +1,66 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for inserting several errors into one sentence.
+ */
+public class CompositeErrorTest extends TestCase {
+
+    private ErrorGenerator generator;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        List<ErrorSpec> specs = ErrorSpec.compile(Arrays.asList("delete\tDT\t0.5", "move\t0.5"));
+        generator = new ErrorGenerator(specs, new PartOfSpeech(), new ArrayList<String>(), new HashSet<String>());
+    }
+
+    public void testErrorsAreInsertedOneAfterAnother() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN saw VBD the DT big JJ cat NN . .", true);
+        ErrorResult result = generator.compose(sentence, 3, 5);
+        assertTrue(result.getFailure(), result.isSuccess());
+        assertEquals("The DT dog NN saw VBD the DT big JJ cat NN . .", sentence.toString());
+        assertTrue(sentence.getEdits().isEmpty());
+
+        Sentence ungrammaticalSentence = result.getUngrammaticalSentence();
+        CompositeError error = (CompositeError) result.getError();
+        assertEquals(3, error.getErrors().size());
+        assertEquals(3, ungrammaticalSentence.getEdits().size());
+        String description = ungrammaticalSentence.getErrorDescription();
+        assertEquals(2, description.split("\\+").length - 1);
+        assertEquals(2, description.split("; ").length - 1);
+        Error first = error.getErrors().get(0);
+        assertTrue(error.getErrorType().startsWith(first.getErrorType() + "+"));
+        assertTrue(error.getErrorDetails().startsWith(first.getErrorDetails() + "; "));
+        assertEquals(error + " details=\"" + error.getErrorDetails() + "\"", description);
+
+        // replaying the edits on the input sentence gives the ungrammatical sentence
+        Sentence replayed = new Sentence(sentence);
+        for (Edit edit : ungrammaticalSentence.getEdits()) {
+            if (edit.getOperation().equals(Edit.DELETE)) {
+                assertSame(edit.getOldWord(), replayed.removeWord(edit.getFrom()));
+            } else {
+                assertEquals(Edit.MOVE, edit.getOperation());
+                replayed.insertWord(replayed.removeWord(edit.getFrom()), edit.getTo());
+            }
+        }
+        assertEquals(ungrammaticalSentence.toString(), replayed.toString());
+
+        assertEquals(ungrammaticalSentence.toString(), generator.compose(sentence, 3, 5).getUngrammaticalSentence().toString());
+    }
+
+    public void testFailsWhenTooFewErrorsCanBeInserted() {
+        generator = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("delete\tDT")),
+                new PartOfSpeech(), new ArrayList<String>(), new HashSet<String>());
+        Sentence sentence = new Sentence("The DT dog NN barked VBD . .", true);
+        ErrorResult result = generator.compose(sentence, 2, 0);
+        assertFalse(result.isSuccess());
+        assertEquals(1, ((CompositeError) result.getError()).getErrors().size());
+        assertEquals("The DT dog NN barked VBD . .", sentence.toString());
+    }
+}
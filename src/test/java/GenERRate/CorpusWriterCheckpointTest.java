@@ -0,0 +1,65 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Properties;
+
+/**
+ * Tests for checkpointing a corpus and its log and resuming after an interruption.
+ */
+public class CorpusWriterCheckpointTest extends TestCase {
+
+    private File corpus;
+    private File log;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        corpus = File.createTempFile("generrate", ".txt");
+        log = File.createTempFile("generrate", ".err");
+    }
+
+    public void tearDown() throws Exception {
+        corpus.delete();
+        log.delete();
+    }
+
+    public void testResumeCutsOutputBackToCheckpoint() throws Exception {
+        Sentence first = new Sentence("He PRP left VBD . .", true);
+        Sentence second = new Sentence("She PRP stayed VBD . .", true);
+
+        CorpusWriter writer = new CorpusWriter(new AsyncCorpusOutput(corpus.getPath(), 10, 1), new CorpusOutput(log.getPath()), false);
+        writer.startSentence(first);
+        writer.writeOriginal(first);
+        writer.writeFailure(first, "first failure");
+        Properties checkpoint = new Properties();
+        writer.checkpoint(checkpoint);
+        // output written after the checkpoint by a run which is then interrupted
+        writer.startSentence(second);
+        writer.writeOriginal(second);
+        writer.writeFailure(second, "lost failure");
+        writer.close();
+
+        CorpusOutput.truncate(checkpoint);
+        writer = new CorpusWriter(new CorpusOutput(corpus.getPath(), true), new CorpusOutput(log.getPath(), true), false);
+        writer.restore(checkpoint);
+        assertEquals(1, writer.getSentenceCount());
+        assertEquals(1, writer.getFailureCount());
+        writer.startSentence(second);
+        writer.writeOriginal(second);
+        writer.close();
+        assertEquals(2, writer.getSentenceCount());
+
+        BufferedReader reader = new BufferedReader(new FileReader(corpus));
+        assertEquals(first.toString(), reader.readLine());
+        assertEquals(second.toString(), reader.readLine());
+        assertNull(reader.readLine());
+        reader.close();
+        reader = new BufferedReader(new FileReader(log));
+        assertEquals(first + "\tfirst failure", reader.readLine());
+        assertNull(reader.readLine());
+        reader.close();
+    }
+}
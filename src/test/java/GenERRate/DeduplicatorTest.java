@@ -0,0 +1,71 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests for finding repeated input sentences.
+ */
+public class DeduplicatorTest extends TestCase {
+
+    private List<Sentence> sentences;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        sentences = new ArrayList<Sentence>();
+        String[] texts = {"Dogs NNS bark VBP", "The DT dog NN barked VBD", "Dogs NNS bark VBP", "Cats NNS purr VBP", "Dogs NNS bark VBP"};
+        for (int i = 0; i < texts.length; i++) {
+            Sentence sentence = new Sentence(texts[i], true);
+            sentence.setId(i);
+            sentence.setSentenceSGML("<s n=\"" + i + "\" ");
+            sentences.add(sentence);
+        }
+    }
+
+    public void testResultsAreReusedUntilTheLastCopy() throws Exception {
+        Deduplicator repeats = new Deduplicator(sentences);
+        ErrorResult[] first = null;
+        for (int i = 0; i < sentences.size(); i++) {
+            Sentence sentence = sentences.get(i);
+            ErrorResult[] results = repeats.visit(sentence);
+            if (i == 0) {
+                assertNull(results);
+                assertTrue(repeats.isRepeated(sentence));
+                first = new ErrorResult[]{new ErrorResult(sentence, null, null, null, "no error")};
+                repeats.store(sentence, first);
+            } else if (i == 2 || i == 4) {
+                assertSame(first, results);
+                assertEquals(i == 2, repeats.isRepeated(sentence));
+            } else {
+                assertNull(results);
+                assertFalse(repeats.isRepeated(sentence));
+            }
+        }
+        assertEquals(2, repeats.getReusedSentences());
+        assertEquals("Repeated sentences: 5 input sentences, 3 distinct; the results of 2 sentences (2 insertions) were reused", repeats.getReport());
+    }
+
+    public void testRepeatsAreDropped() throws Exception {
+        List<Sentence> kept = new ArrayList<Sentence>(sentences);
+        assertEquals(2, Deduplicator.dropRepeats(kept));
+        assertEquals(3, kept.size());
+        assertEquals("Cats NNS purr VBP", kept.get(2).toString());
+        assertEquals(2, kept.get(2).getId());
+
+        int count = 0;
+        Iterator<Sentence> stream = Deduplicator.dropRepeats(sentences.iterator());
+        while (stream.hasNext()) {
+            assertEquals(count++, stream.next().getId());
+        }
+        assertEquals(3, count);
+    }
+
+    public void testFingerprintIsOfTheText() throws Exception {
+        assertEquals(sentences.get(0).getFingerprint(), sentences.get(2).getFingerprint());
+        assertFalse(sentences.get(0).getFingerprint() == sentences.get(1).getFingerprint());
+        assertEquals(ErrorUtilities.fingerprint("Dogs NNS bark VBP"), new Sentence(sentences.get(0)).getFingerprint());
+    }
+}
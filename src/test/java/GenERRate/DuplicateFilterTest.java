@@ -0,0 +1,144 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for leaving out errors which change nothing and duplicate ungrammatical sentences.
+ */
+public class DuplicateFilterTest extends TestCase {
+
+    private File corpus;
+    private File log;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        corpus = File.createTempFile("generrate", ".txt");
+        log = File.createTempFile("generrate", ".err");
+    }
+
+    public void tearDown() throws Exception {
+        corpus.delete();
+        log.delete();
+    }
+
+    public void testMoveOverTheSameWordIsRejected() throws Exception {
+        Sentence sentence = new Sentence("no no", false);
+        Error error = new MoveError(sentence);
+        assertEquals("no no", error.insertError(1).toStringNoTags());
+        error.setRejectingNoOps(true);
+        try {
+            error.insertError(1);
+            fail("A move which leaves the sentence unchanged should fail");
+        } catch (CannotCreateErrorException expected) {
+        }
+        error.setSentence(new Sentence("no yes", false));
+        assertEquals("yes no", error.insertError(1).toStringNoTags());
+    }
+
+    public void testFactorySetsTheRejection() throws Exception {
+        ErrorFactory factory = new ErrorFactory(new PartOfSpeech(), null, null);
+        factory.setRejectingNoOps(true);
+        Error error = factory.createError(ErrorSpec.compile(Collections.singletonList("move")).get(0), new Sentence("no no", false));
+        assertTrue(error.isRejectingNoOps());
+    }
+
+    public void testDuplicatesAreNotWritten() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+        Error error = new MoveError(sentence);
+        Sentence ungrammaticalSentence = error.insertError(1);
+        Sentence other = new Sentence("The DT cat NN barked VBD", true);
+        Sentence otherUngrammatical = new MoveError(other).insertError(1);
+
+        CorpusWriter writer = new CorpusWriter(new CorpusOutput(corpus.getPath()), new CorpusOutput(log.getPath()), false);
+        writer.setDuplicateFilter(new DuplicateFilter(16));
+        writer.startSentence(sentence);
+        assertTrue(writer.writeError(sentence, ungrammaticalSentence, error, 1));
+        assertFalse(writer.writeError(sentence, new Sentence(ungrammaticalSentence), error, 2));
+        writer.startSentence(other);
+        assertTrue(writer.writeError(other, otherUngrammatical, error, 1));
+        writer.close();
+
+        assertEquals(2, writer.getErrorCount());
+        assertEquals(1, writer.getDuplicateFilter().getSuppressed());
+        assertEquals(1, writer.getReports().size());
+        assertTrue(writer.getReports().get(0).startsWith(corpus.getPath() + ": "));
+        BufferedReader reader = new BufferedReader(new FileReader(corpus));
+        int lines = 0;
+        while (reader.readLine() != null) {
+            lines++;
+        }
+        reader.close();
+        assertEquals(2, lines);
+    }
+
+    public void testRepeatsWithOtherAttributesAreWritten() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+        sentence.setSentenceSGML("<s doc=\"1\"");
+        Sentence repeat = new Sentence("The DT dog NN barked VBD", true);
+        repeat.setSentenceSGML("<s doc=\"2\"");
+        Sentence sameAttributes = new Sentence("The DT dog NN barked VBD", true);
+        sameAttributes.setSentenceSGML("<s doc=\"1\"");
+        Error error = new MoveError(sentence);
+        Sentence ungrammaticalSentence = error.insertError(1);
+
+        DuplicateFilter filter = new DuplicateFilter(16);
+        assertFalse(filter.isDuplicate(sentence, ungrammaticalSentence, false));
+        assertFalse(filter.isDuplicate(repeat, ungrammaticalSentence, false));
+        assertTrue(filter.isDuplicate(sameAttributes, ungrammaticalSentence, false));
+    }
+
+    public void testRealisticCorporaAreFilledWithoutDuplicates() throws Exception {
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            //each sentence occurs five times
+            String text = "The DT dog" + (i % 20) + " NN barked VBD . .";
+            Sentence sentence = new Sentence(text, true);
+            sentence.setId(i);
+            sentences.add(sentence);
+            lines.append(text).append('\n');
+        }
+        ErrorGenerator generator = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("delete\tDT\t0.1", "delete\t0.05")),
+                new PartOfSpeech(), new ArrayList<String>(), new HashSet<String>());
+
+        CorpusWriter writer = new CorpusWriter(new CorpusOutput(corpus.getPath()), new CorpusOutput(log.getPath()), false);
+        writer.setDuplicateFilter(new DuplicateFilter(1024));
+        ParallelRealisticGenerator parallel = new ParallelRealisticGenerator(generator, 2, 3);
+        parallel.createRealisticErrorCorpus(sentences, 100, writer);
+        writer.close();
+        assertEquals(Arrays.toString(parallel.getQuotas()), Arrays.toString(parallel.getCounts()));
+        assertEquals(15, writer.getErrorCount());
+        assertTrue(writer.getDuplicateFilter().getSuppressed() > 0);
+
+        writer = new CorpusWriter(new CorpusOutput(corpus.getPath()), new CorpusOutput(log.getPath()), false);
+        writer.setDuplicateFilter(new DuplicateFilter(1024));
+        new StreamCorpusGenerator(generator).createRealisticErrorCorpus(
+                new SentenceReader(new BufferedReader(new StringReader(lines.toString())), true), 100, writer);
+        writer.close();
+        assertEquals(15, writer.getErrorCount());
+        assertEquals(0, writer.getDuplicateFilter().getSuppressed());
+    }
+
+    public void testTagsOnlyCountWhenWritten() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+        Sentence retagged = new Sentence("The DT dog VB barked VBD", true);
+        assertEquals(DuplicateFilter.fingerprint(sentence, sentence, false), DuplicateFilter.fingerprint(sentence, retagged, false));
+        assertFalse(DuplicateFilter.fingerprint(sentence, sentence, true) == DuplicateFilter.fingerprint(sentence, retagged, true));
+    }
+
+    public void testCapacityIsAPowerOfTwo() throws Exception {
+        assertEquals(1024, new DuplicateFilter(1000).getCapacity());
+        assertEquals(1024, new DuplicateFilter(1024).getCapacity());
+        assertEquals(1, new DuplicateFilter(0).getCapacity());
+    }
+}
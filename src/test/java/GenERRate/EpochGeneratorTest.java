@@ -0,0 +1,67 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for the endless epoch generator.
+ */
+public class EpochGeneratorTest extends TestCase {
+
+    private List<Sentence> sentences;
+    private ErrorGenerator generator;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        sentences = new ArrayList<Sentence>();
+        for (int i = 0; i < 50; i++) {
+            sentences.add(new Sentence("The DT dog NN number" + i + " CD saw VBD the DT big JJ cat NN . .", true));
+        }
+        generator = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("move\t0.75", "delete\t0.25", "subst\tNN\tNNS")),
+                new PartOfSpeech(), new ArrayList<String>(), new HashSet<String>());
+    }
+
+    public void testEpochsDifferButAreReproducible() {
+        EpochGenerator epochs = new EpochGenerator(sentences, generator, 42);
+        List<String> first = next(epochs);
+        assertEquals(1, epochs.getEpoch());
+        List<String> second = next(epochs);
+        assertFalse(first.equals(second));
+
+        EpochGenerator again = new EpochGenerator(sentences, generator, 42);
+        assertEquals(first, next(again));
+        again.startEpoch(1);
+        assertEquals(second, next(again));
+        assertFalse(first.equals(next(new EpochGenerator(sentences, generator, 43))));
+    }
+
+    public void testSpecsAreDrawnByProbability() {
+        EpochGenerator epochs = new EpochGenerator(sentences, generator, 7);
+        int moves = 0;
+        int specless = 0;
+        for (int i = 0; i < 2000; i++) {
+            ErrorResult result = epochs.next();
+            if (result.getSpec().getLineNumber() == 1) {
+                moves++;
+            } else if (result.getSpec().getLineNumber() == 3) {
+                specless++;
+            }
+        }
+        assertTrue(moves > 1350 && moves < 1650);
+        // the third spec has no probability, so it is never drawn
+        assertEquals(0, specless);
+    }
+
+    private List<String> next(EpochGenerator epochs) {
+        List<String> results = new ArrayList<String>();
+        for (int i = 0; i < sentences.size(); i++) {
+            ErrorResult result = epochs.next();
+            results.add(result.isSuccess() ? result.getUngrammaticalSentence().toString() : result.getFailure());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,78 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tests for inserting errors into sentences held in memory.
+ */
+public class ErrorGeneratorTest extends TestCase {
+
+    private ErrorGenerator generator;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        List<String> extraWords = new ArrayList<String>();
+        extraWords.add("the DT");
+        List<ErrorSpec> specs = ErrorSpec.compile(Arrays.asList("delete\tDT", "move", "nonsense"));
+        generator = new ErrorGenerator(specs, new PartOfSpeech(), extraWords, new HashSet<String>());
+    }
+
+    public void testEverySpecIsAppliedToEverySentence() {
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        sentences.add(new Sentence("The DT dog NN barked VBD . .", true));
+        sentences.add(new Sentence("Dogs NNS bark VBP . .", true));
+
+        List<ErrorResult> results = new ArrayList<ErrorResult>();
+        Iterator<ErrorResult> iterator = generator.generate(sentences);
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        assertEquals(6, results.size());
+        assertSame(sentences.get(0), results.get(0).getSentence());
+        assertEquals("dog barked .", results.get(0).getUngrammaticalSentence().toStringNoTags());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertNull(results.get(2).getError());
+        assertEquals(3, results.get(2).getSpec().getLineNumber());
+        assertSame(sentences.get(1), results.get(3).getSentence());
+        // there is no determiner to delete in the second sentence
+        assertFalse(results.get(3).isSuccess());
+        assertNotNull(results.get(3).getFailure());
+    }
+
+    public void testSentencesAreReadLazilyAndCancellationStopsIteration() {
+        final int[] read = {0};
+        Iterable<Sentence> endless = new Iterable<Sentence>() {
+            public Iterator<Sentence> iterator() {
+                return new Iterator<Sentence>() {
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    public Sentence next() {
+                        read[0]++;
+                        return new Sentence("The DT dog NN barked VBD . .", true);
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+        ErrorGenerator.Results results = generator.generate(endless);
+        for (int i = 0; i < 4; i++) {
+            results.next();
+        }
+        assertEquals(2, read[0]);
+        results.cancel();
+        assertFalse(results.hasNext());
+        assertEquals(2, read[0]);
+    }
+}
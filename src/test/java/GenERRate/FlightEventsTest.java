@@ -0,0 +1,43 @@
+package GenERRate;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the flight recorder events.
+ */
+public class FlightEventsTest extends TestCase {
+
+    public void testSlowInsertionRecordsTheSpecificationAndSentence() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+        sentence.setId(7);
+        File file = File.createTempFile("generrate", ".jfr");
+        Recording recording = new Recording();
+        recording.enable(FlightEventTypes.SlowInsertion.class).withThreshold(Duration.ZERO);
+        recording.start();
+        new DeletionError(sentence).insertError(3);
+        recording.stop();
+        recording.dump(file.toPath());
+        recording.close();
+
+        List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            if (event.getEventType().getName().equals("GenERRate.SlowInsertion")) {
+                events.add(event);
+            }
+        }
+        file.delete();
+        assertEquals(1, events.size());
+        assertEquals(3, events.get(0).getInt("specLine"));
+        assertEquals(7, events.get(0).getLong("sentenceId"));
+        assertEquals(3, events.get(0).getInt("sentenceLength"));
+        assertTrue(events.get(0).getBoolean("success"));
+    }
+}
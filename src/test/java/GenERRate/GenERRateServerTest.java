@@ -0,0 +1,89 @@
+package GenERRate;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import junit.framework.TestCase;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tests for the local server mode.
+ */
+public class GenERRateServerTest extends TestCase {
+
+    private File words;
+    private File specs;
+    private GenERRateServer server;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        words = File.createTempFile("generrate", ".words");
+        write(words, "the DT");
+        specs = File.createTempFile("generrate", ".spec");
+        write(specs, "delete\tDT");
+        Map<String, String> specFiles = new TreeMap<String, String>();
+        specFiles.put("det", specs.getPath());
+        server = new GenERRateServer(new PartOfSpeech(), new HashSet<String>(), words.getPath(), specFiles);
+        server.start(0, 2);
+    }
+
+    public void tearDown() throws Exception {
+        server.stop();
+        words.delete();
+        specs.delete();
+    }
+
+    public void testGenerateAndReload() throws Exception {
+        JsonArray results = post("/generate?specs=det", "The DT dog NN barked VBD . .\nDogs NNS bark VBP . .").getAsJsonArray("results");
+        assertEquals(2, results.size());
+        assertEquals("dog barked .", results.get(0).getAsJsonObject().get("corrupted").getAsString());
+        assertTrue(results.get(1).getAsJsonObject().has("failure"));
+
+        write(specs, "move\nsubst");
+        post("/reload", "");
+        results = post("/generate?specs=det", "The DT dog NN barked VBD . .").getAsJsonArray("results");
+        assertEquals(2, results.size());
+        assertEquals(2, results.get(1).getAsJsonObject().get("specLine").getAsInt());
+
+        JsonObject stats = post("/stats", "");
+        assertEquals(2, stats.get("requests").getAsInt());
+        assertEquals(3, stats.get("sentences").getAsInt());
+        assertTrue(stats.getAsJsonObject("latencyMs").get("p99").getAsDouble() > 0);
+    }
+
+    public void testUnknownSpecSetIsAnError() throws Exception {
+        assertEquals(400, open("/generate", "The DT dog NN barked VBD . .").getResponseCode());
+        assertEquals(404, open("/generate?specs=noun", "The DT dog NN barked VBD . .").getResponseCode());
+    }
+
+    private JsonObject post(String path, String body) throws IOException {
+        HttpURLConnection connection = open(path, body);
+        assertEquals(200, connection.getResponseCode());
+        Reader reader = new InputStreamReader(connection.getInputStream(), "UTF-8");
+        JsonObject response = new JsonParser().parse(reader).getAsJsonObject();
+        reader.close();
+        return response;
+    }
+
+    private HttpURLConnection open(String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        OutputStream out = connection.getOutputStream();
+        out.write(body.getBytes("UTF-8"));
+        out.close();
+        return connection;
+    }
+
+    private static void write(File file, String text) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(file));
+        writer.println(text);
+        writer.close();
+    }
+}
@@ -0,0 +1,111 @@
+package GenERRate;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the JSON lines output and the edits recorded by the error classes.
+ */
+public class JsonCorpusWriterTest extends TestCase {
+
+    private File corpus;
+    private File log;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        corpus = File.createTempFile("generrate", ".jsonl");
+        log = File.createTempFile("generrate", ".err");
+    }
+
+    public void tearDown() throws Exception {
+        corpus.delete();
+        log.delete();
+    }
+
+    public void testRecordHoldsTokensAndEdits() throws Exception {
+        Sentence sentence = new Sentence("It PRP worked VBD mainly RB on IN developing VBG flight NN control NN . .", true);
+        sentence.setId(7);
+        PartOfSpeech tagSet = new PartOfSpeech();
+        Error error = new SubstWrongFormError(sentence, tagSet, tagSet.VERB_PRES_PART, tagSet.VERB_THIRD_SING, null, null);
+        Sentence ungrammaticalSentence = error.insertError();
+
+        JsonCorpusWriter writer = new JsonCorpusWriter(new CorpusOutput(corpus.getPath()), new CorpusOutput(log.getPath()), true);
+        writer.startSentence(sentence);
+        writer.writeOriginal(sentence);
+        writer.writeError(sentence, ungrammaticalSentence, error, 3);
+        writer.writeSeparator(sentence);
+        writer.close();
+
+        BufferedReader reader = new BufferedReader(new FileReader(corpus));
+        JsonObject record = new JsonParser().parse(reader.readLine()).getAsJsonObject();
+        assertNull(reader.readLine());
+        reader.close();
+
+        assertEquals(7, record.get("id").getAsLong());
+        assertEquals("SubstWrongFormError", record.get("errorClass").getAsString());
+        assertEquals(3, record.get("specLine").getAsInt());
+        assertEquals("developing", record.getAsJsonArray("original").get(4).getAsString());
+        assertEquals("develops", record.getAsJsonArray("corrupted").get(4).getAsString());
+        assertEquals("VBZ", record.getAsJsonArray("corruptedTags").get(4).getAsString());
+        JsonObject edit = record.getAsJsonArray("edits").get(0).getAsJsonObject();
+        assertEquals(Edit.SUBST, edit.get("op").getAsString());
+        assertEquals(4, edit.get("from").getAsInt());
+        assertEquals("developing", edit.get("old").getAsString());
+        assertEquals("develops", edit.get("new").getAsString());
+    }
+
+    public void testEditsTurnOriginalIntoCorrupted() throws Exception {
+        Sentence sentence = new Sentence("He PRP is VBZ going VBG to TO go VB home NN today NN . .", true);
+        PartOfSpeech tagSet = new PartOfSpeech();
+        List<String> extraWords = new ArrayList<String>();
+        extraWords.add("house NN");
+        extraWords.add("the DT");
+        Error[] errors = {
+                new DeletionError(sentence),
+                new DeletionWordError(sentence, "home"),
+                new InsertionError(sentence, extraWords),
+                new MoveError(sentence),
+                new MovePOSWhereError(sentence, "NN", true, 2),
+                new SubstError(sentence, extraWords),
+                new SubstWrongFormError(sentence, tagSet, tagSet.VERB_PRES_PART, tagSet.INF, null, null),
+                new SubstWrongFormError(sentence, tagSet, tagSet.INF, tagSet.VERB_PRES_PART, null, null)
+        };
+        for (Error error : errors) {
+            Sentence ungrammaticalSentence = error.insertError();
+            List<String> tokens = new ArrayList<String>();
+            for (Word word : sentence.getWords()) {
+                tokens.add(word.getToken());
+            }
+            for (Edit edit : ungrammaticalSentence.getEdits()) {
+                if (edit.getOperation().equals(Edit.DELETE)) {
+                    assertEquals(edit.getOldWord().getToken(), tokens.remove(edit.getFrom()));
+                } else if (edit.getOperation().equals(Edit.INSERT)) {
+                    tokens.add(edit.getTo(), edit.getNewWord().getToken());
+                } else if (edit.getOperation().equals(Edit.MOVE)) {
+                    tokens.add(edit.getTo(), tokens.remove(edit.getFrom()));
+                } else {
+                    assertEquals(edit.getOldWord().getToken(), tokens.set(edit.getFrom(), edit.getNewWord().getToken()));
+                }
+            }
+            assertEquals(error.getClass().getSimpleName(), ungrammaticalSentence.toStringNoTags(), join(tokens));
+        }
+    }
+
+    private static String join(List<String> tokens) {
+        StringBuilder joined = new StringBuilder();
+        for (String token : tokens) {
+            if (joined.length() > 0) {
+                joined.append(' ');
+            }
+            joined.append(token);
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for the manifest used to update a complete error corpus.
+ */
+public class ManifestTest extends TestCase {
+
+    private File file;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("generrate", ".manifest");
+    }
+
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testManifestIsReadBack() throws Exception {
+        List<String> specs = Arrays.asList("delete\t0.1", "move\t0.2", "insert\tfile\t0.1", "subst\tthe\ta", "delete\tDT\t0.1");
+        Manifest manifest = new Manifest(1, 2, 3, "sgml", specs);
+        manifest.setInserted(0, 0, true);
+        manifest.setInserted(1, 4, true);
+        manifest.setInserted(2, 3, true);
+        manifest.setInserted(2, 1, true);
+        manifest.write(file.getPath());
+
+        Manifest read = Manifest.read(file.getPath());
+        assertEquals(specs, read.getSpecs());
+        for (int i = 0; i < 3; i++) {
+            for (int k = 0; k < specs.size(); k++) {
+                assertEquals(manifest.isInserted(i, k), read.isInserted(i, k));
+            }
+        }
+        assertNull(read.getMismatch(1, 2, 3, "sgml"));
+        assertNotNull(read.getMismatch(1, 2, 4, "sgml"));
+        assertNotNull(read.getMismatch(7, 2, 3, "sgml"));
+        assertNotNull(read.getMismatch(1, 2, 3, "json"));
+        assertNull(Manifest.read(file.getPath() + ".missing"));
+    }
+
+    public void testLargeCorporaAreRecorded() throws Exception {
+        //ten million sentences and 215 lines need more bits than an int can index
+        List<String> specs = Collections.nCopies(215, "delete\t0.1");
+        Manifest manifest = new Manifest(1, 2, 10000000, "sgml", specs);
+        manifest.setInserted(9999999, 214, true);
+        manifest.setInserted(9999999, 213, true);
+        manifest.setInserted(9999999, 213, false);
+        assertTrue(manifest.isInserted(9999999, 214));
+        assertFalse(manifest.isInserted(9999999, 213));
+        assertFalse(manifest.isInserted(0, 0));
+        assertFalse(manifest.isInserted(9999998, 214));
+    }
+
+    public void testLinesAreMatchedByText() throws Exception {
+        Manifest manifest = new Manifest(1, 2, 0, "sgml", Arrays.asList("move\t0.2", "delete\t0.1", "move\t0.2"));
+        List<ErrorSpec> specs = ErrorSpec.compile(Arrays.asList("delete\t0.1", "move\t0.2", "delete\t0.5", "move\t0.2", "move\t0.2"));
+        int[] matches = manifest.match(specs);
+        assertEquals(1, matches[0]);
+        assertEquals(0, matches[1]);
+        assertEquals(-1, matches[2]);
+        assertEquals(2, matches[3]);
+        assertEquals(-1, matches[4]);
+    }
+}
@@ -0,0 +1,84 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for reading a corpus kept in many files.
+ */
+public class MultiFileSentenceReaderTest extends TestCase {
+
+    private File directory;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        directory = Files.createTempDirectory("generrate").toFile();
+        for (int i = 0; i < 25; i++) {
+            PrintWriter writer = new PrintWriter(new FileWriter(new File(directory, String.format("doc%03d.txt", i))));
+            for (int j = 0; j < i % 4; j++) {
+                writer.println("<s doc=\"" + i + "\">Sentence NN " + j + " CD</s>");
+            }
+            writer.close();
+        }
+        write(new File(directory, "notes.md"), "Not NN a DT sentence NN");
+    }
+
+    public void tearDown() throws Exception {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    public void testSentencesComeInFileOrder() throws Exception {
+        List<Sentence> sentences = read(directory.getPath() + File.separator + "doc*.txt");
+        assertEquals(36, sentences.size());
+        assertEquals(" doc=\"1\" ", sentences.get(0).getSentenceSGML().substring(2));
+        assertEquals("Sentence NN 0 CD", sentences.get(0).toString());
+        assertEquals(" doc=\"23\" ", sentences.get(35).getSentenceSGML().substring(2));
+        for (int i = 0; i < sentences.size(); i++) {
+            assertEquals(i, sentences.get(i).getId());
+        }
+
+        // a directory gives all its files
+        sentences = read(directory.getPath());
+        assertEquals(37, sentences.size());
+        assertEquals("Not NN a DT sentence NN", sentences.get(36).toString());
+    }
+
+    public void testFileSetsAreRecognised() throws Exception {
+        assertTrue(MultiFileSentenceReader.isFileSet(directory.getPath()));
+        assertTrue(MultiFileSentenceReader.isFileSet("corpus/*.txt"));
+        assertFalse(MultiFileSentenceReader.isFileSet(new File(directory, "notes.md").getPath()));
+        File bracketed = new File(directory, "corpus[1].txt");
+        write(bracketed, "A DT sentence NN");
+        assertFalse(MultiFileSentenceReader.isFileSet(bracketed.getPath()));
+        assertTrue(MultiFileSentenceReader.isFileSet(new File(directory, "corpus[12].txt").getPath()));
+        assertEquals("corpus", MultiFileSentenceReader.getBaseDirectory("corpus/part-?.txt"));
+        assertEquals(".", MultiFileSentenceReader.getBaseDirectory("*.txt"));
+    }
+
+    private List<Sentence> read(String input) throws IOException {
+        MultiFileSentenceReader reader = new MultiFileSentenceReader(MultiFileSentenceReader.listFiles(input), true, 3);
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        while (reader.hasNext()) {
+            sentences.add(reader.next());
+        }
+        reader.close();
+        assertEquals(sentences.size(), reader.getCount());
+        return sentences;
+    }
+
+    private static void write(File file, String text) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(file));
+        writer.println(text);
+        writer.close();
+    }
+}
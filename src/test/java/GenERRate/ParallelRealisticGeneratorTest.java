@@ -0,0 +1,59 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for creating a realistic error corpus on several threads.
+ */
+public class ParallelRealisticGeneratorTest extends TestCase {
+
+    private List<Sentence> sentences;
+    private ErrorGenerator generator;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        sentences = new ArrayList<Sentence>();
+        for (int i = 0; i < 300; i++) {
+            Sentence sentence = new Sentence(i % 3 == 0 ? "Dogs NNS bark" + i + " VBP . ." : "The DT dog NN barked" + i + " VBD . .", true);
+            sentence.setId(i);
+            sentences.add(sentence);
+        }
+        generator = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("delete\tDT\t0.4", "move\t0.1", "subst\tVBZ\tVBP\t0.1")),
+                new PartOfSpeech(), new ArrayList<String>(), new HashSet<String>());
+    }
+
+    public void testQuotasAreMetExactlyWithEachSentenceUsedOnce() throws Exception {
+        ParallelRealisticGenerator parallel = new ParallelRealisticGenerator(generator, 3, 11);
+        String corpus = generate(parallel);
+        assertEquals(Arrays.toString(new int[]{200, 50, 50}), Arrays.toString(parallel.getQuotas()));
+        // there are only 200 sentences with a determiner and none with VBZ
+        assertEquals(Arrays.toString(new int[]{200, 50, 0}), Arrays.toString(parallel.getCounts()));
+        String[] lines = corpus.split("\n");
+        assertEquals(250, lines.length);
+        Set<String> originals = new HashSet<String>();
+        for (String line : lines) {
+            assertTrue(line, originals.add(line.substring(line.indexOf("original="))));
+        }
+    }
+
+    public void testCorpusDependsOnlyOnSeedAndThreads() throws Exception {
+        String corpus = generate(new ParallelRealisticGenerator(generator, 4, 11));
+        assertEquals(corpus, generate(new ParallelRealisticGenerator(generator, 4, 11)));
+        assertFalse(corpus.equals(generate(new ParallelRealisticGenerator(generator, 4, 12))));
+    }
+
+    private String generate(ParallelRealisticGenerator parallel) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CorpusWriter writer = new CorpusWriter(new CorpusOutput(output, "output"), new CorpusOutput(new ByteArrayOutputStream(), "log"), false);
+        parallel.createRealisticErrorCorpus(sentences, 500, writer);
+        writer.close();
+        return output.toString();
+    }
+}
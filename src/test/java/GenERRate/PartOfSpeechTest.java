@@ -0,0 +1,105 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Tests for using several tagsets in one JVM.
+ */
+public class PartOfSpeechTest extends TestCase {
+
+    public void testIdsDependOnTheTagset() {
+        PartOfSpeech wsj = new PartOfSpeech("WSJ");
+        PartOfSpeech claws = new PartOfSpeech("CLAWS");
+        assertEquals(wsj.PLURAL_NOUN_ID, wsj.getId("NNS"));
+        assertEquals(-1, claws.getId("NNS"));
+        assertEquals(claws.PLURAL_NOUN_ID, claws.getId("NN2"));
+        assertEquals(-1, wsj.getId("DT"));
+        assertEquals(-1, wsj.getId(null));
+    }
+
+    public void testTagsAreCompiledIntoIds() {
+        PartOfSpeech claws = new PartOfSpeech("CLAWS");
+        // the base form and the non-third-singular present share a tag in CLAWS
+        assertEquals(claws.VERB_BASE_ID, claws.VERB_NON_THIRD_SING_ID);
+        assertEquals(14, claws.size());
+        assertEquals("NN2", claws.getTag(claws.getId("NN2")));
+        assertEquals(claws.ADJ_SUP_ID, claws.getId("JJT"));
+    }
+
+    public void testTagsetIsReadFromADefinitionFile() throws Exception {
+        File definition = File.createTempFile("generrate", ".tagset");
+        try {
+            PrintWriter writer = new PrintWriter(new FileWriter(definition));
+            writer.println("# nouns");
+            for (String role : PartOfSpeech.ROLES) {
+                writer.println(role + "\t" + (role.equals("SINGULAR_NOUN") ? "N_SG" : role.equals("PLURAL_NOUN") ? "N_PL" : "OTHER"));
+            }
+            writer.close();
+            PartOfSpeech tagSet = new PartOfSpeech(definition.getPath());
+            assertEquals("N_PL", tagSet.PLURAL_NOUN);
+            assertEquals(3, tagSet.size());
+            assertEquals(tagSet.ADV_ID, tagSet.INF_ID);
+            assertEquals(tagSet.SINGULAR_NOUN_ID, tagSet.getId("N_SG"));
+            assertEquals(tagSet.VERB_BASE_ID, tagSet.getId("OTHER"));
+            assertEquals("OTHER", tagSet.getRoleTag("PREP"));
+
+            writer = new PrintWriter(new FileWriter(definition));
+            writer.println("SINGULAR_NOUN N_SG");
+            writer.close();
+            try {
+                new PartOfSpeech(definition.getPath());
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("PLURAL_NOUN"));
+            }
+        } finally {
+            definition.delete();
+        }
+        try {
+            new PartOfSpeech(definition.getPath());
+            fail("A missing tagset definition file is not a tagset");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(definition.getPath()));
+        }
+    }
+
+    public void testGeneratorsWithDifferentTagsetsRunInParallel() throws Exception {
+        final ErrorGenerator wsj = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("subst\tNN\tNNS")),
+                new PartOfSpeech("WSJ"), new ArrayList<String>(), new HashSet<String>());
+        final ErrorGenerator claws = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("subst\tNN1\tNN2")),
+                new PartOfSpeech("CLAWS"), new ArrayList<String>(), new HashSet<String>());
+        final List<String> failures = new ArrayList<String>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final boolean isWsj = t % 2 == 0;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 500; i++) {
+                        ErrorResult result = isWsj
+                                ? wsj.generate(new Sentence("The DT dog NN barked VBD", true), wsj.getSpecs().get(0))
+                                : claws.generate(new Sentence("The AT dog NN1 barked VVD", true), claws.getSpecs().get(0));
+                        String expected = isWsj ? "The DT dogs NNS barked VBD" : "The AT dogs NN2 barked VVD";
+                        if (!result.isSuccess() || !expected.equals(result.getUngrammaticalSentence().toString())) {
+                            synchronized (failures) {
+                                failures.add(result.isSuccess() ? result.getUngrammaticalSentence().toString() : result.getFailure());
+                            }
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(new ArrayList<String>(), failures);
+    }
+}
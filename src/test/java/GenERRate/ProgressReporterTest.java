@@ -0,0 +1,64 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Properties;
+
+/**
+ * Tests for the progress reports written during a run.
+ */
+public class ProgressReporterTest extends TestCase {
+
+    public void testStatusFileHoldsTheLatestCounts() throws Exception {
+        File statusFile = File.createTempFile("generrate", ".status");
+        CorpusWriter writer = new CorpusWriter(new CorpusOutput(new ByteArrayOutputStream(), "output"), new CorpusOutput(new ByteArrayOutputStream(), "log"), false);
+        ProgressReporter progress = new ProgressReporter(writer, 4, false, 2, statusFile.getPath(), 60);
+        progress.setQuota(1, 3);
+        for (int i = 0; i < 3; i++) {
+            Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+            sentence.setId(i);
+            writer.startSentence(sentence);
+            writer.writeFailure(sentence, "no error");
+        }
+        progress.fill(1);
+        progress.fill(1);
+        progress.report();
+
+        Properties status = read(statusFile);
+        assertEquals("3", status.getProperty("done"));
+        assertEquals("4", status.getProperty("total"));
+        assertEquals("3", status.getProperty("failures"));
+        assertEquals("2/3", status.getProperty("spec.2"));
+        assertNull(status.getProperty("spec.1"));
+        assertNotNull(status.getProperty("rate.60s"));
+        assertNotNull(status.getProperty("etaSeconds"));
+        writer.close();
+        statusFile.delete();
+    }
+
+    public void testStopMakesAFinalReport() throws Exception {
+        File statusFile = File.createTempFile("generrate", ".status");
+        statusFile.delete();
+        CorpusWriter writer = new CorpusWriter(new CorpusOutput(new ByteArrayOutputStream(), "output"), new CorpusOutput(new ByteArrayOutputStream(), "log"), false);
+        ProgressReporter progress = new ProgressReporter(writer, 0, true, 0, statusFile.getPath(), 3600);
+        progress.start();
+        progress.stop();
+        assertTrue(statusFile.exists());
+        assertEquals("0", read(statusFile).getProperty("errors"));
+        statusFile.delete();
+    }
+
+    private static Properties read(File file) throws Exception {
+        Properties properties = new Properties();
+        FileReader reader = new FileReader(file);
+        try {
+            properties.load(reader);
+        } finally {
+            reader.close();
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,82 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+
+/**
+ * Tests for keeping the results of inserting errors from one run to the next.
+ */
+public class ResultCacheTest extends TestCase {
+
+    private File file;
+    private Sentence sentence;
+    private ErrorSpec move;
+    private ErrorSpec delete;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        file = File.createTempFile("generrate", ".cache");
+        file.delete();
+        sentence = new Sentence("The DT dog NN barked VBD loudly RB", true);
+        move = new ErrorSpec("move\t0.5", 1);
+        delete = new ErrorSpec("delete\tword\tthe", 2);
+    }
+
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    public void testResultsAreReadInTheNextRun() throws Exception {
+        Error error = new MoveError(sentence);
+        Sentence ungrammaticalSentence = error.insertError();
+        ErrorResult failure = new ErrorResult(sentence, delete, null, null, "Cannot delete word.");
+
+        ResultCache cache = new ResultCache(file.getPath(), 1 << 20, 42);
+        long moveKey = cache.getSpecKey(move, 0);
+        long deleteKey = cache.getSpecKey(delete, 0);
+        assertNull(cache.get(sentence, move, moveKey));
+        cache.put(sentence, moveKey, new ErrorResult(sentence, move, error, ungrammaticalSentence, null));
+        cache.put(sentence, deleteKey, failure);
+        cache.close();
+
+        cache = new ResultCache(file.getPath(), 1 << 20, 42);
+        assertEquals(2, cache.size());
+        ErrorResult result = cache.get(new Sentence("The DT dog NN barked VBD loudly RB", true), move, moveKey);
+        assertTrue(result.isSuccess());
+        assertEquals(ungrammaticalSentence.toString(), result.getUngrammaticalSentence().toString());
+        assertEquals(ungrammaticalSentence.getErrorDescription(), result.getUngrammaticalSentence().getErrorDescription());
+        assertEquals(ungrammaticalSentence.getEdits().toString(), result.getUngrammaticalSentence().getEdits().toString());
+        assertEquals("MoveError", result.getError().getErrorClass());
+        assertEquals(error.toString(), result.getError().toString());
+        assertEquals("Cannot delete word.", cache.get(sentence, delete, deleteKey).getFailure());
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    public void testKeyDependsOnTheSetup() throws Exception {
+        ResultCache cache = new ResultCache(file.getPath(), 1 << 20, 42);
+        assertEquals(cache.getSpecKey(move, 0), cache.getSpecKey(new ErrorSpec("move\t\t0.5\t", 7), 0));
+        assertFalse(cache.getSpecKey(move, 0) == cache.getSpecKey(move, 1));
+        assertFalse(cache.getSpecKey(move, 0) == new ResultCache(file.getPath(), 1 << 20, 43).getSpecKey(move, 0));
+        assertFalse(ResultCache.getKey(sentence, 1) == ResultCache.getKey(new Sentence("The DT dog NN barked VBD", true), 1));
+    }
+
+    public void testLeastRecentlyUsedAreEvicted() throws Exception {
+        ResultCache cache = new ResultCache(file.getPath(), 300, 42);
+        Sentence[] sentences = new Sentence[4];
+        for (int i = 0; i < sentences.length; i++) {
+            sentences[i] = new Sentence("Sentence NN " + i + " CD", true);
+            cache.put(sentences[i], 1, new ErrorResult(sentences[i], move, null, null, "A failure message which makes the entry about ninety bytes long"));
+            if (i == 2) {
+                assertNotNull(cache.get(sentences[0], move, 1));
+            }
+        }
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvicted());
+        assertNull(cache.get(sentences[1], move, 1));
+        assertNotNull(cache.get(sentences[0], move, 1));
+        cache.close();
+        assertTrue(file.length() <= 300);
+    }
+}
@@ -0,0 +1,56 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+/**
+ * Tests for the analysis of a sentence shared by the errors inserted into it.
+ */
+public class SentenceAnalysisTest extends TestCase {
+
+    public void testPositionsOfTagsAndTokens() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN saw VBD the DT cat NN", true);
+        SentenceAnalysis analysis = sentence.getAnalysis();
+        assertEquals(5, analysis.size());
+        assertEquals("[0, 3]", Arrays.toString(analysis.getPositions("DT")));
+        assertEquals("[1, 4]", Arrays.toString(analysis.getPositions("NN")));
+        assertEquals("[]", Arrays.toString(analysis.getPositions("JJ")));
+        assertEquals("[0, 3]", Arrays.toString(analysis.getBigramPositions("DT", "NN")));
+        assertEquals("[1]", Arrays.toString(analysis.getBigramPositions("NN", "VBD")));
+        assertEquals("[]", Arrays.toString(analysis.getBigramPositions("NN", "DT")));
+        assertEquals("[3]", Arrays.toString(analysis.getTokenPositions("the")));
+        assertEquals(analysis.getTagId(0), analysis.getTagId(3));
+        assertEquals(-1, analysis.getTagId("JJ"));
+        assertTrue(analysis.hasTag(4, "NN"));
+        assertFalse(analysis.hasTag(5, "NN"));
+        assertEquals("The DT dog NN saw VBD the DT cat NN", analysis.toString());
+        assertEquals("The dog saw the cat", analysis.toStringNoTags());
+    }
+
+    public void testAnalysisIsSharedUntilTheWordsChange() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+        SentenceAnalysis analysis = sentence.getAnalysis();
+        Sentence copy = new Sentence(sentence);
+        assertSame(analysis, copy.getAnalysis());
+        copy.removeWord(0);
+        assertNotSame(analysis, copy.getAnalysis());
+        assertEquals("dog NN barked VBD", copy.toString());
+        assertEquals("[0]", Arrays.toString(copy.getAnalysis().getPositions("NN")));
+        assertSame(analysis, sentence.getAnalysis());
+        sentence.releaseAnalysis();
+        assertNotSame(analysis, sentence.getAnalysis());
+        assertEquals("The DT dog NN barked VBD", sentence.toString());
+    }
+
+    public void testErrorsReadTheAnalysis() throws Exception {
+        Sentence sentence = new Sentence("The DT dog NN saw VBD the DT cat NN", true);
+        assertEquals("The DT saw VBD the DT cat NN", new DeletionPOSWhereError(sentence, "NN", "VBD", false).insertError().toString());
+        assertEquals("The DT dog NN saw VBD cat NN", new DeletionPOSWhereError(sentence, "DT", "VBD", true).insertError().toString());
+        try {
+            new DeletionPOSWhereError(sentence, "NN", "JJ", false).insertError();
+            fail("There is no NN followed by JJ in the sentence");
+        } catch (CannotCreateErrorException expected) {
+        }
+    }
+}
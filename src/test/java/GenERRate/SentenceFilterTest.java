@@ -0,0 +1,60 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for choosing the input sentences as they are read.
+ */
+public class SentenceFilterTest extends TestCase {
+
+    private static final String CORPUS = "<s genre=\"news\" id=\"1\">Dogs NNS bark VBP . .</s>\n"
+            + "<s genre=\"fiction\" id=\"2\">The DT old JJ dog NN barked VBD . .</s>\n"
+            + "<s genre='news' id=3>It PRP rained VBD</s>\n"
+            + "<s id=\"4\" subgenre=\"news\">The DT dog NN sat VBD on IN the DT mat NN . .</s>\n";
+
+    public void testWordRangeAndAttributes() throws Exception {
+        SentenceFilter filter = SentenceFilter.create("3,5", null, Arrays.asList("genre~^(news|fiction)$"));
+        List<Sentence> sentences = read(filter);
+        assertEquals(2, sentences.size());
+        assertEquals("Dogs NNS bark VBP . .", sentences.get(0).toString());
+        assertEquals(0, sentences.get(0).getId());
+        assertEquals("The DT old JJ dog NN barked VBD . .", sentences.get(1).toString());
+        assertEquals(1, sentences.get(1).getId());
+        assertEquals("Kept 2 of 4 sentences: 1 too short, 1 too long, 0 without the attributes, 0 not in the sample", filter.getReport());
+
+        filter = SentenceFilter.create(null, null, Arrays.asList("genre=news"));
+        sentences = read(filter);
+        assertEquals(2, sentences.size());
+        assertEquals("It PRP rained VBD", sentences.get(1).toString());
+        assertEquals(2, filter.getRejected());
+    }
+
+    public void testSampleIsTheSameForTheSameSentence() throws Exception {
+        SentenceFilter filter = SentenceFilter.create(null, "0.3", new ArrayList<String>());
+        int kept = 0;
+        for (int i = 0; i < 10000; i++) {
+            boolean accepted = filter.accept("Sentence NN " + i + " CD", "<s ", true);
+            assertEquals(accepted, filter.accept("Sentence NN " + i + " CD", "<s id=\"" + i + "\" ", true));
+            if (accepted) {
+                kept++;
+            }
+        }
+        assertTrue(String.valueOf(kept), kept > 2800 && kept < 3200);
+        assertNull(SentenceFilter.create(null, null, new ArrayList<String>()));
+    }
+
+    private static List<Sentence> read(SentenceFilter filter) {
+        SentenceReader reader = new SentenceReader(new BufferedReader(new StringReader(CORPUS)), true, filter);
+        List<Sentence> sentences = new ArrayList<Sentence>();
+        while (reader.hasNext()) {
+            sentences.add(reader.next());
+        }
+        return sentences;
+    }
+}
@@ -0,0 +1,45 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Tests for the sampler of the slowest insertions.
+ */
+public class SlowSentenceSamplerTest extends TestCase {
+
+    public void testOnlyTheSlowestAreKept() throws Exception {
+        SlowSentenceSampler sampler = new SlowSentenceSampler(3);
+        for (int i = 0; i < 10; i++) {
+            Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+            sentence.setId(i);
+            sampler.record(sentence, 1 + i % 2, "errortype=\"DeletionError\"", (i * 7) % 10 * 1000000L);
+        }
+        List<SlowSentenceSampler.Sample> samples = sampler.getSamples();
+        assertEquals(3, samples.size());
+        // the times are 0, 7, 4, 1, 8, 5, 2, 9, 6, 3 ms
+        assertEquals(7, samples.get(0).getSentence().getId());
+        assertEquals(9000000L, samples.get(0).getNanos());
+        assertEquals(2, samples.get(0).getSpecLine());
+        assertEquals(4, samples.get(1).getSentence().getId());
+        assertEquals(1, samples.get(2).getSentence().getId());
+    }
+
+    public void testReportGivesTheLengths() throws Exception {
+        SlowSentenceSampler sampler = new SlowSentenceSampler(5);
+        Sentence sentence = new Sentence("The DT dog NN barked VBD", true);
+        new DeletionError(sentence).insertError(4, sampler);
+        File file = File.createTempFile("generrate", ".slow");
+        sampler.writeReport(file.getPath());
+        List<String> lines = GenERRate.readLines(file.getPath());
+        file.delete();
+        assertEquals(2, lines.size());
+        String[] fields = lines.get(1).split("\t");
+        assertEquals("4", fields[1]);
+        assertEquals("3", fields[4]);
+        assertEquals(String.valueOf(sentence.toString().length()), fields[5]);
+        assertEquals(sentence.toString(), fields[6]);
+    }
+}
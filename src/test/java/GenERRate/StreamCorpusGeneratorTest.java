@@ -0,0 +1,49 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Tests for creating error corpora from a stream of sentences.
+ */
+public class StreamCorpusGeneratorTest extends TestCase {
+
+    public void testRealisticCorpusSamplesEachErrorType() throws Exception {
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            corpus.append("<s id=\"").append(i).append("\">The DT dog NN barked VBD . .</s>\n");
+            corpus.append("Dogs NNS bark VBP . .\n");
+        }
+        ErrorGenerator generator = new ErrorGenerator(ErrorSpec.compile(Arrays.asList("delete\tDT\t0.1", "move\t0.05")),
+                new PartOfSpeech(), new ArrayList<String>(), new HashSet<String>());
+        SentenceReader sentences = new SentenceReader(new BufferedReader(new StringReader(corpus.toString())), true);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        CorpusWriter writer = new CorpusWriter(new CorpusOutput(output, "output"), new CorpusOutput(log, "log"), false);
+
+        new StreamCorpusGenerator(generator).createRealisticErrorCorpus(sentences, 100, writer);
+        writer.close();
+
+        assertEquals(400, sentences.getCount());
+        assertEquals(15, writer.getErrorCount());
+        // only the sentences with a determiner can have it deleted
+        assertEquals(200, writer.getFailureCount());
+        String[] lines = output.toString().split("\n");
+        assertEquals(15, lines.length);
+        int previousId = -1;
+        for (int i = 0; i < 10; i++) {
+            assertTrue(lines[i], lines[i].contains("errortype=\"Deletion"));
+            int id = Integer.parseInt(lines[i].substring(lines[i].indexOf('"') + 1, lines[i].indexOf('"', lines[i].indexOf('"') + 1)));
+            // the sample is written in the order the sentences were read
+            assertTrue(id > previousId);
+            previousId = id;
+        }
+        assertTrue(lines[14].contains("errortype=\"MoveError\""));
+    }
+}
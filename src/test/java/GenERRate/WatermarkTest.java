@@ -0,0 +1,112 @@
+package GenERRate;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.Properties;
+
+/**
+ * Tests for the realistic error corpus and for adding to it the results for the sentences added to
+ * the input corpus.
+ */
+public class WatermarkTest extends TestCase {
+
+    private File corpus;
+    private File spec;
+    private File words;
+    private File output;
+    private File log;
+
+    public void setUp() throws Exception {
+        super.setUp();
+        corpus = File.createTempFile("generrate", ".corpus");
+        spec = File.createTempFile("generrate", ".spec");
+        words = File.createTempFile("generrate", ".words");
+        output = File.createTempFile("generrate", ".txt");
+        log = File.createTempFile("generrate", ".err");
+        write(spec, "delete\t0.5", "move\t0.5");
+        write(words, "cat NN");
+    }
+
+    public void tearDown() throws Exception {
+        for (File file : new File[]{corpus, spec, words, output, log, new File(output.getPath() + ".watermark")}) {
+            file.delete();
+        }
+    }
+
+    public void testQuotasAreMet() throws Exception {
+        writeCorpus(20);
+        GenERRate generrate = new GenERRate(corpus.getPath(), true, spec.getPath(), words.getPath());
+        generrate.createRealisticErrorCorpusOneToOne(20, output.getPath(), false, log.getPath());
+        assertEquals(20, countLines(output));
+        Properties watermark = readWatermark();
+        assertEquals("10", watermark.getProperty("count.0"));
+        assertEquals("10", watermark.getProperty("count.1"));
+    }
+
+    public void testOnlyTheAddedSentencesAreUsed() throws Exception {
+        writeCorpus(10);
+        GenERRate generrate = new GenERRate(corpus.getPath(), true, spec.getPath(), words.getPath());
+        generrate.createRealisticErrorCorpusOneToOne(10, output.getPath(), false, log.getPath());
+        assertEquals(10, countLines(output));
+
+        writeCorpus(20);
+        generrate = new GenERRate(corpus.getPath(), true, spec.getPath(), words.getPath());
+        generrate.setAppending(true);
+        generrate.createRealisticErrorCorpusOneToOne(20, output.getPath(), false, log.getPath());
+        assertEquals(20, countLines(output));
+        Properties watermark = readWatermark();
+        assertEquals("20", watermark.getProperty("sentences"));
+        assertEquals("10", watermark.getProperty("count.0"));
+        assertEquals("10", watermark.getProperty("count.1"));
+
+        BufferedReader reader = new BufferedReader(new FileReader(output));
+        for (int i = 0; i < 20; i++) {
+            String line = reader.readLine();
+            if (i >= 10) {
+                assertTrue(line, line.contains("added"));
+            }
+        }
+        reader.close();
+    }
+
+    private void writeCorpus(int sentences) throws IOException {
+        String[] lines = new String[sentences];
+        for (int i = 0; i < sentences; i++) {
+            lines[i] = (i < 10 ? "First" : "Then") + " NN sentence NN " + (i < 10 ? "read" : "added") + " VBD " + i + " CD";
+        }
+        write(corpus, lines);
+    }
+
+    private static void write(File file, String... lines) throws IOException {
+        PrintWriter writer = new PrintWriter(new FileWriter(file));
+        for (String line : lines) {
+            writer.println(line);
+        }
+        writer.close();
+    }
+
+    private static int countLines(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        int lines = 0;
+        while (reader.readLine() != null) {
+            lines++;
+        }
+        reader.close();
+        return lines;
+    }
+
+    private Properties readWatermark() throws IOException {
+        Properties watermark = new Properties();
+        Reader reader = new FileReader(output.getPath() + ".watermark");
+        watermark.load(reader);
+        reader.close();
+        return watermark;
+    }
+}